@@ -1,23 +1,109 @@
 package com.dynamicworkflow.config;
 
-import org.camunda.bpm.engine.ProcessEngine;
-import org.camunda.bpm.engine.ProcessEngineConfiguration;
-import org.camunda.bpm.engine.impl.cfg.StandaloneProcessEngineConfiguration;
+import com.dynamicworkflow.history.FilteringHistoryEventHandler;
+import com.dynamicworkflow.history.HistorySideLog;
+import com.dynamicworkflow.listener.ReviewTaskCatalog;
+import com.dynamicworkflow.listener.WorkflowProjectionListener;
+import com.dynamicworkflow.listener.WorkflowProjectionParseListener;
+import com.dynamicworkflow.metrics.CommandMetrics;
+import com.dynamicworkflow.plugin.AsyncServiceTaskPlugin;
+import com.dynamicworkflow.plugin.CommandMetricsPlugin;
+import com.dynamicworkflow.plugin.CompactVariablePlugin;
+import com.dynamicworkflow.plugin.HistoryFilterPlugin;
+import com.dynamicworkflow.plugin.WorkflowProjectionPlugin;
+import com.dynamicworkflow.variable.CompactJsonValueSerializer;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
 
+/**
+ * Engine plugins and beans of the recruitment workflow. The engine itself is configured
+ * by the Camunda starter from camunda.bpm.* (schema update, history level, job execution).
+ */
 @Configuration
 public class CamundaConfig {
 
+    /**
+     * Pushes task and process end events into JobApplicationService so application
+     * status is projected incrementally instead of being re-synced on every read
+     */
     @Bean
-    public ProcessEngineConfiguration processEngineConfiguration(DataSource dataSource) {
-        StandaloneProcessEngineConfiguration config = new StandaloneProcessEngineConfiguration();
-        config.setDataSource(dataSource);
-        config.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE);
-        config.setJobExecutorActivate(false);
-        config.setHistory(ProcessEngineConfiguration.HISTORY_FULL);
-        return config;
+    public ProcessEnginePlugin workflowProjectionPlugin(ApplicationEventPublisher eventPublisher,
+                                                        ReviewTaskCatalog reviewTaskCatalog) {
+        return new WorkflowProjectionPlugin(new WorkflowProjectionListener(eventPublisher), reviewTaskCatalog);
     }
-}
\ No newline at end of file
+
+    /**
+     * Task key to reviewer role mapping, filled while process definitions are parsed
+     */
+    @Bean
+    public ReviewTaskCatalog reviewTaskCatalog() {
+        return new ReviewTaskCatalog();
+    }
+
+    /**
+     * Keeps bulk applicant variables, form properties, identity links and gateway
+     * activities of the recruitment process out of the history tables
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.history.filter-enabled", havingValue = "true", matchIfMissing = true)
+    public FilteringHistoryEventHandler filteringHistoryEventHandler(
+            @Value("${workflow.history.side-log:./data/history/variables.log}") String sideLogPath,
+            @Value("${workflow.history.side-log-max-size-mb:256}") long sideLogMaxSizeMb) throws IOException {
+        Set<String> keptVariables = new HashSet<>(WorkflowProjectionListener.PROJECTED_VARIABLES);
+        keptVariables.add("applicationId");
+        HistorySideLog sideLog = new HistorySideLog(Paths.get(sideLogPath), sideLogMaxSizeMb * 1024 * 1024);
+        return new FilteringHistoryEventHandler(WorkflowProjectionParseListener.PROCESS_DEFINITION_KEY, keptVariables, sideLog);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "workflow.history.filter-enabled", havingValue = "true", matchIfMissing = true)
+    public ProcessEnginePlugin historyFilterPlugin(FilteringHistoryEventHandler filteringHistoryEventHandler) {
+        return new HistoryFilterPlugin(filteringHistoryEventHandler);
+    }
+
+    /**
+     * Opt-in: service tasks run on the job executor instead of inside the request that
+     * completed the preceding user task (tuned under camunda.bpm.job-execution)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.async.service-tasks", havingValue = "true")
+    public ProcessEnginePlugin asyncServiceTaskPlugin() {
+        return new AsyncServiceTaskPlugin();
+    }
+
+    /**
+     * Map and list variables (applicantData, onboarding data) as compact JSON instead of
+     * Java serialization; values written before stay readable with their own serializer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.variables.compact-serialization", havingValue = "true", matchIfMissing = true)
+    public ProcessEnginePlugin compactVariablePlugin(
+            @Value("${workflow.variables.deflate-threshold-bytes:512}") int deflateThreshold) {
+        return new CompactVariablePlugin(new CompactJsonValueSerializer(deflateThreshold));
+    }
+
+    /**
+     * Latency, SQL statements and optimistic locking failures per engine command;
+     * commands slower than slow-command-ms are logged
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.metrics.commands-enabled", havingValue = "true", matchIfMissing = true)
+    public CommandMetrics commandMetrics(@Value("${workflow.metrics.slow-command-ms:500}") long slowCommandMs) {
+        return new CommandMetrics(slowCommandMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "workflow.metrics.commands-enabled", havingValue = "true", matchIfMissing = true)
+    public ProcessEnginePlugin commandMetricsPlugin(CommandMetrics commandMetrics) {
+        return new CommandMetricsPlugin(commandMetrics);
+    }
+}
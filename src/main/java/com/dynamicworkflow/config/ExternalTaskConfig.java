@@ -0,0 +1,75 @@
+package com.dynamicworkflow.config;
+
+import com.dynamicworkflow.delegate.SendRejectionDelegate;
+import com.dynamicworkflow.delegate.StoreApplicationDelegate;
+import com.dynamicworkflow.externaltask.ExternalTaskSignal;
+import com.dynamicworkflow.externaltask.ExternalTaskWorkerPool;
+import com.dynamicworkflow.plugin.ExternalTaskPlugin;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * External task mode: rejection and store-application work leaves the engine
+ * transaction and is done by workers, embedded here unless disabled on API-only nodes
+ */
+@Configuration
+@ConditionalOnProperty(name = "workflow.external-tasks.enabled", havingValue = "true")
+public class ExternalTaskConfig {
+
+    public static final String SEND_REJECTION_TOPIC = "send-rejection";
+    public static final String STORE_APPLICATION_TOPIC = "store-application";
+
+    @Bean
+    public ExternalTaskSignal externalTaskSignal() {
+        return new ExternalTaskSignal();
+    }
+
+    @Bean
+    public ProcessEnginePlugin externalTaskPlugin(ExternalTaskSignal externalTaskSignal) {
+        Map<String, String> topicsByDelegate = new HashMap<>();
+        topicsByDelegate.put("${sendRejectionDelegate}", SEND_REJECTION_TOPIC);
+        topicsByDelegate.put("${storeApplicationDelegate}", STORE_APPLICATION_TOPIC);
+        return new ExternalTaskPlugin(topicsByDelegate, externalTaskSignal);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "workflow.external-tasks.embedded-workers", havingValue = "true", matchIfMissing = true)
+    public ExternalTaskWorkerPool externalTaskWorkerPool(ProcessEngine processEngine,
+                                                         ExternalTaskSignal externalTaskSignal,
+                                                         SendRejectionDelegate sendRejectionDelegate,
+                                                         StoreApplicationDelegate storeApplicationDelegate,
+                                                         @Value("${workflow.external-tasks.max-tasks:10}") int maxTasks,
+                                                         @Value("${workflow.external-tasks.lock-duration-ms:60000}") long lockDurationMs,
+                                                         @Value("${workflow.external-tasks.long-poll-ms:20000}") long longPollMs,
+                                                         @Value("${workflow.external-tasks.retries:3}") int retries,
+                                                         @Value("${workflow.external-tasks.retry-timeout-ms:30000}") long retryTimeoutMs,
+                                                         @Value("${workflow.external-tasks.concurrency.send-rejection:2}") int rejectionConcurrency,
+                                                         @Value("${workflow.external-tasks.concurrency.store-application:2}") int storeConcurrency) {
+        ExternalTaskWorkerPool pool = new ExternalTaskWorkerPool(processEngine.getExternalTaskService(), externalTaskSignal,
+            workerId(), maxTasks, lockDurationMs, longPollMs, retries, retryTimeoutMs);
+        pool.register(SEND_REJECTION_TOPIC, rejectionConcurrency, SendRejectionDelegate.INPUT_VARIABLES,
+            sendRejectionDelegate::reject);
+        // Stores (and logs) the full form data, so every variable is fetched
+        pool.register(STORE_APPLICATION_TOPIC, storeConcurrency, null, storeApplicationDelegate::store);
+        return pool;
+    }
+
+    private static String workerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
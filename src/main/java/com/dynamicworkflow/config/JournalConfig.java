@@ -0,0 +1,24 @@
+package com.dynamicworkflow.config;
+
+import com.dynamicworkflow.journal.ApplicationJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class JournalConfig {
+
+    /**
+     * Opening the journal replays it, so the recovered state is ready before any request is served
+     */
+    @Bean(destroyMethod = "close")
+    public ApplicationJournal applicationJournal(@Value("${workflow.journal.dir:./data/journal}") String directory,
+                                                 @Value("${workflow.journal.segment-size-mb:64}") int segmentSizeMb,
+                                                 @Value("${workflow.journal.fsync:false}") boolean fsync,
+                                                 @Value("${workflow.journal.snapshot-every:50000}") long snapshotEvery) throws IOException {
+        return ApplicationJournal.open(Paths.get(directory), segmentSizeMb * 1024 * 1024, fsync, snapshotEvery);
+    }
+}
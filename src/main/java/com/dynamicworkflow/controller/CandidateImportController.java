@@ -0,0 +1,90 @@
+package com.dynamicworkflow.controller;
+
+import com.dynamicworkflow.service.CandidateImportJob;
+import com.dynamicworkflow.service.CandidateImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/job-applications/imports")
+@CrossOrigin(origins = "*")
+public class CandidateImportController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CandidateImportController.class);
+    
+    private final CandidateImportService candidateImportService;
+    
+    public CandidateImportController(CandidateImportService candidateImportService) {
+        this.candidateImportService = candidateImportService;
+    }
+    
+    /**
+     * POST /api/job-applications/imports?format=csv|json
+     * Upload a candidate list as the raw request body; the import runs in the background
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startImport(@RequestParam(required = false) String format,
+                                                           HttpServletRequest request) {
+        try {
+            String importFormat = format != null ? format : formatOf(request.getContentType());
+            CandidateImportJob job = candidateImportService.submit(request.getInputStream(), importFormat);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toProgress());
+            
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            logger.error("Failed to start candidate import", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
+    /**
+     * GET /api/job-applications/imports/{importId}
+     * Progress of an import
+     */
+    @GetMapping("/{importId}")
+    public ResponseEntity<Map<String, Object>> getImport(@PathVariable String importId) {
+        Optional<CandidateImportJob> job = candidateImportService.getJob(importId);
+        return job.map(candidateImportJob -> ResponseEntity.ok(candidateImportJob.toProgress()))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /api/job-applications/imports/{importId}/rejected
+     * Rejected rows with their row number and reason
+     */
+    @GetMapping("/{importId}/rejected")
+    public ResponseEntity<Map<String, Object>> getRejectedRows(@PathVariable String importId) {
+        Optional<CandidateImportJob> job = candidateImportService.getJob(importId);
+        if (!job.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Map<String, Object>> rejectedRows = job.get().getRejectedRows();
+        Map<String, Object> response = new HashMap<>(job.get().toProgress());
+        response.put("reported", rejectedRows.size());
+        response.put("rejected", rejectedRows);
+        return ResponseEntity.ok(response);
+    }
+    
+    private static String formatOf(String contentType) {
+        if (contentType != null && contentType.toLowerCase().contains("json")) {
+            return "json";
+        }
+        return "csv";
+    }
+}
@@ -1,8 +1,16 @@
 package com.dynamicworkflow.controller;
 
+import com.dynamicworkflow.dto.ApplicationProjection;
 import com.dynamicworkflow.dto.ApplicationResponse;
+import com.dynamicworkflow.dto.ApplicationView;
+import com.dynamicworkflow.history.FilteringHistoryEventHandler;
+import com.dynamicworkflow.metrics.CommandMetrics;
+import com.dynamicworkflow.model.ReviewRole;
 import com.dynamicworkflow.model.WorkflowDefinition;
 import com.dynamicworkflow.model.WorkflowStep;
+import com.dynamicworkflow.service.ApplicationQuery;
+import com.dynamicworkflow.service.ApplicationStreamService;
+import com.dynamicworkflow.service.BulkDecisionService;
 import com.dynamicworkflow.service.JobApplicationService;
 import com.dynamicworkflow.service.ValidationService;
 import com.dynamicworkflow.service.WorkflowDefinitionService;
@@ -10,11 +18,19 @@ import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,13 +45,25 @@ public class JobApplicationController {
     private final JobApplicationService jobApplicationService;
     private final WorkflowDefinitionService workflowDefinitionService;
     private final RuntimeService runtimeService;
+    private final BulkDecisionService bulkDecisionService;
+    private final ObjectProvider<FilteringHistoryEventHandler> historyEventHandler;
+    private final ObjectProvider<CommandMetrics> commandMetrics;
+    private final ApplicationStreamService applicationStreamService;
     
     public JobApplicationController(JobApplicationService jobApplicationService,
                                  WorkflowDefinitionService workflowDefinitionService,
-                                 RuntimeService runtimeService) {
+                                 RuntimeService runtimeService,
+                                 BulkDecisionService bulkDecisionService,
+                                 ObjectProvider<FilteringHistoryEventHandler> historyEventHandler,
+                                 ObjectProvider<CommandMetrics> commandMetrics,
+                                 ApplicationStreamService applicationStreamService) {
         this.jobApplicationService = jobApplicationService;
         this.workflowDefinitionService = workflowDefinitionService;
         this.runtimeService = runtimeService;
+        this.bulkDecisionService = bulkDecisionService;
+        this.historyEventHandler = historyEventHandler;
+        this.commandMetrics = commandMetrics;
+        this.applicationStreamService = applicationStreamService;
     }
     
     /**
@@ -43,10 +71,13 @@ public class JobApplicationController {
      * Get the complete workflow definition
      */
     @GetMapping("/workflow-definition")
-    public ResponseEntity<WorkflowDefinition> getWorkflowDefinition() {
+    public ResponseEntity<WorkflowDefinition> getWorkflowDefinition(WebRequest webRequest) {
         try {
+            if (webRequest.checkNotModified(eTag("definition", workflowDefinitionService.getDefinitionDigest()))) {
+                return null;
+            }
             WorkflowDefinition definition = workflowDefinitionService.getWorkflowDefinition();
-            return ResponseEntity.ok(definition);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(definition);
         } catch (Exception e) {
             logger.error("Failed to get workflow definition", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -58,11 +89,14 @@ public class JobApplicationController {
      * Get specific step definition
      */
     @GetMapping("/steps/{stepId}")
-    public ResponseEntity<WorkflowStep> getStep(@PathVariable String stepId) {
+    public ResponseEntity<WorkflowStep> getStep(@PathVariable String stepId, WebRequest webRequest) {
         try {
             Optional<WorkflowStep> step = workflowDefinitionService.getStepById(stepId);
             if (step.isPresent()) {
-                return ResponseEntity.ok(step.get());
+                if (webRequest.checkNotModified(eTag("step", workflowDefinitionService.getDefinitionDigest(), stepId))) {
+                    return null;
+                }
+                return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(step.get());
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -111,14 +145,31 @@ public class JobApplicationController {
     }
     
     /**
-     * GET /api/job-applications/{applicationId}
-     * Get application data
+     * GET /api/job-applications/{applicationId}[?projection=card|hr-summary][&fields=a,b,c]
+     * Get application data; with a projection or fields only those fields of the application
      */
     @GetMapping("/{applicationId}")
-    public ResponseEntity<ApplicationResponse> getApplication(@PathVariable String applicationId) {
+    public ResponseEntity<?> getApplication(@PathVariable String applicationId,
+                                            @RequestParam(required = false) String projection,
+                                            @RequestParam(required = false) String fields,
+                                            WebRequest webRequest) {
         try {
+            ApplicationProjection applicationProjection = ApplicationProjection.parse(projection, fields);
+            String stateVersion = jobApplicationService.getApplicationStateVersion(applicationId);
+            if (stateVersion != null && webRequest.checkNotModified(
+                    eTag("application", stateVersion, applicationProjection != null ? applicationProjection.getTag() : "full"))) {
+                return null;
+            }
+            if (applicationProjection != null) {
+                Map<String, Object> application = jobApplicationService.getApplicationById(applicationId);
+                return application != null
+                    ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(new ApplicationView(applicationProjection, application))
+                    : ResponseEntity.notFound().build();
+            }
             ApplicationResponse response = jobApplicationService.getApplication(applicationId);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Failed to get application: {}", applicationId, e);
             ApplicationResponse errorResponse = new ApplicationResponse(applicationId, "ERROR", e.getMessage());
@@ -131,32 +182,13 @@ public class JobApplicationController {
      * Get formatted applicant summary for HR review
      */
     @GetMapping("/{applicationId}/hr-summary")
-    public ResponseEntity<Map<String, Object>> getHRSummary(@PathVariable String applicationId) {
+    public ResponseEntity<?> getHRSummary(@PathVariable String applicationId) {
         try {
-            ApplicationResponse application = jobApplicationService.getApplication(applicationId);
-            
-            if (application.getData() == null) {
+            Map<String, Object> application = jobApplicationService.getApplicationById(applicationId);
+            if (application == null) {
                 return ResponseEntity.notFound().build();
             }
-            
-            Map<String, Object> hrSummary = new HashMap<>();
-            Map<String, Object> appData = application.getData();
-            
-            // Format data for HR display
-            hrSummary.put("applicationId", applicationId);
-            hrSummary.put("applicantName", appData.get("firstName") + " " + appData.get("lastName"));
-            hrSummary.put("email", appData.get("email"));
-            hrSummary.put("mobile", appData.get("mobileNumber"));
-            hrSummary.put("position", appData.get("position"));
-            hrSummary.put("expectedCTC", appData.get("expectedSalaryCTC"));
-            hrSummary.put("experience", appData.get("totalExperience"));
-            hrSummary.put("education", appData.get("highestEducation"));
-            hrSummary.put("skills", appData.get("skills"));
-            hrSummary.put("noticePeriod", appData.get("noticePeriod"));
-            hrSummary.put("applicationStatus", application.getStatus());
-            hrSummary.put("submissionDate", appData.get("submissionTimestamp"));
-            
-            return ResponseEntity.ok(hrSummary);
+            return ResponseEntity.ok(new ApplicationView(ApplicationProjection.named("hr-summary"), application));
             
         } catch (Exception e) {
             logger.error("Failed to get HR summary for application: {}", applicationId, e);
@@ -207,15 +239,48 @@ public class JobApplicationController {
         }
     }
     
+    /**
+     * GET /api/job-applications?status=PENDING_HR_REVIEW,HR_APPROVED&position=software-engineer
+     *     &referral=true&from=2024-01-01&to=2024-01-31&sort=-submittedAt&limit=50&cursor=...
+     * One page of applications; pass nextCursor of a page as cursor to get the next one
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listApplications(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String position,
+            @RequestParam(required = false) Boolean referral,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            ApplicationQuery query = ApplicationQuery.of(status, position, referral, from, to, sort, limit, cursor);
+            return ResponseEntity.ok(project(jobApplicationService.listApplications(query),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to list applications", e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     /**
      * GET /api/job-applications/all
      * Get all applications (for debugging)
      */
     @GetMapping("/all")
-    public ResponseEntity<Map<String, Object>> getAllApplications() {
+    public ResponseEntity<Map<String, Object>> getAllApplications(
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
         try {
             Map<String, Object> result = jobApplicationService.getAllApplications();
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(project(result, ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Failed to get all applications", e);
             Map<String, Object> errorResponse = new HashMap<>();
@@ -224,6 +289,176 @@ public class JobApplicationController {
         }
     }
     
+    /**
+     * GET /api/job-applications/inbox?role=hr
+     * Applications waiting for a decision by the role (hr, tl, pm, headhr, companymanager)
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<Map<String, Object>> getInbox(@RequestParam String role,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(project(jobApplicationService.getInbox(role),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to get inbox for role: {}", role, e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * GET /api/job-applications/changes?since=0&limit=100
+     * Applications changed after the given change sequence and ids of deleted ones; pass
+     * nextSince as since to continue. since=0 returns every application.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(project(jobApplicationService.getChangesSince(since, limit),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to get changes since {}", since, e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * GET /api/job-applications/stream?role=hr
+     * Server-sent events for the dashboards: an "application" event per change concerning
+     * the role (all changes without role), with the sequence number as event id. Resumes
+     * after Last-Event-ID; a "reset" event asks the client to reload instead.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) String role,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        ReviewRole reviewRole = null;
+        if (role != null && !role.trim().isEmpty()) {
+            reviewRole = ReviewRole.fromRequestRole(role.trim());
+            if (reviewRole == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (!applicationStreamService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        Long resumeAfter = null;
+        if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+            try {
+                resumeAfter = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours, start a fresh stream
+            }
+        }
+        return ResponseEntity.ok()
+            .header("Cache-Control", "no-cache")
+            .header("X-Accel-Buffering", "no")
+            .body(applicationStreamService.subscribe(reviewRole, resumeAfter));
+    }
+
+    /**
+     * GET /api/job-applications/by-status?status=PENDING_HR_REVIEW
+     */
+    @GetMapping("/by-status")
+    public ResponseEntity<Map<String, Object>> getApplicationsByStatus(@RequestParam String status,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(project(jobApplicationService.getApplicationsByStatus(status),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to get applications by status: {}", status, e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * GET /api/job-applications/by-position?position=Software Engineer
+     */
+    @GetMapping("/by-position")
+    public ResponseEntity<Map<String, Object>> getApplicationsByPosition(@RequestParam String position,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(project(jobApplicationService.getApplicationsByPosition(position),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to get applications by position: {}", position, e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * GET /api/job-applications/recent?limit=20
+     * Most recently submitted applications
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<Map<String, Object>> getRecentApplications(@RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String projection,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(project(jobApplicationService.getRecentApplications(limit),
+                                             ApplicationProjection.parse(projection, fields)));
+        } catch (IllegalArgumentException e) {
+            return indexQueryError(e, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Failed to get recent applications", e);
+            return indexQueryError(e, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Replaces the applications of a listing result by views of the projection
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> project(Map<String, Object> result, ApplicationProjection projection) {
+        if (projection == null) {
+            return result;
+        }
+        Object applications = result.get("applications");
+        if (applications instanceof Collection) {
+            List<ApplicationView> views = new ArrayList<>(((Collection<?>) applications).size());
+            for (Object application : (Collection<?>) applications) {
+                views.add(new ApplicationView(projection, (Map<String, Object>) application));
+            }
+            result.put("applications", views);
+        } else if (applications instanceof Map) {
+            Map<String, ApplicationView> views = new LinkedHashMap<>();
+            ((Map<String, Object>) applications).forEach((applicationId, application) ->
+                views.put(applicationId, new ApplicationView(projection, (Map<String, Object>) application)));
+            result.put("applications", views);
+        }
+        result.put("projection", projection.getName());
+        return result;
+    }
+
+    /**
+     * Strong ETag from the resource kind and the versions its representation depends on.
+     * checkNotModified() sets it on the response and answers a matching If-None-Match
+     * with 304, in which case the handler returns null and nothing is serialized.
+     */
+    private static String eTag(String... parts) {
+        return "\"" + String.join("-", parts) + "\"";
+    }
+
+    private ResponseEntity<Map<String, Object>> indexQueryError(Exception e, HttpStatus status) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
     /**
      * POST /api/job-applications/start-bpmn-process
      * Manually start a BPMN process instance for testing
@@ -309,12 +544,12 @@ public class JobApplicationController {
     @GetMapping("/sync")
     public ResponseEntity<Map<String, Object>> syncWithCamunda() {
         try {
-            // This will trigger the sync in getAllApplications
-            Map<String, Object> result = jobApplicationService.getAllApplications();
+            // Full reconciliation; regular reads are served from the event-driven projection
+            long totalApplications = jobApplicationService.syncWithCamunda();
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Sync completed successfully");
-            response.put("totalApplications", result.get("totalApplications"));
+            response.put("totalApplications", totalApplications);
             response.put("timestamp", System.currentTimeMillis());
             
             return ResponseEntity.ok(response);
@@ -327,6 +562,49 @@ public class JobApplicationController {
         }
     }
     
+    /**
+     * GET /api/job-applications/history-stats
+     * History events written, side-logged and dropped by the history filter
+     */
+    @GetMapping("/history-stats")
+    public ResponseEntity<Map<String, Object>> getHistoryStats() {
+        FilteringHistoryEventHandler handler = historyEventHandler.getIfAvailable();
+        Map<String, Object> response = new HashMap<>();
+        response.put("filterEnabled", handler != null);
+        if (handler != null) {
+            response.putAll(handler.getStats());
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * GET /api/job-applications/engine-metrics
+     * Latency histogram, SQL statements and optimistic locking failures per engine command
+     */
+    @GetMapping("/engine-metrics")
+    public ResponseEntity<Map<String, Object>> getEngineMetrics() {
+        CommandMetrics metrics = commandMetrics.getIfAvailable();
+        Map<String, Object> response = new HashMap<>();
+        response.put("commandMetricsEnabled", metrics != null);
+        if (metrics != null) {
+            response.putAll(metrics.getStats());
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * DELETE /api/job-applications/engine-metrics
+     * Starts a new measurement window
+     */
+    @DeleteMapping("/engine-metrics")
+    public ResponseEntity<Void> resetEngineMetrics() {
+        CommandMetrics metrics = commandMetrics.getIfAvailable();
+        if (metrics != null) {
+            metrics.reset();
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * POST /api/job-applications/{applicationId}/approve
      * Approve an application by a specific role
@@ -352,6 +630,31 @@ public class JobApplicationController {
         }
     }
     
+    /**
+     * POST /api/job-applications/bulk-decision
+     * Approve or reject many applications: {"items": [{applicationId, role, decision, comments, offerCTC}]}
+     */
+    @PostMapping("/bulk-decision")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> bulkDecision(@RequestBody Map<String, Object> request) {
+        try {
+            List<Map<String, Object>> items = (List<Map<String, Object>>) request.get("items");
+            return ResponseEntity.ok(bulkDecisionService.applyDecisions(items));
+            
+        } catch (IllegalArgumentException | ClassCastException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            logger.error("Failed to apply bulk decision", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
     /**
      * POST /api/job-applications/{applicationId}/reject
      * Reject an application by a specific role
@@ -429,10 +732,15 @@ public class JobApplicationController {
      * Get current application status and approval details
      */
     @GetMapping("/{applicationId}/status")
-    public ResponseEntity<Map<String, Object>> getApplicationStatus(@PathVariable String applicationId) {
+    public ResponseEntity<Map<String, Object>> getApplicationStatus(@PathVariable String applicationId,
+                                                                    WebRequest webRequest) {
         try {
+            String stateVersion = jobApplicationService.getApplicationStateVersion(applicationId);
+            if (stateVersion != null && webRequest.checkNotModified(eTag("status", stateVersion))) {
+                return null;
+            }
             Map<String, Object> status = jobApplicationService.getApplicationStatus(applicationId);
-            return ResponseEntity.ok(status);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(status);
         } catch (Exception e) {
             logger.error("Failed to get application status: {}", applicationId, e);
             Map<String, Object> errorResponse = new HashMap<>();
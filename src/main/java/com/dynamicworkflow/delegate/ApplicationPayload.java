@@ -0,0 +1,43 @@
+package com.dynamicworkflow.delegate;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Process variables backed by the application store. With workflow.variables.slim the
+ * form fields are not process variables, so a value missing from the variables is read
+ * from the application record, which is loaded once on the first miss.
+ */
+public class ApplicationPayload {
+
+    private final Map<String, Object> variables;
+    private final Function<String, Map<String, Object>> loader;
+    private Map<String, Object> record;
+    private boolean loaded;
+
+    /**
+     * @param loader application record by applicationId, null if unknown
+     */
+    public ApplicationPayload(Map<String, Object> variables, Function<String, Map<String, Object>> loader) {
+        this.variables = variables;
+        this.loader = loader;
+    }
+
+    public Object get(String name) {
+        Object value = variables.get(name);
+        if (value != null) {
+            return value;
+        }
+        if (!loaded) {
+            loaded = true;
+            Object applicationId = variables.get("applicationId");
+            record = applicationId != null ? loader.apply(applicationId.toString()) : null;
+        }
+        return record != null ? record.get(name) : null;
+    }
+
+    public String getString(String name) {
+        Object value = get(name);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -4,6 +4,7 @@ import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -16,6 +17,10 @@ public class CollectApplicantDataDelegate implements JavaDelegate {
     
     private static final Logger logger = LoggerFactory.getLogger(CollectApplicantDataDelegate.class);
     
+    // Form fields stay in the application store instead of the applicantData variable
+    @Value("${workflow.variables.slim:false}")
+    private boolean slimVariables;
+    
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String applicationId = (String) execution.getVariable("applicationId");
@@ -71,12 +76,11 @@ public class CollectApplicantDataDelegate implements JavaDelegate {
             logger.warn("Application {} has invalid referral ID: {}", applicationId, referralId);
         }
         
-        // Format data for HR display
-        String applicantSummary = formatForHRReview(applicantData);
-        
         // Set process variables for HR task
-        execution.setVariable("applicantData", applicantData);
-        execution.setVariable("applicantSummary", applicantSummary);
+        if (!slimVariables) {
+            execution.setVariable("applicantData", applicantData);
+            execution.setVariable("applicantSummary", formatForHRReview(applicantData));
+        }
         execution.setVariable("dataCollectionTimestamp", LocalDateTime.now().toString());
         execution.setVariable("readyForHRReview", true);
         
@@ -20,12 +20,29 @@ public class SendRejectionDelegate implements JavaDelegate {
     @Autowired
     private JobApplicationService jobApplicationService;
     
+    /**
+     * Variables read by {@link #reject(Map)}, fetched with the external task in worker mode
+     */
+    public static final String[] INPUT_VARIABLES = {"applicationId", "email", "firstName", "lastName", "hrComments"};
+    
     @Override
     public void execute(DelegateExecution execution) throws Exception {
-        String applicationId = (String) execution.getVariable("applicationId");
-        String applicantEmail = (String) execution.getVariable("email");
-        String applicantName = execution.getVariable("firstName") + " " + execution.getVariable("lastName");
-        String hrComments = (String) execution.getVariable("hrComments");
+        execution.setVariables(reject(execution.getVariables()));
+    }
+    
+    /**
+     * Rejects the application and notifies the applicant; shared by the delegate and
+     * the send-rejection external task worker
+     *
+     * @return process variables to set
+     */
+    public Map<String, Object> reject(Map<String, Object> variables) {
+        // Applicant fields come from the application store when they are not process variables
+        ApplicationPayload payload = new ApplicationPayload(variables, jobApplicationService::getApplicationById);
+        String applicationId = (String) variables.get("applicationId");
+        String applicantEmail = payload.getString("email");
+        String applicantName = payload.get("firstName") + " " + payload.get("lastName");
+        String hrComments = payload.getString("hrComments");
         
         logger.info("Sending rejection notification for application: {} to {}", applicationId, applicantEmail);
         
@@ -39,10 +56,11 @@ public class SendRejectionDelegate implements JavaDelegate {
         String rejectionMessage = buildRejectionMessage(applicantName, hrComments);
         
         // Set process variables
-        execution.setVariable("applicationStatus", "REJECTED");
-        execution.setVariable("rejectionTimestamp", LocalDateTime.now().toString());
-        execution.setVariable("rejectionMessage", rejectionMessage);
-        execution.setVariable("notificationSent", true);
+        Map<String, Object> processVariables = new HashMap<>();
+        processVariables.put("applicationStatus", "REJECTED");
+        processVariables.put("rejectionTimestamp", LocalDateTime.now().toString());
+        processVariables.put("rejectionMessage", rejectionMessage);
+        processVariables.put("notificationSent", true);
         
         // Update our in-memory application store
         Map<String, Object> additionalData = new HashMap<>();
@@ -58,6 +76,7 @@ public class SendRejectionDelegate implements JavaDelegate {
         logger.info("Rejection message: {}", rejectionMessage);
         
         logger.info("Application {} rejected and notification sent successfully", applicationId);
+        return processVariables;
     }
     
     private String buildRejectionMessage(String applicantName, String hrComments) {
@@ -22,16 +22,24 @@ public class StoreApplicationDelegate implements JavaDelegate {
     
     @Override
     public void execute(DelegateExecution execution) throws Exception {
-        String applicationId = (String) execution.getVariable("applicationId");
+        execution.setVariables(store(execution.getVariables()));
+    }
+    
+    /**
+     * Accepts and stores the application; shared by the delegate and the
+     * store-application external task worker
+     *
+     * @param variables all process variables (form data and HR decision)
+     * @return process variables to set
+     */
+    public Map<String, Object> store(Map<String, Object> variables) {
+        String applicationId = (String) variables.get("applicationId");
         logger.info("Storing application: {}", applicationId);
         
-        // Get all process variables (form data)
-        Map<String, Object> variables = execution.getVariables();
-        
         // Get HR decision details
-        String hrDecision = (String) execution.getVariable("hrDecision");
-        String hrComments = (String) execution.getVariable("hrComments");
-        Boolean interviewRequired = (Boolean) execution.getVariable("interviewRequired");
+        String hrDecision = (String) variables.get("hrDecision");
+        String hrComments = (String) variables.get("hrComments");
+        Boolean interviewRequired = (Boolean) variables.get("interviewRequired");
         // Handle null interviewRequired safely
         boolean interviewRequiredValue = interviewRequired != null ? interviewRequired : false;
         
@@ -47,10 +55,11 @@ public class StoreApplicationDelegate implements JavaDelegate {
         logger.info("Application data for {}: {}", applicationId, variables);
         logger.info("HR Decision: {}, Comments: {}, Interview Required: {}", hrDecision, hrComments, interviewRequiredValue);
         
-        execution.setVariable("applicationStatus", "ACCEPTED");
-        execution.setVariable("acceptanceTimestamp", LocalDateTime.now());
-        execution.setVariable("referenceNumber", "REF-" + System.currentTimeMillis());
-        execution.setVariable("nextStep", interviewRequiredValue ? "INTERVIEW_SCHEDULING" : "ONBOARDING_PROCESS");
+        Map<String, Object> processVariables = new HashMap<>();
+        processVariables.put("applicationStatus", "ACCEPTED");
+        processVariables.put("acceptanceTimestamp", LocalDateTime.now());
+        processVariables.put("referenceNumber", "REF-" + System.currentTimeMillis());
+        processVariables.put("nextStep", interviewRequiredValue ? "INTERVIEW_SCHEDULING" : "ONBOARDING_PROCESS");
         
         // Update our in-memory application store
         Map<String, Object> additionalData = new HashMap<>();
@@ -63,5 +72,6 @@ public class StoreApplicationDelegate implements JavaDelegate {
         jobApplicationService.updateApplicationStatus(applicationId, "ACCEPTED", additionalData);
         
         logger.info("Application {} accepted and stored successfully", applicationId);
+        return processVariables;
     }
 }
\ No newline at end of file
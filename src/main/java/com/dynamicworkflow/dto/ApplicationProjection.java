@@ -0,0 +1,128 @@
+package com.dynamicworkflow.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The fields of an application an endpoint returns: a named projection or the list
+ * given in a fields= parameter. Each output field reads one store field, optionally
+ * under another name; applicantName is derived from first and last name.
+ */
+public final class ApplicationProjection {
+
+    public static final String APPLICANT_NAME = "applicantName";
+
+    private static final int MAX_FIELDS = 64;
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+    private static final Map<String, ApplicationProjection> NAMED = new LinkedHashMap<>();
+
+    static {
+        // The columns the review dashboards render
+        register("card", "applicationId", APPLICANT_NAME, "position", "applicationStatus",
+                 "expectedSalaryCTC", "submissionTimestamp");
+        // Same shape as the former /hr-summary response
+        register("hr-summary", "applicationId", APPLICANT_NAME, "email", "mobile=mobileNumber", "position",
+                 "expectedCTC=expectedSalaryCTC", "experience=totalExperience", "education=highestEducation",
+                 "skills", "noticePeriod", "applicationStatus", "submissionDate=submissionTimestamp");
+    }
+
+    private final String name;
+    private final String[] outputNames;
+    private final String[] sourceFields;
+
+    private ApplicationProjection(String name, String[] outputNames, String[] sourceFields) {
+        this.name = name;
+        this.outputNames = outputNames;
+        this.sourceFields = sourceFields;
+    }
+
+    /**
+     * @param projection name of a named projection
+     * @param fields     comma-separated store fields; applicationId is always included
+     * @return null when neither is given, i.e. the full application
+     */
+    public static ApplicationProjection parse(String projection, String fields) {
+        boolean hasProjection = projection != null && !projection.trim().isEmpty();
+        boolean hasFields = fields != null && !fields.trim().isEmpty();
+        if (hasProjection && hasFields) {
+            throw new IllegalArgumentException("Use either projection or fields, not both");
+        }
+        if (hasProjection) {
+            ApplicationProjection named = NAMED.get(projection.trim().toLowerCase());
+            if (named == null) {
+                throw new IllegalArgumentException("Unknown projection: " + projection + " (one of " + NAMED.keySet() + ")");
+            }
+            return named;
+        }
+        if (!hasFields) {
+            return null;
+        }
+
+        List<String> names = new ArrayList<>();
+        names.add("applicationId");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || names.contains(name)) {
+                continue;
+            }
+            if (!FIELD_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid field name: " + name);
+            }
+            names.add(name);
+        }
+        if (names.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException("At most " + MAX_FIELDS + " fields per request");
+        }
+        String[] array = names.toArray(new String[0]);
+        return new ApplicationProjection("fields", array, array);
+    }
+
+    public static ApplicationProjection named(String name) {
+        return NAMED.get(name);
+    }
+
+    public String getName() { return name; }
+
+    /**
+     * Identifies the representation, e.g. to tell ETags of different projections apart
+     */
+    public String getTag() {
+        return "fields".equals(name) ? name + "." + String.join(".", outputNames) : name;
+    }
+
+    int size() { return outputNames.length; }
+
+    String outputName(int index) { return outputNames[index]; }
+
+    /**
+     * Reads the field straight from the application; ApplicationRecord answers get()
+     * from its typed slots
+     */
+    Object valueOf(int index, Map<String, Object> application) {
+        String field = sourceFields[index];
+        Object value = application.get(field);
+        if (value == null && APPLICANT_NAME.equals(field)) {
+            Object firstName = application.get("firstName");
+            Object lastName = application.get("lastName");
+            if (firstName == null || lastName == null) {
+                return firstName != null ? firstName.toString() : lastName != null ? lastName.toString() : null;
+            }
+            return firstName + " " + lastName;
+        }
+        return value;
+    }
+
+    private static void register(String name, String... fields) {
+        String[] outputNames = new String[fields.length];
+        String[] sourceFields = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            int alias = fields[i].indexOf('=');
+            outputNames[i] = alias > 0 ? fields[i].substring(0, alias) : fields[i];
+            sourceFields[i] = alias > 0 ? fields[i].substring(alias + 1) : fields[i];
+        }
+        NAMED.put(name, new ApplicationProjection(name, outputNames, sourceFields));
+    }
+}
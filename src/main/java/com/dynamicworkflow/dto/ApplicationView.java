@@ -0,0 +1,40 @@
+package com.dynamicworkflow.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * An application as serialized through a projection: the requested fields are written
+ * from the stored record as JSON is generated, without copying them into a map first
+ */
+public class ApplicationView implements JsonSerializable {
+
+    private final ApplicationProjection projection;
+    private final Map<String, Object> application;
+
+    public ApplicationView(ApplicationProjection projection, Map<String, Object> application) {
+        this.projection = projection;
+        this.application = application;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < projection.size(); i++) {
+            generator.writeFieldName(projection.outputName(i));
+            serializers.defaultSerializeValue(projection.valueOf(i, application), generator);
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,45 @@
+package com.dynamicworkflow.externaltask;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wakes the embedded workers of a topic when the engine commits a new external task,
+ * so an idle worker blocks in {@link #await} instead of polling the database
+ */
+public class ExternalTaskSignal {
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    public void signal(String topic) {
+        Topic state = topics.computeIfAbsent(topic, name -> new Topic());
+        synchronized (state) {
+            state.pending = true;
+            state.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the topic is signalled or the timeout passes
+     *
+     * @return true if a signal arrived
+     */
+    public boolean await(String topic, long timeoutMs) throws InterruptedException {
+        Topic state = topics.computeIfAbsent(topic, name -> new Topic());
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (state) {
+            long remaining = timeoutMs;
+            while (!state.pending && remaining > 0) {
+                state.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            boolean signalled = state.pending;
+            state.pending = false;
+            return signalled;
+        }
+    }
+
+    private static class Topic {
+        private boolean pending;
+    }
+}
@@ -0,0 +1,189 @@
+package com.dynamicworkflow.externaltask;
+
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process external task workers. Each topic has one fetch thread that locks up to
+ * as many tasks as it has free handler threads, so a topic never runs more than its
+ * concurrency limit at once. When nothing is available the fetch thread long-polls:
+ * it blocks on the ExternalTaskSignal until the engine commits a new task for the
+ * topic or the poll timeout passes.
+ */
+public class ExternalTaskWorkerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalTaskWorkerPool.class);
+
+    private final ExternalTaskService externalTaskService;
+    private final ExternalTaskSignal signal;
+    private final String workerId;
+    private final int maxTasksPerFetch;
+    private final long lockDurationMs;
+    private final long longPollMs;
+    private final int retries;
+    private final long retryTimeoutMs;
+    private final List<TopicWorker> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public ExternalTaskWorkerPool(ExternalTaskService externalTaskService, ExternalTaskSignal signal, String workerId,
+                                  int maxTasksPerFetch, long lockDurationMs, long longPollMs,
+                                  int retries, long retryTimeoutMs) {
+        this.externalTaskService = externalTaskService;
+        this.signal = signal;
+        this.workerId = workerId;
+        this.maxTasksPerFetch = maxTasksPerFetch;
+        this.lockDurationMs = lockDurationMs;
+        this.longPollMs = longPollMs;
+        this.retries = retries;
+        this.retryTimeoutMs = retryTimeoutMs;
+    }
+
+    /**
+     * Registers a handler before {@link #start()}
+     *
+     * @param variables variables fetched with each task, null for all
+     * @param handler   receives the task variables and returns the variables to complete with
+     */
+    public void register(String topic, int concurrency, String[] variables,
+                         Function<Map<String, Object>, Map<String, Object>> handler) {
+        workers.add(new TopicWorker(topic, concurrency, variables, handler));
+    }
+
+    public void start() {
+        running = true;
+        for (TopicWorker worker : workers) {
+            worker.start();
+        }
+        logger.info("Started {} external task workers as {}", workers.size(), workerId);
+    }
+
+    public void stop() {
+        running = false;
+        for (TopicWorker worker : workers) {
+            worker.stop();
+        }
+    }
+
+    private class TopicWorker {
+        private final String topic;
+        private final String[] variables;
+        private final Function<Map<String, Object>, Map<String, Object>> handler;
+        private final Semaphore slots;
+        private final ExecutorService fetcher;
+        private final ExecutorService handlers;
+
+        TopicWorker(String topic, int concurrency, String[] variables,
+                    Function<Map<String, Object>, Map<String, Object>> handler) {
+            this.topic = topic;
+            this.variables = variables;
+            this.handler = handler;
+            this.slots = new Semaphore(concurrency);
+            this.fetcher = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "external-task-fetch-" + topic));
+            this.handlers = Executors.newFixedThreadPool(concurrency, runnable -> daemon(runnable, "external-task-" + topic));
+        }
+
+        void start() {
+            fetcher.execute(this::fetchLoop);
+        }
+
+        void stop() {
+            fetcher.shutdownNow();
+            handlers.shutdown();
+            try {
+                handlers.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void fetchLoop() {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    slots.acquire();
+                    int free = 1 + slots.drainPermits();
+                    List<LockedExternalTask> tasks = Collections.emptyList();
+                    try {
+                        tasks = fetch(Math.min(free, maxTasksPerFetch));
+                    } finally {
+                        // Each locked task holds its slot until its handler finishes
+                        slots.release(free - tasks.size());
+                    }
+                    for (LockedExternalTask task : tasks) {
+                        handlers.execute(() -> handle(task));
+                    }
+                    if (tasks.isEmpty()) {
+                        signal.await(topic, longPollMs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.warn("Fetching external tasks for {} failed, will retry: {}", topic, e.getMessage());
+                    sleepQuietly(retryTimeoutMs);
+                }
+            }
+        }
+
+        private List<LockedExternalTask> fetch(int maxTasks) {
+            ExternalTaskQueryTopicBuilder query = externalTaskService.fetchAndLock(maxTasks, workerId, true)
+                .topic(topic, lockDurationMs);
+            if (variables != null) {
+                query.variables(variables);
+            }
+            return query.execute();
+        }
+
+        private void handle(LockedExternalTask task) {
+            try {
+                Map<String, Object> result = handler.apply(task.getVariables());
+                externalTaskService.complete(task.getId(), workerId, result);
+            } catch (Exception e) {
+                int remaining = task.getRetries() != null ? task.getRetries() - 1 : retries - 1;
+                logger.warn("External task {} on {} failed ({} retries left): {}", task.getId(), topic, remaining, e.getMessage());
+                try {
+                    externalTaskService.handleFailure(task.getId(), workerId, e.getMessage(), stackTrace(e),
+                        Math.max(remaining, 0), retryTimeoutMs);
+                } catch (Exception failure) {
+                    // The lock expires and the task is fetched again
+                    logger.error("Failed to report failure of external task {}: {}", task.getId(), failure.getMessage());
+                }
+            } finally {
+                slots.release();
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static String stackTrace(Exception e) {
+        StringWriter writer = new StringWriter();
+        e.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.dynamicworkflow.history;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricFormPropertyEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricIdentityLinkLogEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Composite history handler for the recruitment process. Events the application reads
+ * back (process and task instances, review decisions, activity starts/ends) go to the
+ * delegate handlers unchanged; bulk variables and form properties are written as one
+ * line each to a side log after the transaction commits; identity link and gateway
+ * events are dropped. Events of other process definitions pass through untouched.
+ */
+public class FilteringHistoryEventHandler implements HistoryEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilteringHistoryEventHandler.class);
+
+    private static final int MAX_SIDE_LOG_VALUE = 256;
+
+    private final String processDefinitionKey;
+    private final Set<String> keptVariables;
+    private final HistorySideLog sideLog;
+    private volatile List<HistoryEventHandler> delegates = Collections.emptyList();
+
+    // Side log lines of the running transactions, written once each commits
+    private final ThreadLocal<Map<CommandContext, List<String>>> pendingLines = ThreadLocal.withInitial(HashMap::new);
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder sideLogged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rowsUnfiltered = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+
+    public FilteringHistoryEventHandler(String processDefinitionKey, Set<String> keptVariables, HistorySideLog sideLog) {
+        this.processDefinitionKey = processDefinitionKey;
+        this.keptVariables = keptVariables;
+        this.sideLog = sideLog;
+    }
+
+    /**
+     * Set once the engine configuration knows which handlers are enabled
+     */
+    public void setDelegates(List<HistoryEventHandler> delegates) {
+        this.delegates = new ArrayList<>(delegates);
+    }
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        received.increment();
+        int rows = estimatedRows(historyEvent);
+        rowsUnfiltered.add(rows);
+
+        switch (route(historyEvent)) {
+            case SIDE_LOG:
+                sideLogged.increment();
+                appendToSideLog(historyEvent);
+                return;
+            case DROP:
+                dropped.increment();
+                return;
+            default:
+                written.increment();
+                rowsWritten.add(rows);
+                for (HistoryEventHandler delegate : delegates) {
+                    delegate.handleEvent(historyEvent);
+                }
+        }
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+    /**
+     * Event and estimated row counts; the unfiltered row count is what the default
+     * handler would have written for the same events
+     */
+    public Map<String, Object> getStats() {
+        long unfiltered = rowsUnfiltered.sum();
+        long rowsKept = rowsWritten.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("eventsReceived", received.sum());
+        stats.put("eventsWritten", written.sum());
+        stats.put("eventsSideLogged", sideLogged.sum());
+        stats.put("eventsDropped", dropped.sum());
+        stats.put("historyRowsUnfiltered", unfiltered);
+        stats.put("historyRowsWritten", rowsKept);
+        stats.put("historyRowReduction", unfiltered > 0 ? 1.0 - (double) rowsKept / unfiltered : 0.0);
+        return stats;
+    }
+
+    public void close() throws IOException {
+        sideLog.close();
+    }
+
+    private Route route(HistoryEvent event) {
+        if (!processDefinitionKey.equals(event.getProcessDefinitionKey())) {
+            return Route.WRITE;
+        }
+        if (event instanceof HistoricVariableUpdateEventEntity) {
+            String name = ((HistoricVariableUpdateEventEntity) event).getVariableName();
+            return keptVariables.contains(name) ? Route.WRITE : Route.SIDE_LOG;
+        }
+        if (event instanceof HistoricFormPropertyEventEntity) {
+            return Route.SIDE_LOG;
+        }
+        if (event instanceof HistoricIdentityLinkLogEventEntity) {
+            return Route.DROP;
+        }
+        if (event instanceof HistoricActivityInstanceEventEntity) {
+            String activityType = ((HistoricActivityInstanceEventEntity) event).getActivityType();
+            return activityType != null && activityType.endsWith("Gateway") ? Route.DROP : Route.WRITE;
+        }
+        return Route.WRITE;
+    }
+
+    // At history level full a variable update writes the variable instance and a detail row
+    private static int estimatedRows(HistoryEvent event) {
+        return event instanceof HistoricVariableUpdateEventEntity ? 2 : 1;
+    }
+
+    private void appendToSideLog(HistoryEvent event) {
+        String line = toLine(event);
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            writeSideLog(Collections.singletonList(line));
+            return;
+        }
+        Map<CommandContext, List<String>> pending = pendingLines.get();
+        List<String> lines = pending.get(commandContext);
+        if (lines == null) {
+            lines = new ArrayList<>();
+            pending.put(commandContext, lines);
+            commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED,
+                context -> writeSideLog(pendingLines.get().remove(context)));
+            commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK,
+                context -> pendingLines.get().remove(context));
+        }
+        lines.add(line);
+    }
+
+    private void writeSideLog(List<String> lines) {
+        if (lines == null) {
+            return;
+        }
+        try {
+            sideLog.append(lines);
+        } catch (Exception e) {
+            // History side log is best effort, the engine transaction has already committed
+            logger.warn("Failed to write {} history side log entries: {}", lines.size(), e.getMessage());
+        }
+    }
+
+    private static String toLine(HistoryEvent event) {
+        StringBuilder line = new StringBuilder(96);
+        if (event instanceof HistoricVariableUpdateEventEntity) {
+            HistoricVariableUpdateEventEntity update = (HistoricVariableUpdateEventEntity) event;
+            line.append(update.getTimestamp() != null ? update.getTimestamp().getTime() : System.currentTimeMillis())
+                .append('\t').append(event.getProcessInstanceId())
+                .append('\t').append(event.getEventType())
+                .append('\t').append(update.getVariableName())
+                .append('\t').append(update.getSerializerName())
+                .append('\t').append(clean(variableValue(update)));
+        } else {
+            HistoricFormPropertyEventEntity property = (HistoricFormPropertyEventEntity) event;
+            line.append(property.getTimestamp() != null ? property.getTimestamp().getTime() : System.currentTimeMillis())
+                .append('\t').append(event.getProcessInstanceId())
+                .append('\t').append("form-property")
+                .append('\t').append(property.getPropertyId())
+                .append('\t').append("string")
+                .append('\t').append(clean(property.getPropertyValue()));
+        }
+        return line.toString();
+    }
+
+    private static String variableValue(HistoricVariableUpdateEventEntity update) {
+        if (update.getTextValue() != null) {
+            return update.getTextValue();
+        }
+        if (update.getLongValue() != null) {
+            return String.valueOf(update.getLongValue());
+        }
+        if (update.getDoubleValue() != null) {
+            return String.valueOf(update.getDoubleValue());
+        }
+        if (update.getByteValue() != null) {
+            return "<" + update.getByteValue().length + " bytes>";
+        }
+        return "";
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return "";
+        }
+        String flat = value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        return flat.length() > MAX_SIDE_LOG_VALUE ? flat.substring(0, MAX_SIDE_LOG_VALUE) + "..." : flat;
+    }
+
+    private enum Route { WRITE, SIDE_LOG, DROP }
+}
@@ -0,0 +1,75 @@
+package com.dynamicworkflow.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only text log for history events kept out of the Camunda history tables,
+ * one tab-separated line per event. When the file reaches its size limit it is
+ * moved to &lt;name&gt;.1, replacing the previous rollover.
+ */
+public class HistorySideLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistorySideLog.class);
+
+    private final Path path;
+    private final long maxSize;
+    private FileChannel channel;
+
+    public HistorySideLog(Path path, long maxSize) throws IOException {
+        this.path = path;
+        this.maxSize = maxSize;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = open();
+    }
+
+    /**
+     * Writes the lines of one transaction with a single write
+     */
+    public synchronized void append(List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        StringBuilder block = new StringBuilder(lines.size() * 96);
+        for (String line : lines) {
+            block.append(line).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(block.toString().getBytes(StandardCharsets.UTF_8));
+        if (channel.size() + buffer.remaining() > maxSize) {
+            roll();
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        channel = open();
+        logger.info("Rolled history side log {}", path);
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,486 @@
+package com.dynamicworkflow.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of application mutations on memory-mapped segment files,
+ * compacted by periodic binary snapshots.
+ *
+ * Entry layout: [int length][int crc32][long sequence][long timestamp][byte type]
+ * [short idLength][id][state]. The length is written last, so a torn write reads
+ * as the end of the journal. A snapshot holds the latest state of every application
+ * up to its sequence; segments fully covered by it are deleted.
+ *
+ * The journal keeps no state on the heap: snapshots and recovery locate the latest entry
+ * of every application in the previous snapshot and the mapped segments and copy it from
+ * there.
+ */
+public class ApplicationJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x4A534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int ENTRY_HEADER_SIZE = 8;
+    private static final int ENTRY_FIXED_SIZE = 8 + 8 + 1 + 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final long snapshotEvery;
+
+    private final ExecutorService snapshotExecutor;
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private long eventsSinceSnapshot;
+    private RecoveryStats recoveryStats;
+
+    private ApplicationJournal(Path directory, int segmentSize, boolean fsync, long snapshotEvery) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the journal in the given directory, restoring the latest snapshot and replaying newer entries
+     *
+     * @param snapshotEvery number of appended events after which a snapshot is taken in the background, 0 to disable
+     */
+    public static ApplicationJournal open(Path directory, int segmentSize, boolean fsync, long snapshotEvery) throws IOException {
+        Files.createDirectories(directory);
+        ApplicationJournal journal = new ApplicationJournal(directory, segmentSize, fsync, snapshotEvery);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Appends the state of an application after a mutation
+     *
+     * @return the sequence number of the entry
+     */
+    public long append(JournalEventType type, String applicationId, Map<String, Object> state) throws IOException {
+        // Encoding is the expensive part and needs no lock
+        byte[] id = applicationId.getBytes(StandardCharsets.UTF_8);
+        byte[] data = RecordCodec.encode(state);
+        int length = ENTRY_FIXED_SIZE + id.length + data.length;
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.position(8 + 8);
+        payload.put((byte) type.ordinal());
+        payload.putShort((short) id.length);
+        payload.put(id);
+        payload.put(data);
+
+        synchronized (this) {
+            ensureCapacity(ENTRY_HEADER_SIZE + length);
+
+            long sequence = lastSequence + 1;
+            payload.putLong(0, sequence);
+            payload.putLong(8, System.currentTimeMillis());
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+
+            int position = segment.position();
+            segment.position(position + ENTRY_HEADER_SIZE);
+            segment.put(payload.array());
+            segment.putInt(position + 4, (int) crc.getValue());
+            segment.putInt(position, length);
+            if (fsync) {
+                segment.force();
+            }
+
+            lastSequence = sequence;
+            if (snapshotEvery > 0 && ++eventsSinceSnapshot >= snapshotEvery && snapshotPending.compareAndSet(false, true)) {
+                snapshotExecutor.execute(this::snapshotQuietly);
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Writes the latest state of every application to a new snapshot and drops the segments it covers
+     */
+    public void snapshot() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = lastSequence;
+            eventsSinceSnapshot = 0;
+        }
+        if (sequence == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        LatestEntries state = scanLatest(sequence);
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequence);
+            out.writeInt(state.entries.size());
+            for (Map.Entry<String, EntryRef> entry : state.entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(state.read(entry.getValue()));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, snapshotPath(sequence), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteCoveredFiles(sequence);
+
+        logger.info("Journal snapshot written at sequence {}: {} applications in {}ms",
+                   sequence, state.entries.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Decodes the latest journaled state of every application
+     */
+    public Map<String, Map<String, Object>> readAll() throws IOException {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        readLatest(Integer.MAX_VALUE, result::putAll);
+        return result;
+    }
+
+    /**
+     * Decodes the latest journaled state of every application and hands it over in
+     * batches, so only one batch of decoded state is on the heap at a time
+     */
+    public void readLatest(int batchSize, Consumer<Map<String, Map<String, Object>>> batches) throws IOException {
+        LatestEntries latest = scanLatest(getLastSequence());
+        Map<String, Map<String, Object>> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, EntryRef> entry : latest.entries.entrySet()) {
+            batch.put(entry.getKey(), RecordCodec.decode(latest.read(entry.getValue())));
+            if (batch.size() >= batchSize) {
+                batches.accept(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public RecoveryStats getRecoveryStats() {
+        return recoveryStats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (segment != null) {
+                segment.force();
+                segmentChannel.close();
+                segment = null;
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.warn("Failed to write journal snapshot: {}", e.getMessage());
+        } finally {
+            snapshotPending.set(false);
+        }
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        LatestEntries latest = new LatestEntries();
+        long snapshotSequence = loadLatestSnapshot(latest);
+
+        List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = scanSegment(path, buffer, snapshotSequence, Long.MAX_VALUE, latest);
+            if (i == segments.size() - 1) {
+                // The last segment stays mapped for appends; clear whatever a torn write
+                // may have left behind before appending after it
+                if (end + ENTRY_HEADER_SIZE <= buffer.capacity()) {
+                    buffer.putInt(end, 0);
+                }
+                buffer.position(end);
+                segmentChannel = channel;
+                segment = buffer;
+            } else {
+                channel.close();
+            }
+        }
+        lastSequence = Math.max(snapshotSequence, latest.lastSequence);
+
+        recoveryStats = new RecoveryStats(snapshotSequence, latest.replayed, latest.entries.size(),
+                                          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Latest entry of every application up to the given sequence, from the newest
+     * readable snapshot and the segment entries after it
+     */
+    private LatestEntries scanLatest(long upTo) throws IOException {
+        LatestEntries latest = new LatestEntries();
+        long snapshotSequence = loadLatestSnapshot(latest);
+        for (Path path : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (firstSequence(path, SEGMENT_PREFIX, SEGMENT_SUFFIX) > upTo) {
+                break;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                scanSegment(path, buffer, snapshotSequence, upTo, latest);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return the sequence the snapshot covers, 0 without a readable snapshot
+     */
+    private long loadLatestSnapshot(LatestEntries latest) throws IOException {
+        List<Path> snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                    throw new IOException("unrecognized snapshot format");
+                }
+                long sequence = buffer.getLong();
+                int count = buffer.getInt();
+                int file = latest.files.size();
+                Map<String, EntryRef> entries = new HashMap<>();
+                for (int n = 0; n < count; n++) {
+                    String applicationId = readUtf(buffer);
+                    int length = buffer.getInt();
+                    entries.put(applicationId, new EntryRef(file, buffer.position(), length));
+                    buffer.position(buffer.position() + length);
+                }
+                latest.files.add(buffer);
+                latest.entries.putAll(entries);
+                return sequence;
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+                logger.warn("Skipping unreadable journal snapshot {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records the entries of a mapped segment with a sequence in (after, upTo]
+     *
+     * @return offset after the last complete entry read
+     */
+    private int scanSegment(Path path, MappedByteBuffer buffer, long after, long upTo, LatestEntries latest) {
+        int file = latest.files.size();
+        latest.files.add(buffer);
+
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + ENTRY_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + ENTRY_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.position(position + ENTRY_HEADER_SIZE);
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                logger.warn("Journal segment {} has a torn entry at offset {}, ignoring the rest", path.getFileName(), position);
+                break;
+            }
+
+            ByteBuffer entry = ByteBuffer.wrap(payload);
+            long sequence = entry.getLong();
+            if (sequence > upTo) {
+                break;
+            }
+            entry.getLong(); // timestamp
+            entry.get(); // event type
+            byte[] id = new byte[entry.getShort()];
+            entry.get(id);
+            if (sequence > after) {
+                int dataOffset = position + ENTRY_HEADER_SIZE + entry.position();
+                latest.entries.put(new String(id, StandardCharsets.UTF_8), new EntryRef(file, dataOffset, entry.remaining()));
+                latest.replayed++;
+            }
+            latest.lastSequence = Math.max(latest.lastSequence, sequence);
+            position += ENTRY_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (segment != null && segment.remaining() >= needed + 4) {
+            return;
+        }
+        if (segment != null) {
+            segment.force();
+            segmentChannel.close();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lastSequence + 1, SEGMENT_SUFFIX));
+        segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, needed + 4));
+        logger.debug("Started journal segment {}", path.getFileName());
+    }
+
+    private void deleteCoveredFiles(long snapshotSequence) throws IOException {
+        List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        // A segment is covered once the next one starts at or before the first entry after the snapshot
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) <= snapshotSequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+        for (Path snapshot : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (firstSequence(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotSequence) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(prefix) && name.endsWith(suffix);
+                })
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    // Counterpart of DataOutputStream.writeUTF, which the snapshot ids are written with
+    private static String readUtf(ByteBuffer buffer) throws IOException {
+        byte[] encoded = new byte[2 + (buffer.getShort(buffer.position()) & 0xFFFF)];
+        buffer.get(encoded);
+        return new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+    }
+
+    private static long firstSequence(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * Where the latest state of every application is: positions in mapped snapshot and
+     * segment files, so scanning a large journal does not copy its state onto the heap
+     */
+    private static final class LatestEntries {
+        private final List<ByteBuffer> files = new ArrayList<>();
+        private final Map<String, EntryRef> entries = new HashMap<>();
+        private long lastSequence;
+        private long replayed;
+
+        byte[] read(EntryRef ref) {
+            ByteBuffer file = files.get(ref.file).duplicate();
+            file.position(ref.offset);
+            byte[] data = new byte[ref.length];
+            file.get(data);
+            return data;
+        }
+    }
+
+    private static final class EntryRef {
+        private final int file;
+        private final int offset;
+        private final int length;
+
+        EntryRef(int file, int offset, int length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * What the last open() had to do to rebuild state
+     */
+    public static class RecoveryStats {
+        private final long snapshotSequence;
+        private final long replayedEvents;
+        private final int applications;
+        private final long elapsedMillis;
+
+        RecoveryStats(long snapshotSequence, long replayedEvents, int applications, long elapsedMillis) {
+            this.snapshotSequence = snapshotSequence;
+            this.replayedEvents = replayedEvents;
+            this.applications = applications;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getSnapshotSequence() { return snapshotSequence; }
+        public long getReplayedEvents() { return replayedEvents; }
+        public int getApplications() { return applications; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return "snapshotSequence=" + snapshotSequence + ", replayedEvents=" + replayedEvents +
+                   ", applications=" + applications + ", elapsed=" + elapsedMillis + "ms";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dynamicworkflow.journal;
+
+/**
+ * Mutations recorded in the application journal. Each entry carries the full
+ * application state after the mutation, so replay keeps the latest entry per application.
+ */
+public enum JournalEventType {
+    APPLICATION_STARTED,
+    STEP_SUBMITTED,
+    APPLICATION_APPROVED,
+    APPLICATION_REJECTED,
+    ONBOARDING_INITIATED,
+    CANDIDATE_HIRED,
+    APPLICATION_ACCEPTED,
+    ONBOARDING_COMPLETED,
+    STATUS_UPDATED,
+    WORKFLOW_PROJECTED,
+    APPLICATION_IMPORTED
+}
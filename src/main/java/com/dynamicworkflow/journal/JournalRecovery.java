@@ -0,0 +1,77 @@
+package com.dynamicworkflow.journal;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationSchema;
+import com.dynamicworkflow.repository.ApplicationRepository;
+import com.dynamicworkflow.service.WorkflowDefinitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Restores applications from the journal at startup. With the in-memory store this rebuilds
+ * all state; with the JPA store it recovers writes still pending in the write-behind cache
+ * when the node stopped. A journaled application is restored if it is missing from the
+ * repository or the repository copy has an older version.
+ */
+@Component
+public class JournalRecovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalRecovery.class);
+
+    // Journaled applications decoded and looked up in the repository at a time
+    private static final int RESTORE_BATCH_SIZE = 500;
+
+    private final ApplicationJournal applicationJournal;
+    private final ApplicationRepository applicationRepository;
+    private final WorkflowDefinitionService workflowDefinitionService;
+
+    @Value("${workflow.journal.restore-on-startup:true}")
+    private boolean restoreOnStartup;
+
+    public JournalRecovery(ApplicationJournal applicationJournal,
+                           ApplicationRepository applicationRepository,
+                           WorkflowDefinitionService workflowDefinitionService) {
+        this.applicationJournal = applicationJournal;
+        this.applicationRepository = applicationRepository;
+        this.workflowDefinitionService = workflowDefinitionService;
+    }
+
+    @PostConstruct
+    public void restore() throws IOException {
+        logger.info("Application journal opened: {}", applicationJournal.getRecoveryStats());
+        if (!restoreOnStartup) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        ApplicationSchema schema = workflowDefinitionService.getApplicationSchema();
+        AtomicInteger restored = new AtomicInteger();
+        applicationJournal.readLatest(RESTORE_BATCH_SIZE, batch -> {
+            Map<String, ApplicationRecord> stored = applicationRepository.findAllById(batch.keySet());
+            batch.forEach((applicationId, state) -> {
+                ApplicationRecord journaled = ApplicationRecord.fromMap(schema, applicationId, state);
+                ApplicationRecord current = stored.get(applicationId);
+                if (current == null || isNewer(journaled, current)) {
+                    applicationRepository.save(journaled);
+                    restored.incrementAndGet();
+                }
+            });
+        });
+        logger.info("Restored {} applications from the journal in {}ms", restored.get(), System.currentTimeMillis() - start);
+    }
+
+    private static boolean isNewer(ApplicationRecord journaled, ApplicationRecord current) {
+        if (journaled.getVersion() != current.getVersion()) {
+            return journaled.getVersion() > current.getVersion();
+        }
+        // Written before records were versioned
+        return journaled.getLastUpdatedAt() > current.getLastUpdatedAt();
+    }
+}
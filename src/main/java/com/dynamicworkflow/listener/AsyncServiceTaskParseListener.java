@@ -0,0 +1,23 @@
+package com.dynamicworkflow.listener;
+
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Marks the service tasks of the job-recruitment-workflow-india definition asyncBefore,
+ * so completing the preceding user task commits and returns while the job executor runs
+ * CollectApplicantDataDelegate, StoreApplicationDelegate and SendRejectionDelegate
+ */
+public class AsyncServiceTaskParseListener extends AbstractBpmnParseListener {
+
+    @Override
+    public void parseServiceTask(Element serviceTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        if (WorkflowProjectionParseListener.PROCESS_DEFINITION_KEY.equals(activity.getProcessDefinition().getKey())
+                && !activity.isAsyncBefore()) {
+            // Exclusive, so two jobs of one application never run concurrently
+            activity.setAsyncBefore(true, true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.dynamicworkflow.listener;
+
+import com.dynamicworkflow.externaltask.ExternalTaskSignal;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.ExternalTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.core.variable.mapping.value.ConstantValueProvider;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+import java.util.Map;
+
+/**
+ * Turns the recruitment service tasks whose camunda:delegateExpression (or camunda:class)
+ * has a topic into external tasks of that topic, and signals the embedded workers once the transaction that
+ * created the task commits
+ */
+public class ExternalTaskParseListener extends AbstractBpmnParseListener {
+
+    private final Map<String, String> topicsByDelegate;
+    private final ExternalTaskSignal signal;
+
+    public ExternalTaskParseListener(Map<String, String> topicsByDelegate, ExternalTaskSignal signal) {
+        this.topicsByDelegate = topicsByDelegate;
+        this.signal = signal;
+    }
+
+    @Override
+    public void parseServiceTask(Element serviceTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        if (!WorkflowProjectionParseListener.PROCESS_DEFINITION_KEY.equals(activity.getProcessDefinition().getKey())) {
+            return;
+        }
+        String delegate = serviceTaskElement.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "delegateExpression");
+        if (delegate == null) {
+            delegate = serviceTaskElement.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "class");
+        }
+        String topic = delegate != null ? topicsByDelegate.get(delegate) : null;
+        if (topic == null) {
+            return;
+        }
+
+        activity.setActivityBehavior(new ExternalTaskActivityBehavior(new ConstantValueProvider(topic), null));
+        activity.addListener(ExecutionListener.EVENTNAME_START, (ExecutionListener) execution ->
+            Context.getCommandContext().getTransactionContext()
+                .addTransactionListener(TransactionState.COMMITTED, commandContext -> signal.signal(topic)));
+    }
+}
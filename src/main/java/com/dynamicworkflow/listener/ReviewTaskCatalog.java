@@ -0,0 +1,66 @@
+package com.dynamicworkflow.listener;
+
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.ReviewRole;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maps the user task keys of the recruitment process (HRReviewTask, TeamLeadReviewTask, ...)
+ * to the reviewer role that completes them. Filled by WorkflowProjectionParseListener when
+ * a process definition is parsed, so runtime lookups never look at task names. The role
+ * comes from the task's candidate groups only; a key that was never parsed is an error.
+ */
+public class ReviewTaskCatalog {
+
+    private final Map<String, ReviewRole> rolesByTaskKey = new ConcurrentHashMap<>();
+    // Every parsed user task, including the ones no reviewer acts on
+    private final Set<String> taskKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records the task; its role is the first candidate group that names a reviewer role
+     */
+    public void register(String taskDefinitionKey, Collection<String> candidateGroups) {
+        taskKeys.add(taskDefinitionKey);
+        for (String group : candidateGroups) {
+            ReviewRole role = ReviewRole.fromRequestRole(group.trim());
+            if (role != null) {
+                rolesByTaskKey.put(taskDefinitionKey, role);
+                return;
+            }
+        }
+        rolesByTaskKey.remove(taskDefinitionKey);
+    }
+
+    /**
+     * @return null for tasks no reviewer acts on (applicant steps, onboarding form)
+     * @throws IllegalArgumentException when no parsed process definition has the task
+     */
+    public ReviewRole roleOf(String taskDefinitionKey) {
+        if (taskDefinitionKey == null || !taskKeys.contains(taskDefinitionKey)) {
+            throw new IllegalArgumentException("Unknown task definition key: " + taskDefinitionKey);
+        }
+        return rolesByTaskKey.get(taskDefinitionKey);
+    }
+
+    public ApplicationStatus statusOf(String taskDefinitionKey) {
+        ReviewRole role = roleOf(taskDefinitionKey);
+        return role != null ? role.getPendingStatus() : ApplicationStatus.IN_PROGRESS;
+    }
+
+    public Set<String> taskKeysFor(ReviewRole role) {
+        return Collections.unmodifiableSet(rolesByTaskKey.entrySet().stream()
+            .filter(entry -> entry.getValue() == role)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet()));
+    }
+
+    public int size() {
+        return taskKeys.size();
+    }
+}
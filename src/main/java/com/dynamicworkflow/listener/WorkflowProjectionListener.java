@@ -0,0 +1,96 @@
+package com.dynamicworkflow.listener;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.delegate.VariableScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engine listener attached to the recruitment process at parse time.
+ * Turns user task and process end events into WorkflowStateEvents so the
+ * application store can be kept up to date without polling Camunda.
+ */
+public class WorkflowProjectionListener implements TaskListener, ExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowProjectionListener.class);
+
+    // Process variables the application store mirrors (decisions, comments and offer details)
+    public static final List<String> PROJECTED_VARIABLES = Collections.unmodifiableList(Arrays.asList(
+        "hrDecision", "hrComments", "interviewRequired",
+        "tlDecision", "tlComments",
+        "pmDecision", "pmComments",
+        "headHRDecision", "headHRComments", "offerCTC",
+        "companyManagerDecision", "companyManagerComments", "finalOfferCTC"
+    ));
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WorkflowProjectionListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void notify(DelegateTask delegateTask) {
+        WorkflowStateEvent.Type type;
+        switch (delegateTask.getEventName()) {
+            case TaskListener.EVENTNAME_CREATE:
+                type = WorkflowStateEvent.Type.TASK_CREATED;
+                break;
+            case TaskListener.EVENTNAME_COMPLETE:
+                type = WorkflowStateEvent.Type.TASK_COMPLETED;
+                break;
+            case TaskListener.EVENTNAME_DELETE:
+                type = WorkflowStateEvent.Type.TASK_DELETED;
+                break;
+            default:
+                return;
+        }
+
+        String businessKey = delegateTask.getExecution() != null
+            ? delegateTask.getExecution().getProcessBusinessKey()
+            : null;
+
+        Map<String, Object> variables = type == WorkflowStateEvent.Type.TASK_COMPLETED
+            ? collectProjectedVariables(delegateTask)
+            : null;
+
+        publish(new WorkflowStateEvent(type, businessKey, delegateTask.getProcessInstanceId(),
+            delegateTask.getId(), delegateTask.getName(), delegateTask.getTaskDefinitionKey(), variables));
+    }
+
+    @Override
+    public void notify(DelegateExecution execution) {
+        if (!ExecutionListener.EVENTNAME_END.equals(execution.getEventName())) {
+            return;
+        }
+
+        publish(new WorkflowStateEvent(WorkflowStateEvent.Type.PROCESS_ENDED,
+            execution.getProcessBusinessKey(), execution.getProcessInstanceId(),
+            null, null, null, collectProjectedVariables(execution)));
+    }
+
+    private Map<String, Object> collectProjectedVariables(VariableScope scope) {
+        Map<String, Object> variables = new HashMap<>();
+        for (String name : PROJECTED_VARIABLES) {
+            if (scope.hasVariable(name)) {
+                variables.put(name, scope.getVariable(name));
+            }
+        }
+        return variables;
+    }
+
+    private void publish(WorkflowStateEvent event) {
+        logger.debug("Publishing workflow state event: {}", event);
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dynamicworkflow.listener;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.delegate.Expression;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.task.TaskDefinition;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attaches the WorkflowProjectionListener to every user task and to the
+ * process end of the job-recruitment-workflow-india definition, and records
+ * which reviewer role each user task belongs to in the ReviewTaskCatalog
+ */
+public class WorkflowProjectionParseListener extends AbstractBpmnParseListener {
+
+    public static final String PROCESS_DEFINITION_KEY = "job-recruitment-workflow-india";
+
+    private final WorkflowProjectionListener projectionListener;
+    private final ReviewTaskCatalog reviewTaskCatalog;
+
+    public WorkflowProjectionParseListener(WorkflowProjectionListener projectionListener,
+                                           ReviewTaskCatalog reviewTaskCatalog) {
+        this.projectionListener = projectionListener;
+        this.reviewTaskCatalog = reviewTaskCatalog;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        if (PROCESS_DEFINITION_KEY.equals(processDefinition.getKey())) {
+            processDefinition.addListener(ExecutionListener.EVENTNAME_END, projectionListener);
+        }
+    }
+
+    @Override
+    public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        if (!PROCESS_DEFINITION_KEY.equals(activity.getProcessDefinition().getKey())) {
+            return;
+        }
+
+        TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
+        taskDefinition.addTaskListener(TaskListener.EVENTNAME_CREATE, projectionListener);
+        taskDefinition.addTaskListener(TaskListener.EVENTNAME_COMPLETE, projectionListener);
+        taskDefinition.addTaskListener(TaskListener.EVENTNAME_DELETE, projectionListener);
+
+        List<String> candidateGroups = new ArrayList<>();
+        for (Expression expression : taskDefinition.getCandidateGroupIdExpressions()) {
+            candidateGroups.add(expression.getExpressionText());
+        }
+        reviewTaskCatalog.register(activity.getId(), candidateGroups);
+    }
+}
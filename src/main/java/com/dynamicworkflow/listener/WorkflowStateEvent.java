@@ -0,0 +1,53 @@
+package com.dynamicworkflow.listener;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Spring application event describing a state change inside the
+ * job-recruitment-workflow-india process (task created/completed/deleted, process ended)
+ */
+public class WorkflowStateEvent {
+
+    public enum Type {
+        TASK_CREATED,
+        TASK_COMPLETED,
+        TASK_DELETED,
+        PROCESS_ENDED
+    }
+
+    private final Type type;
+    private final String applicationId;
+    private final String processInstanceId;
+    private final String taskId;
+    private final String taskName;
+    private final String taskDefinitionKey;
+    private final Map<String, Object> variables;
+
+    public WorkflowStateEvent(Type type, String applicationId, String processInstanceId,
+                              String taskId, String taskName, String taskDefinitionKey,
+                              Map<String, Object> variables) {
+        this.type = type;
+        this.applicationId = applicationId;
+        this.processInstanceId = processInstanceId;
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.taskDefinitionKey = taskDefinitionKey;
+        this.variables = variables != null ? variables : Collections.emptyMap();
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public String getApplicationId() { return applicationId; }
+    public String getProcessInstanceId() { return processInstanceId; }
+    public String getTaskId() { return taskId; }
+    public String getTaskName() { return taskName; }
+    public String getTaskDefinitionKey() { return taskDefinitionKey; }
+    public Map<String, Object> getVariables() { return variables; }
+
+    @Override
+    public String toString() {
+        return "WorkflowStateEvent{" + type + ", applicationId=" + applicationId +
+               ", task=" + taskDefinitionKey + "}";
+    }
+}
@@ -0,0 +1,230 @@
+package com.dynamicworkflow.metrics;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, SQL statement count and optimistic locking failures per engine
+ * command class. Only the outermost command of a thread is measured; the commands it
+ * runs nested are part of its time and statements. Totals are also reported to the
+ * engine metrics registry when engine metrics are enabled.
+ */
+public class CommandMetrics {
+
+    public static final String METER_COMMANDS = "engine-commands";
+    public static final String METER_SLOW_COMMANDS = "engine-commands-slow";
+    public static final String METER_OPTIMISTIC_LOCK_FAILURES = "engine-optimistic-lock-failures";
+    public static final String METER_DB_STATEMENTS = "engine-db-statements";
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandMetrics.class);
+
+    // Upper bounds of the histogram buckets in ms, the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long slowThresholdMs;
+    private final ConcurrentMap<String, CommandStats> stats = new ConcurrentHashMap<>();
+    // Statement count of the outermost command running on this thread
+    private final ThreadLocal<long[]> statements = new ThreadLocal<>();
+    private volatile MetricsRegistry metricsRegistry;
+
+    public CommandMetrics(long slowThresholdMs) {
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    /**
+     * Set once the engine has created its registry; null while engine metrics are disabled
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        if (metricsRegistry != null) {
+            metricsRegistry.createMeter(METER_COMMANDS);
+            metricsRegistry.createMeter(METER_SLOW_COMMANDS);
+            metricsRegistry.createMeter(METER_OPTIMISTIC_LOCK_FAILURES);
+            metricsRegistry.createMeter(METER_DB_STATEMENTS);
+        }
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * @return false if a command is already measured on this thread
+     */
+    boolean begin() {
+        if (statements.get() != null) {
+            return false;
+        }
+        statements.set(new long[1]);
+        return true;
+    }
+
+    void statementExecuted() {
+        long[] count = statements.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    void end(Command<?> command, long nanos, boolean failed, boolean optimisticLockFailure) {
+        long statementCount = statements.get()[0];
+        statements.remove();
+
+        String name = commandName(command);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        stats.computeIfAbsent(name, key -> new CommandStats()).record(millis, statementCount, failed, optimisticLockFailure);
+
+        boolean slow = millis >= slowThresholdMs;
+        if (slow) {
+            logger.warn("Slow engine command {}: {}ms, {} statements{}", name, millis, statementCount,
+                       optimisticLockFailure ? ", optimistic locking failure" : failed ? ", failed" : "");
+        }
+
+        MetricsRegistry registry = metricsRegistry;
+        if (registry != null) {
+            registry.markOccurrence(METER_COMMANDS);
+            registry.markOccurrence(METER_DB_STATEMENTS, statementCount);
+            if (slow) {
+                registry.markOccurrence(METER_SLOW_COMMANDS);
+            }
+            if (optimisticLockFailure) {
+                registry.markOccurrence(METER_OPTIMISTIC_LOCK_FAILURES);
+            }
+        }
+    }
+
+    /**
+     * Totals and one entry per command class, by total time descending
+     */
+    public Map<String, Object> getStats() {
+        List<Map.Entry<String, CommandStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, CommandStats> entry) -> entry.getValue().totalMs.sum()).reversed());
+
+        long commands = 0;
+        long statementTotal = 0;
+        long optimisticLockFailures = 0;
+        List<Map<String, Object>> perCommand = new ArrayList<>(entries.size());
+        for (Map.Entry<String, CommandStats> entry : entries) {
+            Map<String, Object> snapshot = entry.getValue().snapshot();
+            snapshot.put("command", entry.getKey());
+            perCommand.add(snapshot);
+            commands += (Long) snapshot.get("count");
+            statementTotal += (Long) snapshot.get("statements");
+            optimisticLockFailures += (Long) snapshot.get("optimisticLockFailures");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowThresholdMs", slowThresholdMs);
+        result.put("engineMetricsEnabled", metricsRegistry != null);
+        result.put("commands", commands);
+        result.put("statements", statementTotal);
+        result.put("optimisticLockFailures", optimisticLockFailures);
+        result.put("byCommand", perCommand);
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static String commandName(Command<?> command) {
+        Class<?> type = command.getClass();
+        // Anonymous and lambda commands are named after their enclosing class
+        while (type.isAnonymousClass() && type.getEnclosingClass() != null) {
+            type = type.getEnclosingClass();
+        }
+        String name = type.getSimpleName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda > 0 ? name.substring(0, lambda) : name;
+    }
+
+    private static class CommandStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder optimisticLockFailures = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxMs = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+
+        CommandStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long millis, long statementCount, boolean failed, boolean optimisticLockFailure) {
+            count.increment();
+            totalMs.add(millis);
+            maxMs.accumulate(millis);
+            statements.add(statementCount);
+            if (failed) {
+                failures.increment();
+            }
+            if (optimisticLockFailure) {
+                optimisticLockFailures.increment();
+            }
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        Map<String, Object> snapshot() {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long statementCount = statements.sum();
+
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", total);
+            snapshot.put("failures", failures.sum());
+            snapshot.put("optimisticLockFailures", optimisticLockFailures.sum());
+            snapshot.put("totalMs", totalMs.sum());
+            snapshot.put("meanMs", total > 0 ? (double) totalMs.sum() / total : 0.0);
+            snapshot.put("maxMs", maxMs.get());
+            // Percentiles are the upper bound of the bucket they fall in
+            snapshot.put("p50Ms", percentile(counts, total, 0.50));
+            snapshot.put("p95Ms", percentile(counts, total, 0.95));
+            snapshot.put("p99Ms", percentile(counts, total, 0.99));
+            snapshot.put("statements", statementCount);
+            snapshot.put("statementsPerCommand", total > 0 ? (double) statementCount / total : 0.0);
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                histogram.put(i < BUCKET_BOUNDS_MS.length ? "<=" + BUCKET_BOUNDS_MS[i] + "ms"
+                                                          : ">" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms", counts[i]);
+            }
+            snapshot.put("histogram", histogram);
+            return snapshot;
+        }
+
+        private long percentile(long[] counts, long total, double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return BUCKET_BOUNDS_MS[i];
+                }
+            }
+            return maxMs.get();
+        }
+    }
+}
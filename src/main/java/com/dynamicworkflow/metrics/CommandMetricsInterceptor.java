@@ -0,0 +1,37 @@
+package com.dynamicworkflow.metrics;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Outermost command interceptor: the measured time includes the transaction and the
+ * flush at the end of the command, which is where optimistic locking failures surface
+ */
+public class CommandMetricsInterceptor extends CommandInterceptor {
+
+    private final CommandMetrics metrics;
+
+    public CommandMetricsInterceptor(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public <T> T execute(Command<T> command) {
+        if (!metrics.begin()) {
+            return next.execute(command);
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        boolean optimisticLockFailure = false;
+        try {
+            return next.execute(command);
+        } catch (RuntimeException e) {
+            failed = true;
+            optimisticLockFailure = e instanceof OptimisticLockingException;
+            throw e;
+        } finally {
+            metrics.end(command, System.nanoTime() - start, failed, optimisticLockFailure);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.dynamicworkflow.metrics;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Properties;
+
+/**
+ * MyBatis plugin counting the selects, inserts, updates and deletes the engine runs
+ * against the command measured on the current thread
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query",
+               args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class StatementCountingInterceptor implements Interceptor {
+
+    private final CommandMetrics metrics;
+
+    public StatementCountingInterceptor(CommandMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        metrics.statementExecuted();
+        return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.dynamicworkflow.model;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+/**
+ * Persistent form of a job application. The lookup columns are indexed,
+ * the full application data is kept as a JSON document.
+ */
+@Entity
+@Table(name = "job_application", indexes = {
+    @Index(name = "idx_job_application_status", columnList = "status"),
+    @Index(name = "idx_job_application_process_instance", columnList = "process_instance_id"),
+    @Index(name = "idx_job_application_email", columnList = "applicant_email")
+})
+public class ApplicationEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "application_id", length = 64)
+    private String applicationId;
+
+    @Column(name = "status", length = 64)
+    private String status;
+
+    @Column(name = "process_instance_id", length = 64)
+    private String processInstanceId;
+
+    @Column(name = "applicant_email")
+    private String applicantEmail;
+
+    @Column(name = "last_updated_millis")
+    private long lastUpdatedMillis;
+
+    @Lob
+    @Column(name = "application_data")
+    private String data;
+
+    // Lets saveAll() persist new rows without a select-before-insert per row
+    @Transient
+    private boolean newEntity;
+
+    // Constructors
+    public ApplicationEntity() {}
+
+    public ApplicationEntity(String applicationId) {
+        this.applicationId = applicationId;
+        this.newEntity = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @Override
+    public String getId() { return applicationId; }
+
+    @Override
+    public boolean isNew() { return newEntity; }
+
+    // Getters and Setters
+    public String getApplicationId() { return applicationId; }
+    public void setApplicationId(String applicationId) { this.applicationId = applicationId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getProcessInstanceId() { return processInstanceId; }
+    public void setProcessInstanceId(String processInstanceId) { this.processInstanceId = processInstanceId; }
+
+    public String getApplicantEmail() { return applicantEmail; }
+    public void setApplicantEmail(String applicantEmail) { this.applicantEmail = applicantEmail; }
+
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+    public void setLastUpdatedMillis(long lastUpdatedMillis) { this.lastUpdatedMillis = lastUpdatedMillis; }
+
+    public String getData() { return data; }
+    public void setData(String data) { this.data = data; }
+}
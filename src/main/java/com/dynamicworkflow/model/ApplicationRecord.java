@@ -0,0 +1,559 @@
+package com.dynamicworkflow.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact, typed storage for one job application.
+ *
+ * Form fields live in fixed slots laid out by the compiled ApplicationSchema; status and
+ * decisions are enums, timestamps are epoch millis and boolean markers are bit flags.
+ * Keys outside the layout (e.g. onboarding details) go to a small overflow map.
+ *
+ * The record is also a Map view with the historical keys and value formats
+ * (decisions as "accept", timestamps as LocalDateTime strings), so JSON responses
+ * and existing callers keep working. Prefer the typed accessors on hot paths.
+ * The version and change sequence are bookkeeping of the store: the Map view neither
+ * shows nor accepts them, only toStoredMap() and fromMap() carry them.
+ *
+ * Records handed out by the repository are frozen snapshots: readers share them without
+ * copying or locking, and writers take a mutableCopy(), change it and save it, which
+ * publishes a new frozen snapshot (copy-on-write).
+ */
+public class ApplicationRecord extends AbstractMap<String, Object> {
+
+    private enum Kind { ID, STATUS, STRING, TIMESTAMP, FLAG, DECISION, COMMENTS }
+
+    private enum Field {
+        APPLICATION_ID("applicationId", Kind.ID, 0),
+        APPLICATION_STATUS("applicationStatus", Kind.STATUS, 0),
+        PROCESS_INSTANCE_ID("processInstanceId", Kind.STRING, 0),
+        CURRENT_STEP("currentStep", Kind.STRING, 1),
+        LAST_COMPLETED_STEP("lastCompletedStep", Kind.STRING, 2),
+        OFFER_CTC("offerCTC", Kind.STRING, 3),
+        FINAL_OFFER_CTC("finalOfferCTC", Kind.STRING, 4),
+        JOINING_DATE("joiningDate", Kind.STRING, 5),
+        DEPARTMENT("department", Kind.STRING, 6),
+        REPORTING_MANAGER("reportingManager", Kind.STRING, 7),
+        HR_HIRING_COMMENTS("hrHiringComments", Kind.STRING, 8),
+        SUBMISSION_TIMESTAMP("submissionTimestamp", Kind.TIMESTAMP, 0),
+        LAST_UPDATED_TIMESTAMP("lastUpdatedTimestamp", Kind.TIMESTAMP, 1),
+        HIRED_TIMESTAMP("hiredTimestamp", Kind.TIMESTAMP, 2),
+        HIRE_NOTIFICATION_EMAIL_SENT_AT("hireNotificationEmailSentAt", Kind.TIMESTAMP, 3),
+        ONBOARDING_COMPLETED_DATE("onboardingCompletedDate", Kind.TIMESTAMP, 4),
+        HAS_VALID_REFERRAL("hasValidReferral", Kind.FLAG, 0),
+        BYPASSED_APPROVALS("bypassedApprovals", Kind.FLAG, 1),
+        INVALID_REFERRAL_ID("invalidReferralId", Kind.FLAG, 2),
+        INTERVIEW_REQUIRED("interviewRequired", Kind.FLAG, 3),
+        MANUAL_STATUS_OVERRIDE("manualStatusOverride", Kind.FLAG, 4),
+        HIRED_BY_HR("hiredByHR", Kind.FLAG, 5),
+        HIRE_NOTIFICATION_EMAIL_SENT("hireNotificationEmailSent", Kind.FLAG, 6),
+        PROCESS_COMPLETED("processCompleted", Kind.FLAG, 7),
+        CAMUNDA_PROCESS_ENDED("camundaProcessEnded", Kind.FLAG, 8),
+        HR_DECISION("hrDecision", Kind.DECISION, ReviewRole.HR.ordinal()),
+        TL_DECISION("tlDecision", Kind.DECISION, ReviewRole.TEAM_LEAD.ordinal()),
+        PM_DECISION("pmDecision", Kind.DECISION, ReviewRole.PROJECT_MANAGER.ordinal()),
+        HEAD_HR_DECISION("headHRDecision", Kind.DECISION, ReviewRole.HEAD_HR.ordinal()),
+        COMPANY_MANAGER_DECISION("companyManagerDecision", Kind.DECISION, ReviewRole.COMPANY_MANAGER.ordinal()),
+        HR_COMMENTS("hrComments", Kind.COMMENTS, ReviewRole.HR.ordinal()),
+        TL_COMMENTS("tlComments", Kind.COMMENTS, ReviewRole.TEAM_LEAD.ordinal()),
+        PM_COMMENTS("pmComments", Kind.COMMENTS, ReviewRole.PROJECT_MANAGER.ordinal()),
+        HEAD_HR_COMMENTS("headHRComments", Kind.COMMENTS, ReviewRole.HEAD_HR.ordinal()),
+        COMPANY_MANAGER_COMMENTS("companyManagerComments", Kind.COMMENTS, ReviewRole.COMPANY_MANAGER.ordinal());
+
+        private final String key;
+        private final Kind kind;
+        private final int slot;
+
+        Field(String key, Kind kind, int slot) {
+            this.key = key;
+            this.kind = kind;
+            this.slot = slot;
+        }
+    }
+
+    private static final String VERSION_KEY = "version";
+    private static final String CHANGE_SEQUENCE_KEY = "changeSequence";
+
+    private static final int STRING_SLOTS = 9;
+    private static final int TIMESTAMP_SLOTS = 5;
+    private static final int ROLE_SLOTS = ReviewRole.values().length;
+    private static final Field[] FIELDS = Field.values();
+    private static final Map<String, Field> FIELDS_BY_KEY = new HashMap<>();
+
+    static {
+        for (Field field : FIELDS) {
+            FIELDS_BY_KEY.put(field.key, field);
+        }
+    }
+
+    private final ApplicationSchema schema;
+    private final String applicationId;
+    private long version;
+    private long changeSequence;
+    private ApplicationStatus status;
+    private final String[] strings = new String[STRING_SLOTS];
+    private final long[] timestamps = new long[TIMESTAMP_SLOTS];
+    private int flagsPresent;
+    private int flagValues;
+    private final Decision[] decisions = new Decision[ROLE_SLOTS];
+    private final String[] comments = new String[ROLE_SLOTS];
+    private final Object[] formValues;
+    private Map<String, Object> extra;
+    private boolean frozen;
+
+    public ApplicationRecord(ApplicationSchema schema, String applicationId) {
+        this.schema = schema;
+        this.applicationId = applicationId;
+        this.formValues = new Object[schema.size()];
+    }
+
+    private ApplicationRecord(ApplicationRecord source) {
+        this.schema = source.schema;
+        this.applicationId = source.applicationId;
+        this.version = source.version;
+        this.changeSequence = source.changeSequence;
+        this.status = source.status;
+        System.arraycopy(source.strings, 0, strings, 0, STRING_SLOTS);
+        System.arraycopy(source.timestamps, 0, timestamps, 0, TIMESTAMP_SLOTS);
+        this.flagsPresent = source.flagsPresent;
+        this.flagValues = source.flagValues;
+        System.arraycopy(source.decisions, 0, decisions, 0, ROLE_SLOTS);
+        System.arraycopy(source.comments, 0, comments, 0, ROLE_SLOTS);
+        this.formValues = source.formValues.clone();
+        this.extra = source.extra != null ? new HashMap<>(source.extra) : null;
+    }
+
+    /**
+     * Rebuilds a record from its stored Map form (e.g. stored JSON), see toStoredMap()
+     */
+    public static ApplicationRecord fromMap(ApplicationSchema schema, String applicationId, Map<String, Object> data) {
+        ApplicationRecord record = new ApplicationRecord(schema, applicationId);
+        if (data != null) {
+            record.putAll(data);
+            record.version = longValue(data.get(VERSION_KEY));
+            record.changeSequence = longValue(data.get(CHANGE_SEQUENCE_KEY));
+        }
+        return record;
+    }
+
+    /**
+     * Map form for the store, journal and archive: the Map view plus version and change sequence
+     */
+    public Map<String, Object> toStoredMap() {
+        Map<String, Object> map = toLinkedMap();
+        if (version != 0) {
+            map.put(VERSION_KEY, version);
+        }
+        if (changeSequence != 0) {
+            map.put(CHANGE_SEQUENCE_KEY, changeSequence);
+        }
+        return map;
+    }
+
+    /**
+     * Makes the record read-only, so it can be shared with concurrent readers
+     */
+    public ApplicationRecord freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() { return frozen; }
+
+    /**
+     * Shallow copy of all slots that can be changed without affecting this record
+     */
+    public ApplicationRecord mutableCopy() {
+        return new ApplicationRecord(this);
+    }
+
+    /**
+     * Frozen view of the current state; free if the record is already frozen
+     */
+    public ApplicationRecord snapshot() {
+        return frozen ? this : mutableCopy().freeze();
+    }
+
+    // Typed accessors
+    public String getApplicationId() { return applicationId; }
+
+    /**
+     * Incremented on every store, so two copies of an application can be ordered
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Moves past the version currently stored, which may be newer than the one this copy
+     * was taken from; versions of an application therefore only increase
+     */
+    public long nextVersion(long storedVersion) {
+        checkMutable();
+        version = Math.max(version, storedVersion) + 1;
+        return version;
+    }
+
+    /**
+     * Global sequence number of the last stored change, across all applications
+     */
+    public long getChangeSequence() { return changeSequence; }
+    public void setChangeSequence(long changeSequence) { checkMutable(); this.changeSequence = changeSequence; }
+
+    public ApplicationStatus getStatus() { return status; }
+    public void setStatus(ApplicationStatus status) { checkMutable(); this.status = status; }
+
+    public String getProcessInstanceId() { return strings[Field.PROCESS_INSTANCE_ID.slot]; }
+    public void setProcessInstanceId(String processInstanceId) { checkMutable(); strings[Field.PROCESS_INSTANCE_ID.slot] = processInstanceId; }
+
+    public String getCurrentStep() { return strings[Field.CURRENT_STEP.slot]; }
+    public void setCurrentStep(String currentStep) { checkMutable(); strings[Field.CURRENT_STEP.slot] = currentStep; }
+
+    public Decision getDecision(ReviewRole role) { return decisions[role.ordinal()]; }
+    public String getComments(ReviewRole role) { return comments[role.ordinal()]; }
+
+    public void setDecision(ReviewRole role, Decision decision, String comments) {
+        checkMutable();
+        this.decisions[role.ordinal()] = decision;
+        this.comments[role.ordinal()] = comments;
+    }
+
+    public long getSubmittedAt() { return timestamps[Field.SUBMISSION_TIMESTAMP.slot]; }
+    public void setSubmittedAt(long epochMillis) { checkMutable(); timestamps[Field.SUBMISSION_TIMESTAMP.slot] = epochMillis; }
+
+    public long getLastUpdatedAt() { return timestamps[Field.LAST_UPDATED_TIMESTAMP.slot]; }
+
+    public void touch() {
+        checkMutable();
+        timestamps[Field.LAST_UPDATED_TIMESTAMP.slot] = System.currentTimeMillis();
+    }
+
+    public boolean isManualStatusOverride() { return flag(Field.MANUAL_STATUS_OVERRIDE); }
+    public boolean isProcessCompleted() { return flag(Field.PROCESS_COMPLETED); }
+
+    public Object getFormValue(String fieldId) {
+        int slot = schema.slotOf(fieldId);
+        return slot >= 0 ? formValues[slot] : null;
+    }
+
+    // Map view
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Field field = FIELDS_BY_KEY.get(key);
+        if (field != null) {
+            Object value = getTyped(field);
+            if (value != null) {
+                return value;
+            }
+        } else {
+            int slot = schema.slotOf((String) key);
+            if (slot >= 0) {
+                return formValues[slot];
+            }
+        }
+        return extra != null ? extra.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null || (extra != null && extra.containsKey(key));
+    }
+
+    /**
+     * Ignores version and changeSequence, which only store() sets
+     */
+    @Override
+    public Object put(String key, Object value) {
+        checkMutable();
+        if (isBookkeeping(key)) {
+            return null;
+        }
+        Object previous = get(key);
+        Field field = FIELDS_BY_KEY.get(key);
+        if (field != null) {
+            if (setTyped(field, value)) {
+                if (extra != null) {
+                    extra.remove(key);
+                }
+                return previous;
+            }
+            // Value does not fit the typed slot, keep it verbatim instead
+            setTyped(field, null);
+        } else {
+            int slot = schema.slotOf(key);
+            if (slot >= 0) {
+                formValues[slot] = value;
+                return previous;
+            }
+        }
+        if (extra == null) {
+            extra = new HashMap<>(4);
+        }
+        extra.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        checkMutable();
+        if (!(key instanceof String) || isBookkeeping(key)) {
+            return null;
+        }
+        Object previous = get(key);
+        Field field = FIELDS_BY_KEY.get(key);
+        if (field != null) {
+            setTyped(field, null);
+        } else {
+            int slot = schema.slotOf((String) key);
+            if (slot >= 0) {
+                formValues[slot] = null;
+            }
+        }
+        if (extra != null) {
+            extra.remove(key);
+        }
+        return previous;
+    }
+
+    /**
+     * Counts the present keys without building the map; typed, form and overflow keys never overlap
+     */
+    @Override
+    public int size() {
+        int size = extra != null ? extra.size() : 0;
+        for (Field field : FIELDS) {
+            if (getTyped(field) != null) {
+                size++;
+            }
+        }
+        for (Object value : formValues) {
+            if (value != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Read-only view that walks the slots on iteration, so serializing a record builds no
+     * intermediate map; changes must go through put/remove
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ApplicationRecord.this.size();
+            }
+        };
+    }
+
+    private Map<String, Object> toLinkedMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Field field : FIELDS) {
+            Object value = getTyped(field);
+            if (value != null) {
+                map.put(field.key, value);
+            }
+        }
+        for (int slot = 0; slot < formValues.length; slot++) {
+            if (formValues[slot] != null) {
+                map.put(schema.fieldIdAt(slot), formValues[slot]);
+            }
+        }
+        if (extra != null) {
+            map.putAll(extra);
+        }
+        return map;
+    }
+
+    /**
+     * Typed fields, then form slots, then overflow keys, in the order toStoredMap() uses
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int fieldIndex;
+        private int formSlot;
+        private Iterator<Entry<String, Object>> extraEntries;
+        private Entry<String, Object> next = advance();
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> current = next;
+            next = advance();
+            return current;
+        }
+
+        private Entry<String, Object> advance() {
+            while (fieldIndex < FIELDS.length) {
+                Field field = FIELDS[fieldIndex++];
+                Object value = getTyped(field);
+                if (value != null) {
+                    return new SimpleImmutableEntry<>(field.key, value);
+                }
+            }
+            while (formSlot < formValues.length) {
+                int slot = formSlot++;
+                if (formValues[slot] != null) {
+                    return new SimpleImmutableEntry<>(schema.fieldIdAt(slot), formValues[slot]);
+                }
+            }
+            if (extra == null) {
+                return null;
+            }
+            if (extraEntries == null) {
+                extraEntries = extra.entrySet().iterator();
+            }
+            return extraEntries.hasNext() ? new SimpleImmutableEntry<>(extraEntries.next()) : null;
+        }
+    }
+
+    private Object getTyped(Field field) {
+        switch (field.kind) {
+            case ID:
+                return applicationId;
+            case STATUS:
+                return status != null ? status.name() : null;
+            case STRING:
+                return strings[field.slot];
+            case TIMESTAMP:
+                long timestamp = timestamps[field.slot];
+                return timestamp != 0 ? formatTimestamp(timestamp) : null;
+            case FLAG:
+                return (flagsPresent & (1 << field.slot)) != 0 ? Boolean.valueOf(flag(field)) : null;
+            case DECISION:
+                Decision decision = decisions[field.slot];
+                return decision != null ? decision.getValue() : null;
+            case COMMENTS:
+                return comments[field.slot];
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return false if the value cannot be represented in the typed slot
+     */
+    private boolean setTyped(Field field, Object value) {
+        switch (field.kind) {
+            case ID:
+                return true;
+            case STATUS:
+                ApplicationStatus newStatus = ApplicationStatus.fromValue(value);
+                if (value != null && newStatus == null) {
+                    return false;
+                }
+                status = newStatus;
+                return true;
+            case STRING:
+                if (value != null && !(value instanceof String)) {
+                    return false;
+                }
+                strings[field.slot] = (String) value;
+                return true;
+            case TIMESTAMP:
+                long timestamp = parseTimestamp(value);
+                if (value != null && timestamp == 0) {
+                    return false;
+                }
+                timestamps[field.slot] = timestamp;
+                return true;
+            case FLAG:
+                int bit = 1 << field.slot;
+                if (value == null) {
+                    flagsPresent &= ~bit;
+                    flagValues &= ~bit;
+                    return true;
+                }
+                if (!(value instanceof Boolean) && !"true".equals(value) && !"false".equals(value)) {
+                    return false;
+                }
+                flagsPresent |= bit;
+                if (Boolean.parseBoolean(value.toString())) {
+                    flagValues |= bit;
+                } else {
+                    flagValues &= ~bit;
+                }
+                return true;
+            case DECISION:
+                Decision decision = Decision.fromValue(value);
+                if (value != null && decision == null) {
+                    return false;
+                }
+                decisions[field.slot] = decision;
+                return true;
+            case COMMENTS:
+                if (value != null && !(value instanceof String)) {
+                    return false;
+                }
+                comments[field.slot] = (String) value;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Application " + applicationId + " is a read-only snapshot");
+        }
+    }
+
+    private static boolean isBookkeeping(Object key) {
+        return VERSION_KEY.equals(key) || CHANGE_SEQUENCE_KEY.equals(key);
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private boolean flag(Field field) {
+        return (flagValues & (1 << field.slot)) != 0;
+    }
+
+    private static String formatTimestamp(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString();
+    }
+
+    private static long parseTimestamp(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (value instanceof String) {
+            try {
+                return LocalDateTime.parse((String) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
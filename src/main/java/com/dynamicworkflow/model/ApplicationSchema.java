@@ -0,0 +1,64 @@
+package com.dynamicworkflow.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record layout compiled from the workflow definition: one fixed slot per form field.
+ * Built once at startup by WorkflowDefinitionService and shared by all ApplicationRecords.
+ */
+public class ApplicationSchema {
+
+    private final String[] fieldIds;
+    private final Map<String, Integer> slotsByFieldId;
+
+    private ApplicationSchema(List<String> fieldIds) {
+        this.fieldIds = fieldIds.toArray(new String[0]);
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < this.fieldIds.length; i++) {
+            slots.put(this.fieldIds[i], i);
+        }
+        this.slotsByFieldId = Collections.unmodifiableMap(slots);
+    }
+
+    public static ApplicationSchema compile(WorkflowDefinition definition) {
+        List<String> fieldIds = new ArrayList<>();
+        if (definition.getSteps() != null) {
+            for (WorkflowStep step : definition.getSteps()) {
+                addFields(fieldIds, step.getFields());
+                addFields(fieldIds, step.getConditionalFields());
+            }
+        }
+        return new ApplicationSchema(fieldIds);
+    }
+
+    private static void addFields(List<String> fieldIds, List<FormField> fields) {
+        if (fields == null) {
+            return;
+        }
+        for (FormField field : fields) {
+            if (field.getFieldId() != null && !fieldIds.contains(field.getFieldId())) {
+                fieldIds.add(field.getFieldId());
+            }
+        }
+    }
+
+    /**
+     * @return the slot of the form field, or -1 if the key is not a form field
+     */
+    public int slotOf(String fieldId) {
+        Integer slot = slotsByFieldId.get(fieldId);
+        return slot != null ? slot : -1;
+    }
+
+    public String fieldIdAt(int slot) {
+        return fieldIds[slot];
+    }
+
+    public int size() {
+        return fieldIds.length;
+    }
+}
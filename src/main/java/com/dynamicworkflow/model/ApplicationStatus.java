@@ -0,0 +1,53 @@
+package com.dynamicworkflow.model;
+
+/**
+ * Every status an application can be in, from the first step to hiring or rejection
+ */
+public enum ApplicationStatus {
+    STARTED,
+    IN_PROGRESS,
+    PENDING_HR_REVIEW,
+    HR_APPROVED,
+    PENDING_TL_REVIEW,
+    PENDING_PM_REVIEW,
+    PENDING_HEAD_HR_REVIEW,
+    PENDING_COMPANY_MANAGER_REVIEW,
+    PENDING_HR_HIRING,
+    PENDING_ONBOARDING,
+    ONBOARDING_INITIATED,
+    ONBOARDING_COMPLETED,
+    ACCEPTED,
+    HIRED,
+    COMPLETED,
+    REJECTED,
+    REJECTED_BY_HR,
+    REJECTED_BY_TL_PM,
+    REJECTED_BY_HEAD_HR,
+    REJECTED_BY_COMPANY_MANAGER,
+    REJECTED_FINAL_ONBOARDING,
+    UNKNOWN;
+
+    /**
+     * Hired, onboarded or rejected: no reviewer will act on the application again
+     */
+    public boolean isTerminal() {
+        return this == HIRED || this == ONBOARDING_COMPLETED || name().startsWith("REJECTED");
+    }
+
+    /**
+     * Lenient lookup for status strings coming from process variables or stored JSON
+     */
+    public static ApplicationStatus fromValue(Object value) {
+        if (value instanceof ApplicationStatus) {
+            return (ApplicationStatus) value;
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value.toString().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.dynamicworkflow.model;
+
+/**
+ * Reviewer decision, stored in process variables as its lower-case value
+ */
+public enum Decision {
+    ACCEPT("accept"),
+    REJECT("reject"),
+    ONBOARDING("onboarding");
+
+    private final String value;
+
+    Decision(String value) {
+        this.value = value;
+    }
+
+    public String getValue() { return value; }
+
+    public static Decision fromValue(Object value) {
+        if (value instanceof Decision) {
+            return (Decision) value;
+        }
+        if (value != null) {
+            for (Decision decision : values()) {
+                if (decision.value.equals(value.toString())) {
+                    return decision;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.dynamicworkflow.model;
+
+/**
+ * Reviewer roles of the recruitment process. The key prefix is used for the
+ * decision and comment variables (e.g. hrDecision, tlComments); the pending status
+ * is what an application shows while the role's review task is open.
+ */
+public enum ReviewRole {
+    HR("hr", ApplicationStatus.PENDING_HR_REVIEW),
+    TEAM_LEAD("tl", ApplicationStatus.PENDING_TL_REVIEW),
+    PROJECT_MANAGER("pm", ApplicationStatus.PENDING_PM_REVIEW),
+    HEAD_HR("headHR", ApplicationStatus.PENDING_HEAD_HR_REVIEW),
+    COMPANY_MANAGER("companyManager", ApplicationStatus.PENDING_COMPANY_MANAGER_REVIEW);
+
+    private final String keyPrefix;
+    private final ApplicationStatus pendingStatus;
+
+    ReviewRole(String keyPrefix, ApplicationStatus pendingStatus) {
+        this.keyPrefix = keyPrefix;
+        this.pendingStatus = pendingStatus;
+    }
+
+    public String getKeyPrefix() { return keyPrefix; }
+    public ApplicationStatus getPendingStatus() { return pendingStatus; }
+    public String getDecisionKey() { return keyPrefix + "Decision"; }
+    public String getCommentsKey() { return keyPrefix + "Comments"; }
+
+    /**
+     * Resolves the role names accepted by the approve/reject endpoints
+     */
+    public static ReviewRole fromRequestRole(String role) {
+        if (role == null) {
+            return null;
+        }
+        switch (role.toLowerCase()) {
+            case "hr":
+                return HR;
+            case "teamlead":
+            case "tl":
+                return TEAM_LEAD;
+            case "projectmanager":
+            case "pm":
+                return PROJECT_MANAGER;
+            case "headhr":
+                return HEAD_HR;
+            case "companymanager":
+                return COMPANY_MANAGER;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.listener.AsyncServiceTaskParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin turning the recruitment service tasks into asynchronous
+ * continuations executed by the job executor
+ */
+public class AsyncServiceTaskPlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+            processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+        }
+        parseListeners.add(new AsyncServiceTaskParseListener());
+        // Async continuations only make progress with a running job executor
+        processEngineConfiguration.setJobExecutorActivate(true);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.metrics.CommandMetrics;
+import com.dynamicworkflow.metrics.CommandMetricsInterceptor;
+import com.dynamicworkflow.metrics.StatementCountingInterceptor;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin measuring every engine command: an interceptor ahead of the
+ * transaction interceptor of both command executors, and a MyBatis plugin counting
+ * the SQL statements
+ */
+public class CommandMetricsPlugin extends AbstractProcessEnginePlugin {
+
+    private final CommandMetrics commandMetrics;
+
+    public CommandMetricsPlugin(CommandMetrics commandMetrics) {
+        this.commandMetrics = commandMetrics;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        // Interceptors are chained through their next field, so each executor gets its own
+        List<CommandInterceptor> txRequired = processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired();
+        if (txRequired == null) {
+            txRequired = new ArrayList<>();
+            processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(txRequired);
+        }
+        txRequired.add(0, new CommandMetricsInterceptor(commandMetrics));
+
+        List<CommandInterceptor> txRequiresNew = processEngineConfiguration.getCustomPreCommandInterceptorsTxRequiresNew();
+        if (txRequiresNew == null) {
+            txRequiresNew = new ArrayList<>();
+            processEngineConfiguration.setCustomPreCommandInterceptorsTxRequiresNew(txRequiresNew);
+        }
+        txRequiresNew.add(0, new CommandMetricsInterceptor(commandMetrics));
+    }
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        processEngineConfiguration.getSqlSessionFactory().getConfiguration()
+            .addInterceptor(new StatementCountingInterceptor(commandMetrics));
+        commandMetrics.setMetricsRegistry(processEngineConfiguration.isMetricsEnabled()
+                                          ? processEngineConfiguration.getMetricsRegistry() : null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.variable.CompactJsonValueSerializer;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin registering the compact JSON serializer ahead of the built-in
+ * ones and making it the default format, so untyped map and list variables use it
+ */
+public class CompactVariablePlugin extends AbstractProcessEnginePlugin {
+
+    private final CompactJsonValueSerializer serializer;
+
+    public CompactVariablePlugin(CompactJsonValueSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        List<TypedValueSerializer> serializers = processEngineConfiguration.getCustomPreVariableSerializers();
+        if (serializers == null) {
+            serializers = new ArrayList<>();
+            processEngineConfiguration.setCustomPreVariableSerializers(serializers);
+        }
+        serializers.add(serializer);
+        processEngineConfiguration.setDefaultSerializationFormat(CompactJsonValueSerializer.DATA_FORMAT);
+    }
+}
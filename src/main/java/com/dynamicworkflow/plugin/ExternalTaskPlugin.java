@@ -0,0 +1,36 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.externaltask.ExternalTaskSignal;
+import com.dynamicworkflow.listener.ExternalTaskParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process engine plugin running the notification and storage service tasks as
+ * external tasks
+ */
+public class ExternalTaskPlugin extends AbstractProcessEnginePlugin {
+
+    private final Map<String, String> topicsByDelegate;
+    private final ExternalTaskSignal signal;
+
+    public ExternalTaskPlugin(Map<String, String> topicsByDelegate, ExternalTaskSignal signal) {
+        this.topicsByDelegate = topicsByDelegate;
+        this.signal = signal;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+            processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+        }
+        parseListeners.add(new ExternalTaskParseListener(topicsByDelegate, signal));
+    }
+}
@@ -0,0 +1,42 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.history.FilteringHistoryEventHandler;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin installing the filtering history handler in front of the
+ * default database handler and any custom handlers
+ */
+public class HistoryFilterPlugin extends AbstractProcessEnginePlugin {
+
+    private final FilteringHistoryEventHandler historyEventHandler;
+
+    public HistoryFilterPlugin(FilteringHistoryEventHandler historyEventHandler) {
+        this.historyEventHandler = historyEventHandler;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        processEngineConfiguration.setHistoryEventHandler(historyEventHandler);
+        // History inserts of a command are flushed as JDBC batches at commit
+        processEngineConfiguration.setJdbcBatchProcessing(true);
+    }
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        List<HistoryEventHandler> delegates = new ArrayList<>();
+        if (processEngineConfiguration.isEnableDefaultDbHistoryEventHandler()) {
+            delegates.add(new DbHistoryEventHandler());
+        }
+        if (processEngineConfiguration.getCustomHistoryEventHandlers() != null) {
+            delegates.addAll(processEngineConfiguration.getCustomHistoryEventHandlers());
+        }
+        historyEventHandler.setDelegates(delegates);
+    }
+}
@@ -0,0 +1,36 @@
+package com.dynamicworkflow.plugin;
+
+import com.dynamicworkflow.listener.WorkflowProjectionListener;
+import com.dynamicworkflow.listener.ReviewTaskCatalog;
+import com.dynamicworkflow.listener.WorkflowProjectionParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process engine plugin registering the parse listener that feeds the
+ * application state projection
+ */
+public class WorkflowProjectionPlugin extends AbstractProcessEnginePlugin {
+
+    private final WorkflowProjectionListener projectionListener;
+    private final ReviewTaskCatalog reviewTaskCatalog;
+
+    public WorkflowProjectionPlugin(WorkflowProjectionListener projectionListener, ReviewTaskCatalog reviewTaskCatalog) {
+        this.projectionListener = projectionListener;
+        this.reviewTaskCatalog = reviewTaskCatalog;
+    }
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+            processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+        }
+        parseListeners.add(new WorkflowProjectionParseListener(projectionListener, reviewTaskCatalog));
+    }
+}
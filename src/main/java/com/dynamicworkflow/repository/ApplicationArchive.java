@@ -0,0 +1,362 @@
+package com.dynamicworkflow.repository;
+
+import com.dynamicworkflow.journal.RecordCodec;
+import com.dynamicworkflow.model.ApplicationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cold tier for finished applications: deflate-compressed records appended to segment
+ * files on disk, with only a small location entry per application kept on the heap.
+ * The entry header also carries the process instance id and applicant email, so those
+ * lookups are answered from heap indexes without decompressing any record.
+ *
+ * Entry layout: [int length][int crc32][short idLength][id][short statusLength][status]
+ * [short processInstanceIdLength][processInstanceId][short emailLength][email]
+ * [int rawLength][deflated state]. A rawLength of -1 marks the application as removed
+ * from the archive. The indexes are rebuilt by scanning the segments on open.
+ */
+public class ApplicationArchive implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationArchive.class);
+
+    private static final String SEGMENT_PREFIX = "archive-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int ENTRY_HEADER_SIZE = 8;
+    private static final int REMOVED = -1;
+    private static final int HEADER_STRINGS = 4;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    // Changed only together with index, under this archive's monitor
+    private final Map<String, String> processInstanceIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> emailIndex = new ConcurrentHashMap<>();
+    private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+
+    private int currentSegment;
+    private long currentSize;
+
+    private ApplicationArchive(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static ApplicationArchive open(Path directory, long segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        ApplicationArchive archive = new ApplicationArchive(directory, segmentSize);
+        archive.load();
+        return archive;
+    }
+
+    /**
+     * Appends the state of an application, replacing any earlier archived copy
+     */
+    public synchronized void write(String applicationId, ApplicationStatus status, String processInstanceId,
+                                   String email, Map<String, Object> state) throws IOException {
+        byte[] raw = RecordCodec.encode(state);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        Location location = append(applicationId, status != null ? status.name() : "", processInstanceId, email,
+                                   raw.length, compressed.toByteArray());
+        indexLocation(applicationId, location);
+    }
+
+    /**
+     * Drops the archived copy, e.g. because the application is live on the heap again
+     */
+    public synchronized void remove(String applicationId) throws IOException {
+        if (unindex(applicationId) != null) {
+            append(applicationId, "", null, null, REMOVED, new byte[0]);
+        }
+    }
+
+    public Map<String, Object> read(String applicationId) throws IOException {
+        Location location = index.get(applicationId);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer entry = readEntry(channel(location.segment), location.offset);
+        if (entry == null) {
+            throw new IOException("Archive entry for " + applicationId + " is corrupt");
+        }
+        skipHeaderStrings(entry);
+        byte[] raw = new byte[entry.getInt()];
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(entry.array(), entry.position(), entry.remaining())))) {
+            in.readFully(raw);
+        }
+        return RecordCodec.decode(raw);
+    }
+
+    public boolean contains(String applicationId) {
+        return index.containsKey(applicationId);
+    }
+
+    public ApplicationStatus statusOf(String applicationId) {
+        Location location = index.get(applicationId);
+        return location != null ? location.status : null;
+    }
+
+    public String findIdByProcessInstanceId(String processInstanceId) {
+        return processInstanceIndex.get(processInstanceId);
+    }
+
+    public List<String> findIdsByEmail(String email) {
+        Set<String> ids = emailIndex.get(email);
+        return ids != null ? new ArrayList<>(ids) : new ArrayList<>();
+    }
+
+    /**
+     * Visits the status of every archived application without touching the disk
+     */
+    public void forEachStatus(BiConsumer<String, ApplicationStatus> action) {
+        index.forEach((id, location) -> action.accept(id, location.status));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+        segments.clear();
+    }
+
+    private Location append(String applicationId, String status, String processInstanceId, String email,
+                            int rawLength, byte[] compressed) throws IOException {
+        byte[] id = applicationId.getBytes(StandardCharsets.UTF_8);
+        byte[] statusBytes = status.getBytes(StandardCharsets.UTF_8);
+        byte[] processInstanceBytes = (processInstanceId != null ? processInstanceId : "").getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = (email != null ? email : "").getBytes(StandardCharsets.UTF_8);
+        int length = 2 + id.length + 2 + statusBytes.length + 2 + processInstanceBytes.length +
+                     2 + emailBytes.length + 4 + compressed.length;
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        for (byte[] field : new byte[][] {id, statusBytes, processInstanceBytes, emailBytes}) {
+            payload.putShort((short) field.length);
+            payload.put(field);
+        }
+        payload.putInt(rawLength);
+        payload.put(compressed);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+
+        if (segments.isEmpty() || currentSize + ENTRY_HEADER_SIZE + length > segmentSize) {
+            if (!segments.isEmpty()) {
+                channel(currentSegment).force(false);
+            }
+            currentSegment++;
+            currentSize = 0;
+            segments.put(currentSegment, FileChannel.open(segmentPath(currentSegment), StandardOpenOption.CREATE_NEW,
+                                                          StandardOpenOption.READ, StandardOpenOption.WRITE));
+            logger.debug("Started archive segment {}", segmentPath(currentSegment).getFileName());
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + length);
+        entry.putInt(length);
+        entry.putInt((int) crc.getValue());
+        entry.put(payload.array());
+        entry.flip();
+
+        long offset = currentSize;
+        FileChannel channel = channel(currentSegment);
+        while (entry.hasRemaining()) {
+            channel.write(entry, offset + entry.position());
+        }
+        currentSize += ENTRY_HEADER_SIZE + length;
+        return new Location(currentSegment, offset, ApplicationStatus.fromValue(status),
+                            emptyToNull(processInstanceId), emptyToNull(email));
+    }
+
+    private void load() throws IOException {
+        long start = System.nanoTime();
+        long entries = 0;
+        for (Path path : listSegments()) {
+            int number = segmentNumber(path);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(number, channel);
+
+            long offset = 0;
+            ByteBuffer entry;
+            while ((entry = readEntry(channel, offset)) != null) {
+                String applicationId = readString(entry);
+                String status = readString(entry);
+                String processInstanceId = readString(entry);
+                String email = readString(entry);
+                if (entry.getInt() == REMOVED) {
+                    unindex(applicationId);
+                } else {
+                    indexLocation(applicationId, new Location(number, offset, ApplicationStatus.fromValue(status),
+                                                              emptyToNull(processInstanceId), emptyToNull(email)));
+                }
+                offset += ENTRY_HEADER_SIZE + entry.capacity();
+                entries++;
+            }
+            if (offset < channel.size()) {
+                logger.warn("Archive segment {} has a torn entry at offset {}, truncating", path.getFileName(), offset);
+                channel.truncate(offset);
+            }
+            currentSegment = number;
+            currentSize = offset;
+        }
+        logger.info("Application archive opened: {} applications from {} entries in {}ms",
+                   index.size(), entries, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void indexLocation(String applicationId, Location location) {
+        unindex(applicationId);
+        index.put(applicationId, location);
+        if (location.processInstanceId != null) {
+            processInstanceIndex.put(location.processInstanceId, applicationId);
+        }
+        if (location.email != null) {
+            emailIndex.computeIfAbsent(location.email, email -> ConcurrentHashMap.newKeySet()).add(applicationId);
+        }
+    }
+
+    private Location unindex(String applicationId) {
+        Location location = index.remove(applicationId);
+        if (location == null) {
+            return null;
+        }
+        if (location.processInstanceId != null) {
+            processInstanceIndex.remove(location.processInstanceId, applicationId);
+        }
+        if (location.email != null) {
+            emailIndex.computeIfPresent(location.email, (email, ids) -> {
+                ids.remove(applicationId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        return location;
+    }
+
+    /**
+     * Reads and verifies the entry at the given offset, positioned after the header; null at the end or on a torn write
+     */
+    private static ByteBuffer readEntry(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+        if (!readFully(channel, header, offset)) {
+            return null;
+        }
+        int length = header.getInt(0);
+        if (length <= 0 || offset + ENTRY_HEADER_SIZE + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, offset + ENTRY_HEADER_SIZE)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != header.getInt(4)) {
+            return null;
+        }
+        payload.rewind();
+        return payload;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipHeaderStrings(ByteBuffer entry) {
+        for (int i = 0; i < HEADER_STRINGS; i++) {
+            int length = entry.getShort();
+            entry.position(entry.position() + length);
+        }
+    }
+
+    private static String readString(ByteBuffer entry) {
+        byte[] bytes = new byte[entry.getShort()];
+        entry.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private FileChannel channel(int segment) throws IOException {
+        FileChannel channel = segments.get(segment);
+        if (channel == null) {
+            throw new IOException("Archive segment " + segment + " is not open");
+        }
+        return channel;
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static int segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Location {
+        private final int segment;
+        private final long offset;
+        private final ApplicationStatus status;
+        private final String processInstanceId;
+        private final String email;
+
+        Location(int segment, long offset, ApplicationStatus status, String processInstanceId, String email) {
+            this.segment = segment;
+            this.offset = offset;
+            this.status = status;
+            this.processInstanceId = processInstanceId;
+            this.email = email;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.dynamicworkflow.repository;
+
+import com.dynamicworkflow.model.ApplicationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ApplicationEntityRepository extends JpaRepository<ApplicationEntity, String> {
+
+    @Query("select a.applicationId from ApplicationEntity a where a.status = :status")
+    List<String> findIdsByStatus(@Param("status") String status);
+
+    @Query("select a.applicationId from ApplicationEntity a where a.processInstanceId = :processInstanceId")
+    Optional<String> findIdByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+
+    @Query("select a.applicationId from ApplicationEntity a where a.applicantEmail = :email")
+    List<String> findIdsByApplicantEmail(@Param("email") String email);
+}
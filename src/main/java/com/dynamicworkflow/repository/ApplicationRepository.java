@@ -0,0 +1,43 @@
+package com.dynamicworkflow.repository;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage for job applications. The status is part of the record.
+ * Select the implementation with workflow.store.type (jpa or memory).
+ *
+ * save() keeps a frozen snapshot of the record and lookups return frozen records,
+ * so callers change a mutableCopy() and save it again.
+ */
+public interface ApplicationRepository {
+
+    Optional<ApplicationRecord> findById(String applicationId);
+
+    /**
+     * Stored applications among the given ids, in one round trip where the store allows;
+     * ids that are not stored are left out
+     */
+    Map<String, ApplicationRecord> findAllById(Collection<String> applicationIds);
+
+    boolean existsById(String applicationId);
+
+    void save(ApplicationRecord record);
+
+    Map<String, ApplicationRecord> findAll();
+
+    Map<String, ApplicationStatus> findAllStatuses();
+
+    List<String> findIdsByStatus(ApplicationStatus status);
+
+    Optional<String> findIdByProcessInstanceId(String processInstanceId);
+
+    List<String> findIdsByApplicantEmail(String email);
+
+    long count();
+}
@@ -0,0 +1,307 @@
+package com.dynamicworkflow.repository;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.service.WorkflowDefinitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap repository (workflow.store.type=memory). Active applications stay on the heap;
+ * hired, onboarded and rejected ones move to a compressed on-disk archive once they
+ * have been idle for workflow.store.archive.idle-minutes and are read back on demand.
+ * Status, process instance and email lookups use maps kept next to the heap store and
+ * the archive's own indexes; only findAll() decompresses every archived record.
+ *
+ * The archive is this store's cold tier only. The jpa store needs none: its table is
+ * the cold tier and the heap holds just the bounded hot cache.
+ */
+@Repository
+@ConditionalOnProperty(name = "workflow.store.type", havingValue = "memory")
+public class InMemoryApplicationRepository implements ApplicationRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryApplicationRepository.class);
+
+    private final WorkflowDefinitionService workflowDefinitionService;
+
+    @Value("${workflow.store.archive.dir:./data/archive}")
+    private String archiveDir;
+
+    @Value("${workflow.store.archive.segment-size-mb:64}")
+    private int archiveSegmentSizeMb;
+
+    @Value("${workflow.store.archive.idle-minutes:60}")
+    private long idleMinutes;
+
+    @Value("${workflow.store.archive.sweep-interval-ms:60000}")
+    private long sweepIntervalMs;
+
+    private final Map<String, ApplicationRecord> applicationStore = new ConcurrentHashMap<>();
+    // Secondary indexes of the heap store, changed inside applicationStore's compute for the id
+    private final Map<ApplicationStatus, Set<String>> idsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, String> idByProcessInstance = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByEmail = new ConcurrentHashMap<>();
+    private ApplicationArchive archive;
+    private ScheduledExecutorService archiveExecutor;
+
+    public InMemoryApplicationRepository(WorkflowDefinitionService workflowDefinitionService) {
+        this.workflowDefinitionService = workflowDefinitionService;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        archive = ApplicationArchive.open(Paths.get(archiveDir), archiveSegmentSizeMb * 1024L * 1024L);
+
+        archiveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "application-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiveExecutor.scheduleWithFixedDelay(this::archiveQuietly, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+
+        logger.info("In-memory application repository started: {} archived, idle threshold {}min",
+                   archive.size(), idleMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        archiveExecutor.shutdown();
+        archive.close();
+    }
+
+    @Override
+    public Optional<ApplicationRecord> findById(String applicationId) {
+        ApplicationRecord record = applicationStore.get(applicationId);
+        return record != null ? Optional.of(record) : Optional.ofNullable(readArchived(applicationId));
+    }
+
+    @Override
+    public Map<String, ApplicationRecord> findAllById(Collection<String> applicationIds) {
+        Map<String, ApplicationRecord> result = new LinkedHashMap<>();
+        for (String applicationId : applicationIds) {
+            findById(applicationId).ifPresent(record -> result.put(applicationId, record));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(String applicationId) {
+        return applicationStore.containsKey(applicationId) || archive.contains(applicationId);
+    }
+
+    @Override
+    public void save(ApplicationRecord record) {
+        ApplicationRecord snapshot = record.snapshot();
+        applicationStore.compute(record.getApplicationId(), (id, previous) -> {
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(snapshot);
+            return snapshot;
+        });
+        if (archive.contains(record.getApplicationId())) {
+            try {
+                archive.remove(record.getApplicationId());
+            } catch (IOException e) {
+                // The heap copy always wins over the archived one, so this only wastes disk
+                logger.warn("Failed to drop archived copy of {}: {}", record.getApplicationId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Full export for startup indexing and debugging; reads every archived record from disk
+     */
+    @Override
+    public Map<String, ApplicationRecord> findAll() {
+        Map<String, ApplicationRecord> result = new LinkedHashMap<>(applicationStore);
+        archive.forEachStatus((id, status) -> {
+            if (!result.containsKey(id)) {
+                ApplicationRecord record = readArchived(id);
+                if (record != null) {
+                    result.put(id, record);
+                }
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Map<String, ApplicationStatus> findAllStatuses() {
+        Map<String, ApplicationStatus> result = new LinkedHashMap<>();
+        archive.forEachStatus((id, status) -> {
+            if (status != null) {
+                result.put(id, status);
+            }
+        });
+        applicationStore.forEach((id, record) -> {
+            if (record.getStatus() != null) {
+                result.put(id, record.getStatus());
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<String> findIdsByStatus(ApplicationStatus status) {
+        List<String> result = new ArrayList<>(idsByStatus.getOrDefault(status, Collections.emptySet()));
+        if (status.isTerminal()) {
+            archive.forEachStatus((id, archivedStatus) -> {
+                if (status == archivedStatus && !applicationStore.containsKey(id)) {
+                    result.add(id);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<String> findIdByProcessInstanceId(String processInstanceId) {
+        String live = idByProcessInstance.get(processInstanceId);
+        if (live != null) {
+            return Optional.of(live);
+        }
+        String archived = archive.findIdByProcessInstanceId(processInstanceId);
+        return archived != null && !applicationStore.containsKey(archived) ? Optional.of(archived) : Optional.empty();
+    }
+
+    @Override
+    public List<String> findIdsByApplicantEmail(String email) {
+        List<String> result = new ArrayList<>(idsByEmail.getOrDefault(email, Collections.emptySet()));
+        for (String archived : archive.findIdsByEmail(email)) {
+            if (!applicationStore.containsKey(archived)) {
+                result.add(archived);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long count() {
+        long archivedOnly = archive.size();
+        for (String applicationId : applicationStore.keySet()) {
+            if (archive.contains(applicationId)) {
+                archivedOnly--;
+            }
+        }
+        return applicationStore.size() + archivedOnly;
+    }
+
+    /**
+     * Moves terminal applications that have not changed for the idle threshold to the archive
+     *
+     * @return number of applications archived
+     */
+    public int archiveIdleApplications() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleMinutes);
+        int archived = 0;
+        for (ApplicationRecord record : applicationStore.values()) {
+            if (record.getStatus() == null || !record.getStatus().isTerminal() || record.getLastUpdatedAt() > cutoff) {
+                continue;
+            }
+            try {
+                archive.write(record.getApplicationId(), record.getStatus(), record.getProcessInstanceId(),
+                              emailOf(record), record.toStoredMap());
+            } catch (IOException e) {
+                logger.warn("Failed to archive application {}: {}", record.getApplicationId(), e.getMessage());
+                continue;
+            }
+            // Stored records are immutable, so the identity check catches saves made while writing
+            boolean[] removed = new boolean[1];
+            applicationStore.computeIfPresent(record.getApplicationId(), (id, current) -> {
+                if (current != record) {
+                    return current;
+                }
+                unindex(current);
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) {
+                archived++;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} idle applications, {} remain on the heap", archived, applicationStore.size());
+        }
+        return archived;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archiveIdleApplications();
+        } catch (Exception e) {
+            logger.warn("Archive sweep failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void index(ApplicationRecord record) {
+        String applicationId = record.getApplicationId();
+        if (record.getStatus() != null) {
+            idsByStatus.computeIfAbsent(record.getStatus(), status -> ConcurrentHashMap.newKeySet()).add(applicationId);
+        }
+        if (record.getProcessInstanceId() != null) {
+            idByProcessInstance.put(record.getProcessInstanceId(), applicationId);
+        }
+        String email = emailOf(record);
+        if (email != null) {
+            idsByEmail.computeIfAbsent(email, key -> ConcurrentHashMap.newKeySet()).add(applicationId);
+        }
+    }
+
+    private void unindex(ApplicationRecord record) {
+        String applicationId = record.getApplicationId();
+        if (record.getStatus() != null) {
+            removeId(idsByStatus, record.getStatus(), applicationId);
+        }
+        if (record.getProcessInstanceId() != null) {
+            idByProcessInstance.remove(record.getProcessInstanceId(), applicationId);
+        }
+        String email = emailOf(record);
+        if (email != null) {
+            removeId(idsByEmail, email, applicationId);
+        }
+    }
+
+    private static <K> void removeId(Map<K, Set<String>> index, K key, String applicationId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(applicationId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String emailOf(ApplicationRecord record) {
+        Object email = record.get("email");
+        return email != null ? email.toString() : null;
+    }
+
+    private ApplicationRecord readArchived(String applicationId) {
+        try {
+            Map<String, Object> data = archive.read(applicationId);
+            return data != null
+                ? ApplicationRecord.fromMap(workflowDefinitionService.getApplicationSchema(), applicationId, data).freeze()
+                : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archived application " + applicationId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.dynamicworkflow.repository;
+
+import com.dynamicworkflow.model.ApplicationEntity;
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.service.WorkflowDefinitionService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Durable repository backed by the job_application table.
+ * Writes go to a bounded LRU hot cache and are flushed to the database in batches
+ * by a background thread (write-behind). Queries never wait for a flush: they merge the
+ * pending writes into what the database returns.
+ * Finished applications are not archived separately: the table is the cold tier and
+ * evicted ones reload from it on demand.
+ */
+@Repository
+@ConditionalOnProperty(name = "workflow.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaApplicationRepository implements ApplicationRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaApplicationRepository.class);
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final ApplicationEntityRepository entityRepository;
+    private final ObjectMapper objectMapper;
+    private final WorkflowDefinitionService workflowDefinitionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${workflow.store.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${workflow.store.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${workflow.store.batch-size:200}")
+    private int batchSize;
+
+    @Value("${workflow.store.archive.idle-minutes:60}")
+    private long idleMinutes;
+
+    @Value("${workflow.store.archive.sweep-interval-ms:60000}")
+    private long sweepIntervalMs;
+
+    private Map<String, CachedApplication> hotCache;
+    // Applications changed since the last flush; survives eviction from the hot cache
+    private final Map<String, CachedApplication> dirtyApplications = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flushExecutor;
+
+    public JpaApplicationRepository(ApplicationEntityRepository entityRepository,
+                                    ObjectMapper objectMapper,
+                                    WorkflowDefinitionService workflowDefinitionService,
+                                    PlatformTransactionManager transactionManager) {
+        this.entityRepository = entityRepository;
+        this.objectMapper = objectMapper;
+        this.workflowDefinitionService = workflowDefinitionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        hotCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedApplication>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedApplication> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "application-store-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flushExecutor.scheduleWithFixedDelay(this::evictIdleQuietly, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+
+        logger.info("JPA application repository started: cacheSize={}, flushInterval={}ms, batchSize={}",
+                   cacheSize, flushIntervalMs, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    @Override
+    public Optional<ApplicationRecord> findById(String applicationId) {
+        return Optional.ofNullable(lookup(applicationId)).map(cached -> cached.record);
+    }
+
+    /**
+     * Cached and pending applications from memory, the rest with one query; rows read
+     * here do not enter the hot cache
+     */
+    @Override
+    public Map<String, ApplicationRecord> findAllById(Collection<String> applicationIds) {
+        Map<String, ApplicationRecord> result = new LinkedHashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String applicationId : applicationIds) {
+            CachedApplication cached = hotCache.get(applicationId);
+            if (cached == null) {
+                cached = dirtyApplications.get(applicationId);
+            }
+            if (cached != null) {
+                result.put(applicationId, cached.record);
+            } else {
+                uncached.add(applicationId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            for (ApplicationEntity entity : entityRepository.findAllById(uncached)) {
+                result.put(entity.getApplicationId(), readRecord(entity));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(String applicationId) {
+        return lookup(applicationId) != null;
+    }
+
+    @Override
+    public void save(ApplicationRecord record) {
+        CachedApplication cached = lookupOrCreate(record.getApplicationId());
+        cached.record = record.snapshot();
+        markDirty(cached);
+    }
+
+    @Override
+    public Map<String, ApplicationRecord> findAll() {
+        Map<String, ApplicationRecord> pending = pendingRecords();
+        Map<String, ApplicationRecord> result = new LinkedHashMap<>();
+        for (ApplicationEntity entity : entityRepository.findAll()) {
+            ApplicationRecord record = pending.remove(entity.getApplicationId());
+            if (record == null) {
+                CachedApplication cached = hotCache.get(entity.getApplicationId());
+                record = cached != null ? cached.record : readRecord(entity);
+            }
+            result.put(entity.getApplicationId(), record);
+        }
+        // Not inserted yet
+        result.putAll(pending);
+        return result;
+    }
+
+    @Override
+    public Map<String, ApplicationStatus> findAllStatuses() {
+        Map<String, ApplicationRecord> pending = pendingRecords();
+        Map<String, ApplicationStatus> result = new LinkedHashMap<>();
+        for (ApplicationEntity entity : entityRepository.findAll()) {
+            ApplicationRecord record = pending.remove(entity.getApplicationId());
+            if (record == null) {
+                CachedApplication cached = hotCache.get(entity.getApplicationId());
+                record = cached != null ? cached.record : null;
+            }
+            ApplicationStatus status = record != null
+                ? record.getStatus()
+                : ApplicationStatus.fromValue(entity.getStatus());
+            if (status != null) {
+                result.put(entity.getApplicationId(), status);
+            }
+        }
+        pending.forEach((id, record) -> {
+            if (record.getStatus() != null) {
+                result.put(id, record.getStatus());
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<String> findIdsByStatus(ApplicationStatus status) {
+        Map<String, ApplicationRecord> pending = pendingRecords();
+        return mergePending(entityRepository.findIdsByStatus(status.name()), pending,
+                            record -> status == record.getStatus());
+    }
+
+    @Override
+    public Optional<String> findIdByProcessInstanceId(String processInstanceId) {
+        Map<String, ApplicationRecord> pending = pendingRecords();
+        List<String> stored = entityRepository.findIdByProcessInstanceId(processInstanceId)
+            .map(Collections::singletonList)
+            .orElse(Collections.emptyList());
+        return mergePending(stored, pending, record -> processInstanceId.equals(record.getProcessInstanceId()))
+            .stream()
+            .findFirst();
+    }
+
+    @Override
+    public List<String> findIdsByApplicantEmail(String email) {
+        Map<String, ApplicationRecord> pending = pendingRecords();
+        return mergePending(entityRepository.findIdsByApplicantEmail(email), pending,
+                            record -> record.get("email") != null && email.equals(record.get("email").toString()));
+    }
+
+    /**
+     * Stored rows plus applications not inserted yet; exact once pending writes are
+     * flushed, may briefly count a row twice while a flush commits
+     */
+    @Override
+    public long count() {
+        long unstored = dirtyApplications.values().stream().filter(cached -> !cached.stored).count();
+        return entityRepository.count() + unstored;
+    }
+
+    /**
+     * Writes every pending change to the database, in transactions of at most batch-size rows
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<CachedApplication> pending = new ArrayList<>(dirtyApplications.values());
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                writeBatch(pending.subList(from, Math.min(from + batchSize, pending.size())));
+            }
+        }
+    }
+
+    /**
+     * Drops idle terminal applications from the hot cache so it holds the active pipeline;
+     * the table is their cold tier and findById reloads them on demand
+     *
+     * @return number of applications evicted
+     */
+    public int evictIdleApplications() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleMinutes);
+        List<CachedApplication> candidates;
+        synchronized (hotCache) {
+            candidates = hotCache.values().stream()
+                .filter(cached -> {
+                    ApplicationRecord record = cached.record;
+                    return record.getStatus() != null && record.getStatus().isTerminal()
+                        && record.getLastUpdatedAt() <= cutoff;
+                })
+                .collect(Collectors.toList());
+        }
+        int evicted = 0;
+        for (CachedApplication cached : candidates) {
+            // Unflushed changes stay cached until the next flush has written them
+            if (!dirtyApplications.containsKey(cached.applicationId) && hotCache.remove(cached.applicationId, cached)) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle applications from the hot cache, {} remain", evicted, hotCache.size());
+        }
+        return evicted;
+    }
+
+    private void evictIdleQuietly() {
+        try {
+            evictIdleApplications();
+        } catch (Exception e) {
+            logger.warn("Hot cache eviction failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<CachedApplication> batch) {
+        List<PendingWrite> writes = new ArrayList<>(batch.size());
+        for (CachedApplication cached : batch) {
+            try {
+                writes.add(new PendingWrite(cached));
+            } catch (Exception e) {
+                // Left dirty, picked up again by the next flush
+                logger.warn("Failed to serialize application {}: {}", cached.applicationId, e.getMessage());
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            Map<String, ApplicationEntity> existing = entityRepository
+                .findAllById(writes.stream().map(write -> write.source.applicationId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ApplicationEntity::getApplicationId, Function.identity()));
+
+            List<ApplicationEntity> inserts = new ArrayList<>();
+            for (PendingWrite write : writes) {
+                ApplicationEntity entity = existing.get(write.source.applicationId);
+                if (entity == null) {
+                    entity = new ApplicationEntity(write.source.applicationId);
+                    inserts.add(entity);
+                }
+                write.applyTo(entity);
+            }
+            entityRepository.saveAll(inserts);
+        });
+
+        // Only clear entries that were not modified again while the batch was being written
+        for (PendingWrite write : writes) {
+            write.source.stored = true;
+            dirtyApplications.computeIfPresent(write.source.applicationId, (id, current) ->
+                current == write.source && current.version.get() == write.version ? null : current);
+        }
+        logger.debug("Flushed {} applications to the database", writes.size());
+    }
+
+    private CachedApplication lookup(String applicationId) {
+        CachedApplication cached = hotCache.get(applicationId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Evicted from the hot cache but not written yet
+        cached = dirtyApplications.get(applicationId);
+        if (cached == null) {
+            cached = entityRepository.findById(applicationId)
+                .map(entity -> {
+                    CachedApplication loaded = new CachedApplication(entity.getApplicationId(), readRecord(entity));
+                    loaded.stored = true;
+                    return loaded;
+                })
+                .orElse(null);
+            if (cached == null) {
+                return null;
+            }
+        }
+
+        CachedApplication existing = hotCache.putIfAbsent(applicationId, cached);
+        return existing != null ? existing : cached;
+    }
+
+    private CachedApplication lookupOrCreate(String applicationId) {
+        CachedApplication cached = lookup(applicationId);
+        if (cached == null) {
+            CachedApplication created = new CachedApplication(applicationId,
+                new ApplicationRecord(workflowDefinitionService.getApplicationSchema(), applicationId).freeze());
+            cached = hotCache.putIfAbsent(applicationId, created);
+            if (cached == null) {
+                cached = created;
+            }
+        }
+        return cached;
+    }
+
+    private void markDirty(CachedApplication cached) {
+        cached.version.incrementAndGet();
+        hotCache.put(cached.applicationId, cached);
+        dirtyApplications.put(cached.applicationId, cached);
+    }
+
+    /**
+     * Dirty applications by id, taken before the database is queried so a write that is
+     * flushed in between shows up in one of the two
+     */
+    private Map<String, ApplicationRecord> pendingRecords() {
+        Map<String, ApplicationRecord> pending = new HashMap<>();
+        dirtyApplications.forEach((id, cached) -> pending.put(id, cached.record));
+        return pending;
+    }
+
+    /**
+     * Stored ids whose pending change no longer matches are dropped, pending ones that match are added
+     */
+    private static List<String> mergePending(List<String> storedIds, Map<String, ApplicationRecord> pending,
+                                             Predicate<ApplicationRecord> matches) {
+        List<String> result = new ArrayList<>();
+        for (String applicationId : storedIds) {
+            if (!pending.containsKey(applicationId)) {
+                result.add(applicationId);
+            }
+        }
+        pending.forEach((id, record) -> {
+            if (matches.test(record)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    private ApplicationRecord readRecord(ApplicationEntity entity) {
+        Map<String, Object> data = null;
+        try {
+            if (entity.getData() != null) {
+                data = objectMapper.readValue(entity.getData(), DATA_TYPE);
+            }
+            ApplicationRecord record = ApplicationRecord.fromMap(
+                workflowDefinitionService.getApplicationSchema(), entity.getApplicationId(), data);
+            if (record.getStatus() == null) {
+                record.setStatus(ApplicationStatus.fromValue(entity.getStatus()));
+            }
+            return record.freeze();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read application data: " + entity.getApplicationId(), e);
+        }
+    }
+
+    private static class CachedApplication {
+        private final String applicationId;
+        private final AtomicLong version = new AtomicLong();
+        private volatile ApplicationRecord record;
+        // Whether the row exists in the database
+        private volatile boolean stored;
+
+        CachedApplication(String applicationId, ApplicationRecord record) {
+            this.applicationId = applicationId;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Point-in-time copy of a dirty application, taken outside the database transaction
+     */
+    private class PendingWrite {
+        private final CachedApplication source;
+        private final long version;
+        private final String status;
+        private final String processInstanceId;
+        private final String applicantEmail;
+        private final String json;
+
+        PendingWrite(CachedApplication source) throws IOException {
+            this.source = source;
+            this.version = source.version.get();
+            ApplicationRecord record = source.record;
+            this.status = record.getStatus() != null ? record.getStatus().name() : null;
+            this.processInstanceId = record.getProcessInstanceId();
+            Object email = record.get("email");
+            this.applicantEmail = email != null ? email.toString() : null;
+            this.json = objectMapper.writeValueAsString(record.toStoredMap());
+        }
+
+        void applyTo(ApplicationEntity entity) {
+            entity.setStatus(status);
+            entity.setProcessInstanceId(processInstanceId);
+            entity.setApplicantEmail(applicantEmail);
+            entity.setLastUpdatedMillis(System.currentTimeMillis());
+            entity.setData(json);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ReviewRole;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open user tasks per application, maintained from the task create/complete/delete
+ * events of the projection listener. Resolving the task a reviewer has to complete
+ * is a map lookup instead of a task query.
+ */
+public class ActiveTaskIndex {
+
+    private final Map<String, Map<String, ActiveTask>> tasksByApplication = new ConcurrentHashMap<>();
+
+    public void add(String applicationId, String taskId, String taskDefinitionKey, ReviewRole role) {
+        tasksByApplication.computeIfAbsent(applicationId, id -> new ConcurrentHashMap<>())
+            .put(taskId, new ActiveTask(taskId, taskDefinitionKey, role));
+    }
+
+    public void remove(String applicationId, String taskId) {
+        tasksByApplication.computeIfPresent(applicationId, (id, tasks) -> {
+            tasks.remove(taskId);
+            return tasks.isEmpty() ? null : tasks;
+        });
+    }
+
+    public void clear(String applicationId) {
+        tasksByApplication.remove(applicationId);
+    }
+
+    /**
+     * Replaces the open tasks of an application, e.g. after reading them from the engine
+     */
+    public void replace(String applicationId, Collection<ActiveTask> tasks) {
+        if (tasks.isEmpty()) {
+            tasksByApplication.remove(applicationId);
+            return;
+        }
+        Map<String, ActiveTask> byId = new ConcurrentHashMap<>();
+        for (ActiveTask task : tasks) {
+            byId.put(task.getTaskId(), task);
+        }
+        tasksByApplication.put(applicationId, byId);
+    }
+
+    public Collection<ActiveTask> getTasks(String applicationId) {
+        Map<String, ActiveTask> tasks = tasksByApplication.get(applicationId);
+        return tasks != null ? Collections.unmodifiableCollection(tasks.values()) : Collections.emptyList();
+    }
+
+    /**
+     * @return the open task of the given role, or null if the index has none
+     */
+    public String findTaskId(String applicationId, ReviewRole role) {
+        for (ActiveTask task : getTasks(applicationId)) {
+            if (task.getRole() == role) {
+                return task.getTaskId();
+            }
+        }
+        return null;
+    }
+
+    public static class ActiveTask {
+        private final String taskId;
+        private final String taskDefinitionKey;
+        private final ReviewRole role;
+
+        public ActiveTask(String taskId, String taskDefinitionKey, ReviewRole role) {
+            this.taskId = taskId;
+            this.taskDefinitionKey = taskDefinitionKey;
+            this.role = role;
+        }
+
+        public String getTaskId() { return taskId; }
+        public String getTaskDefinitionKey() { return taskDefinitionKey; }
+        public ReviewRole getRole() { return role; }
+    }
+}
@@ -0,0 +1,206 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.ReviewRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Every stored change of an application under a global sequence number, kept in a ring
+ * buffer of the most recent changes. Readers continue from the last sequence they have
+ * seen; when that has already been overwritten they fall back to the store.
+ *
+ * The sequence number is saved with the record as changeSequence, so it survives a
+ * restart: startup continues after the highest one in the store. Numbers are assigned
+ * under a short global lock and saved under the application's lock only, so saves of
+ * different applications run in parallel and may finish out of order. Changes become
+ * visible in sequence order: the latest sequence only moves past a number once every
+ * number up to it has been saved.
+ */
+@Component
+public class ApplicationChangeFeed {
+
+    private final Change[] buffer;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this: last number handed out, and last one up to which all are saved
+    private long assigned;
+    private long sequence;
+    // Saved changes behind a lower number that is still being saved
+    private final Map<Long, Change> waiting = new HashMap<>();
+    // Changes up to this sequence were made before startup and are not buffered
+    private long floor;
+
+    public ApplicationChangeFeed(@Value("${workflow.stream.buffer-size:10000}") int bufferSize) {
+        this.buffer = new Change[Math.max(1, bufferSize)];
+    }
+
+    /**
+     * Continues numbering after the highest sequence found in the store
+     */
+    public synchronized void advanceTo(long storedSequence) {
+        if (storedSequence > assigned) {
+            assigned = storedSequence;
+            sequence = storedSequence;
+            floor = storedSequence;
+        }
+    }
+
+    /**
+     * Stamps the record with the next sequence number, runs save and records the change,
+     * then notifies the listeners. Called by JobApplicationService.store() while it holds
+     * the application's lock, so the previous state is the one before this change.
+     */
+    public Change publish(ApplicationRecord record, ApplicationStatus previousStatus,
+                          Set<ReviewRole> previousPendingRoles, Runnable save) {
+        long next;
+        synchronized (this) {
+            next = ++assigned;
+        }
+        record.setChangeSequence(next);
+        Change change;
+        try {
+            save.run();
+            change = new Change(next, record.getApplicationId(), record.getVersion(), record.getStatus(), previousStatus,
+                                ApplicationIndex.pendingRoles(record), previousPendingRoles, decidedRoles(record),
+                                System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // The number is taken either way; an unchanged entry keeps later changes from waiting for it
+            append(new Change(next, record.getApplicationId(), record.getVersion(), previousStatus, previousStatus,
+                              previousPendingRoles, previousPendingRoles, decidedRoles(record),
+                              System.currentTimeMillis()));
+            throw e;
+        }
+        append(change);
+        return change;
+    }
+
+    private void append(Change change) {
+        boolean advanced = false;
+        synchronized (this) {
+            // Saves finish out of order; publish up to the first number still being saved
+            waiting.put(change.getSequence(), change);
+            Change following;
+            while ((following = waiting.remove(sequence + 1)) != null) {
+                sequence++;
+                buffer[(int) (sequence % buffer.length)] = following;
+                advanced = true;
+            }
+        }
+        if (advanced) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Changes after the given sequence number, oldest first
+     *
+     * @return null when changes after that sequence have already left the buffer or were
+     *         made before startup, or the sequence has not been issued
+     */
+    public synchronized List<Change> since(long after, int limit) {
+        if (after < 0 || after > sequence || after < Math.max(floor, sequence - buffer.length)) {
+            return null;
+        }
+        long last = Math.min(sequence, after + Math.max(0, limit));
+        List<Change> changes = new ArrayList<>((int) (last - after));
+        for (long next = after + 1; next <= last; next++) {
+            changes.add(buffer[(int) (next % buffer.length)]);
+        }
+        return changes;
+    }
+
+    public synchronized long getLatestSequence() {
+        return sequence;
+    }
+
+    /**
+     * The listener runs on the publishing thread and must only hand off work
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private static Set<ReviewRole> decidedRoles(ApplicationRecord record) {
+        Set<ReviewRole> roles = EnumSet.noneOf(ReviewRole.class);
+        for (ReviewRole role : ReviewRole.values()) {
+            if (record.getDecision(role) != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * One stored change: the application's status and pending roles after and before it
+     */
+    public static final class Change {
+        private final long sequence;
+        private final String applicationId;
+        private final long version;
+        private final ApplicationStatus status;
+        private final ApplicationStatus previousStatus;
+        private final Set<ReviewRole> pendingRoles;
+        private final Set<ReviewRole> previousPendingRoles;
+        private final Set<ReviewRole> decidedRoles;
+        private final long timestamp;
+
+        private Change(long sequence, String applicationId, long version, ApplicationStatus status,
+                       ApplicationStatus previousStatus, Set<ReviewRole> pendingRoles,
+                       Set<ReviewRole> previousPendingRoles, Set<ReviewRole> decidedRoles, long timestamp) {
+            this.sequence = sequence;
+            this.applicationId = applicationId;
+            this.version = version;
+            this.status = status;
+            this.previousStatus = previousStatus;
+            this.pendingRoles = immutableCopy(pendingRoles);
+            this.previousPendingRoles = immutableCopy(previousPendingRoles);
+            this.decidedRoles = immutableCopy(decidedRoles);
+            this.timestamp = timestamp;
+        }
+
+        public long getSequence() { return sequence; }
+        public String getApplicationId() { return applicationId; }
+        public long getVersion() { return version; }
+        public ApplicationStatus getStatus() { return status; }
+        public ApplicationStatus getPreviousStatus() { return previousStatus; }
+        public Set<ReviewRole> getPendingRoles() { return pendingRoles; }
+        public Set<ReviewRole> getPreviousPendingRoles() { return previousPendingRoles; }
+        public long getTimestamp() { return timestamp; }
+
+        public boolean isStatusChange() {
+            return status != previousStatus;
+        }
+
+        /**
+         * Whether a dashboard of the role shows the change: the application is or was
+         * waiting for the role, or the role has already decided on it
+         */
+        public boolean concerns(ReviewRole role) {
+            return role == null || pendingRoles.contains(role) || previousPendingRoles.contains(role) ||
+                   decidedRoles.contains(role);
+        }
+
+        private static Set<ReviewRole> immutableCopy(Set<ReviewRole> roles) {
+            return roles == null || roles.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(roles));
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.ReviewRole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary indexes over the application store: status, pending reviewer role, position,
+ * referral, submission time, last update time and change sequence. JobApplicationService updates them on
+ * every save, so dashboard queries cost O(result) instead of a scan over all applications.
+ */
+public class ApplicationIndex {
+
+    private final Map<String, IndexedKeys> keysById = new ConcurrentHashMap<>();
+    private final Map<ApplicationStatus, Set<String>> idsByStatus = new ConcurrentHashMap<>();
+    private final Map<ReviewRole, Set<String>> idsByPendingRole = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByPosition = new ConcurrentHashMap<>();
+    private final Set<String> idsWithReferral = ConcurrentHashMap.newKeySet();
+    private final ConcurrentSkipListSet<TimeKey> bySubmissionTime = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<TimeKey> byUpdateTime = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<TimeKey> byChangeSequence = new ConcurrentSkipListSet<>();
+
+    /**
+     * Moves the application to the buckets matching its current state. Updates of the
+     * same application are serialized by the compute on keysById.
+     */
+    public void update(ApplicationRecord record) {
+        IndexedKeys next = IndexedKeys.of(record);
+        keysById.compute(record.getApplicationId(), (id, previous) -> {
+            if (next.equals(previous)) {
+                return previous;
+            }
+            if (previous != null) {
+                unlink(id, previous);
+            }
+            link(id, next);
+            return next;
+        });
+    }
+
+    public void remove(String applicationId) {
+        keysById.computeIfPresent(applicationId, (id, previous) -> {
+            unlink(id, previous);
+            return null;
+        });
+    }
+
+    public List<String> findByStatus(ApplicationStatus status) {
+        return inSubmissionOrder(idsByStatus.get(status));
+    }
+
+    public List<String> findPendingFor(ReviewRole role) {
+        return inSubmissionOrder(idsByPendingRole.get(role));
+    }
+
+    public List<String> findByPosition(String position) {
+        String key = positionKey(position);
+        return key != null ? inSubmissionOrder(idsByPosition.get(key)) : Collections.emptyList();
+    }
+
+    /**
+     * Most recently submitted applications first
+     */
+    public List<String> findMostRecent(int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 256));
+        Iterator<TimeKey> iterator = bySubmissionTime.descendingIterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next().applicationId);
+        }
+        return result;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    /**
+     * Applications whose last change has a sequence number above the given one, in
+     * sequence order. Applications stored before sequencing have sequence 0 and are
+     * only returned from 0.
+     *
+     * @param upTo highest sequence to include, later ones may still be followed by a
+     *             lower number that is being saved
+     * @param limit page size; limit + 1 ids are returned when there are more
+     */
+    public List<Match> changedSince(long after, long upTo, int limit) {
+        NavigableSet<TimeKey> changed = after == 0
+            ? byChangeSequence
+            : byChangeSequence.tailSet(TimeKey.highest(after), false);
+        List<Match> result = new ArrayList<>(Math.min(limit + 1, 256));
+        for (TimeKey key : changed) {
+            if (key.time > upTo) {
+                break;
+            }
+            IndexedKeys keys = keysById.get(key.applicationId);
+            // Skip entries an update is moving right now
+            if (keys != null && keys.changeSequence == key.time) {
+                result.add(new Match(key.applicationId, key.time));
+                if (result.size() > limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public long getLatestChangeSequence() {
+        return byChangeSequence.isEmpty() ? 0 : byChangeSequence.last().time;
+    }
+
+    /**
+     * Indexed status of the application, null if it is not indexed
+     */
+    public ApplicationStatus statusOf(String applicationId) {
+        IndexedKeys keys = keysById.get(applicationId);
+        return keys != null ? keys.status : null;
+    }
+
+    /**
+     * Roles the application is indexed as pending for, empty if it is not indexed
+     */
+    public Set<ReviewRole> pendingRolesOf(String applicationId) {
+        IndexedKeys keys = keysById.get(applicationId);
+        return keys != null ? Collections.unmodifiableSet(keys.pendingRoles) : Collections.emptySet();
+    }
+
+    /**
+     * One page of ids in the query's sort order, starting after its cursor. A selective
+     * status, position or referral filter is answered from its bucket, sorted; otherwise
+     * the time index of the sort key is walked from the cursor (narrowed to the
+     * submission range when sorting by submission time) until the page is full.
+     *
+     * @param limit page size; limit + 1 ids are returned when there are more
+     */
+    public List<Match> query(ApplicationQuery query, int limit) {
+        Set<String> candidates = smallestCandidateSet(query);
+        if (candidates != null && candidates.size() * 4L < Math.max(keysById.size(), 1)) {
+            return queryCandidates(query, candidates, limit);
+        }
+
+        boolean bySubmission = query.getSortKey() == ApplicationQuery.SortKey.SUBMITTED_AT;
+        NavigableSet<TimeKey> ordered = bySubmission ? bySubmissionTime : byUpdateTime;
+        if (bySubmission && (query.getSubmittedFrom() != null || query.getSubmittedTo() != null)) {
+            ordered = ordered.subSet(TimeKey.lowest(query.getSubmittedFrom() != null ? query.getSubmittedFrom() : Long.MIN_VALUE), true,
+                                     TimeKey.highest(query.getSubmittedTo() != null ? query.getSubmittedTo() : Long.MAX_VALUE), true);
+        }
+        if (query.isDescending()) {
+            ordered = ordered.descendingSet();
+        }
+        if (query.hasCursor()) {
+            ordered = ordered.tailSet(new TimeKey(query.getAfterTime(), query.getAfterId()), false);
+        }
+
+        List<Match> result = new ArrayList<>(limit + 1);
+        for (TimeKey key : ordered) {
+            IndexedKeys keys = keysById.get(key.applicationId);
+            // Skip entries an update is moving right now
+            if (keys != null && keys.time(query.getSortKey()) == key.time && matches(keys, query)) {
+                result.add(new Match(key.applicationId, key.time));
+                if (result.size() > limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Match> queryCandidates(ApplicationQuery query, Set<String> candidates, int limit) {
+        TimeKey after = query.hasCursor() ? new TimeKey(query.getAfterTime(), query.getAfterId()) : null;
+        List<TimeKey> matching = new ArrayList<>();
+        for (String id : candidates) {
+            IndexedKeys keys = keysById.get(id);
+            if (keys == null || !matches(keys, query)) {
+                continue;
+            }
+            TimeKey key = new TimeKey(keys.time(query.getSortKey()), id);
+            if (after == null || (query.isDescending() ? key.compareTo(after) < 0 : key.compareTo(after) > 0)) {
+                matching.add(key);
+            }
+        }
+        matching.sort(query.isDescending() ? Comparator.reverseOrder() : Comparator.naturalOrder());
+
+        List<Match> result = new ArrayList<>(Math.min(matching.size(), limit + 1));
+        for (TimeKey key : matching) {
+            if (result.size() > limit) {
+                break;
+            }
+            result.add(new Match(key.applicationId, key.time));
+        }
+        return result;
+    }
+
+    /**
+     * The smallest bucket every match must be in, null if no filter has one. Several
+     * statuses are merged only when their buckets together are the smallest.
+     */
+    private Set<String> smallestCandidateSet(ApplicationQuery query) {
+        Set<String> smallest = null;
+        if (query.getPosition() != null) {
+            smallest = idsByPosition.getOrDefault(query.getPosition(), Collections.emptySet());
+        }
+        if (Boolean.TRUE.equals(query.getReferral()) && (smallest == null || idsWithReferral.size() < smallest.size())) {
+            smallest = idsWithReferral;
+        }
+        if (query.hasStatusFilter()) {
+            List<Set<String>> buckets = new ArrayList<>();
+            long size = 0;
+            for (ApplicationStatus status : query.getStatuses()) {
+                Set<String> ids = idsByStatus.getOrDefault(status, Collections.emptySet());
+                buckets.add(ids);
+                size += ids.size();
+            }
+            if (smallest == null || size < smallest.size()) {
+                if (buckets.size() == 1) {
+                    return buckets.get(0);
+                }
+                Set<String> merged = new HashSet<>();
+                buckets.forEach(merged::addAll);
+                return merged;
+            }
+        }
+        return smallest;
+    }
+
+    private static boolean matches(IndexedKeys keys, ApplicationQuery query) {
+        if (query.hasStatusFilter() && !query.getStatuses().contains(keys.status)) {
+            return false;
+        }
+        if (query.getPosition() != null && !query.getPosition().equals(keys.position)) {
+            return false;
+        }
+        if (query.getReferral() != null && query.getReferral() != keys.referral) {
+            return false;
+        }
+        if (query.getSubmittedFrom() != null && keys.submittedAt < query.getSubmittedFrom()) {
+            return false;
+        }
+        return query.getSubmittedTo() == null || keys.submittedAt <= query.getSubmittedTo();
+    }
+
+    /**
+     * Roles whose dashboard should list the application right now
+     */
+    static Set<ReviewRole> pendingRoles(ApplicationRecord record) {
+        Set<ReviewRole> roles = EnumSet.noneOf(ReviewRole.class);
+        if (record.getStatus() == null) {
+            return roles;
+        }
+        switch (record.getStatus()) {
+            case PENDING_HR_REVIEW:
+            case PENDING_HR_HIRING:
+                roles.add(ReviewRole.HR);
+                break;
+            case HR_APPROVED:
+                // Parallel TL/PM review, each stays pending until it has decided
+                if (record.getDecision(ReviewRole.TEAM_LEAD) == null) {
+                    roles.add(ReviewRole.TEAM_LEAD);
+                }
+                if (record.getDecision(ReviewRole.PROJECT_MANAGER) == null) {
+                    roles.add(ReviewRole.PROJECT_MANAGER);
+                }
+                break;
+            case PENDING_TL_REVIEW:
+                roles.add(ReviewRole.TEAM_LEAD);
+                break;
+            case PENDING_PM_REVIEW:
+                roles.add(ReviewRole.PROJECT_MANAGER);
+                break;
+            case PENDING_HEAD_HR_REVIEW:
+                roles.add(ReviewRole.HEAD_HR);
+                break;
+            case PENDING_COMPANY_MANAGER_REVIEW:
+                roles.add(ReviewRole.COMPANY_MANAGER);
+                break;
+            default:
+                break;
+        }
+        return roles;
+    }
+
+    private void link(String id, IndexedKeys keys) {
+        if (keys.status != null) {
+            idsByStatus.computeIfAbsent(keys.status, status -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        for (ReviewRole role : keys.pendingRoles) {
+            idsByPendingRole.computeIfAbsent(role, r -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (keys.position != null) {
+            idsByPosition.computeIfAbsent(keys.position, position -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (keys.referral) {
+            idsWithReferral.add(id);
+        }
+        bySubmissionTime.add(new TimeKey(keys.submittedAt, id));
+        byUpdateTime.add(new TimeKey(keys.updatedAt, id));
+        byChangeSequence.add(new TimeKey(keys.changeSequence, id));
+    }
+
+    private void unlink(String id, IndexedKeys keys) {
+        if (keys.status != null) {
+            removeFrom(idsByStatus.get(keys.status), id);
+        }
+        for (ReviewRole role : keys.pendingRoles) {
+            removeFrom(idsByPendingRole.get(role), id);
+        }
+        if (keys.position != null) {
+            removeFrom(idsByPosition.get(keys.position), id);
+        }
+        if (keys.referral) {
+            idsWithReferral.remove(id);
+        }
+        bySubmissionTime.remove(new TimeKey(keys.submittedAt, id));
+        byUpdateTime.remove(new TimeKey(keys.updatedAt, id));
+        byChangeSequence.remove(new TimeKey(keys.changeSequence, id));
+    }
+
+    private static void removeFrom(Set<String> ids, String id) {
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    private List<String> inSubmissionOrder(Set<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(ids);
+        result.sort(Comparator.comparingLong(id -> {
+            IndexedKeys keys = keysById.get(id);
+            return keys != null ? keys.submittedAt : Long.MAX_VALUE;
+        }));
+        return result;
+    }
+
+    private static String positionKey(Object position) {
+        if (position == null || position.toString().trim().isEmpty()) {
+            return null;
+        }
+        return position.toString().trim().toLowerCase();
+    }
+
+    private static final class IndexedKeys {
+        private final ApplicationStatus status;
+        private final Set<ReviewRole> pendingRoles;
+        private final String position;
+        private final boolean referral;
+        private final long submittedAt;
+        private final long updatedAt;
+        private final long changeSequence;
+
+        private IndexedKeys(ApplicationStatus status, Set<ReviewRole> pendingRoles, String position, boolean referral,
+                            long submittedAt, long updatedAt, long changeSequence) {
+            this.status = status;
+            this.pendingRoles = pendingRoles;
+            this.position = position;
+            this.referral = referral;
+            this.submittedAt = submittedAt;
+            this.updatedAt = updatedAt;
+            this.changeSequence = changeSequence;
+        }
+
+        static IndexedKeys of(ApplicationRecord record) {
+            return new IndexedKeys(record.getStatus(), pendingRoles(record),
+                                   positionKey(record.getFormValue("position")),
+                                   Boolean.TRUE.equals(record.get("hasValidReferral")),
+                                   record.getSubmittedAt(), record.getLastUpdatedAt(), record.getChangeSequence());
+        }
+
+        long time(ApplicationQuery.SortKey sortKey) {
+            return sortKey == ApplicationQuery.SortKey.UPDATED_AT ? updatedAt : submittedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof IndexedKeys)) return false;
+            IndexedKeys other = (IndexedKeys) o;
+            return submittedAt == other.submittedAt && updatedAt == other.updatedAt &&
+                   changeSequence == other.changeSequence && status == other.status &&
+                   referral == other.referral && pendingRoles.equals(other.pendingRoles) &&
+                   Objects.equals(position, other.position);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, pendingRoles, position, referral, submittedAt, updatedAt, changeSequence);
+        }
+    }
+
+    /**
+     * Id of a query match with the sort value its cursor continues from
+     */
+    public static final class Match {
+        private final String applicationId;
+        private final long sortTime;
+
+        Match(String applicationId, long sortTime) {
+            this.applicationId = applicationId;
+            this.sortTime = sortTime;
+        }
+
+        public String getApplicationId() { return applicationId; }
+        public long getSortTime() { return sortTime; }
+    }
+
+    private static final class TimeKey implements Comparable<TimeKey> {
+        private final long time;
+        private final String applicationId;
+
+        TimeKey(long time, String applicationId) {
+            this.time = time;
+            this.applicationId = applicationId;
+        }
+
+        // Bounds sorting before and after every application id of the given time
+        static TimeKey lowest(long time) { return new TimeKey(time, ""); }
+        static TimeKey highest(long time) { return new TimeKey(time, "\uffff"); }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : applicationId.compareTo(other.applicationId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TimeKey && compareTo((TimeKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, applicationId);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dynamicworkflow.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of locks striped by application id. Updates of one application are
+ * serialized while unrelated applications almost never share a stripe.
+ * Locks are reentrant: engine events projected while a decision completes its task
+ * run on the same thread and take the same stripe again.
+ */
+public class ApplicationLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public ApplicationLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(String applicationId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(applicationId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(String applicationId, Runnable action) {
+        withLock(applicationId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private ReentrantLock lockFor(String applicationId) {
+        int hash = applicationId != null ? applicationId.hashCode() : 0;
+        // Spread the high bits, ids share long common prefixes
+        hash ^= (hash >>> 16);
+        return stripes[hash & mask];
+    }
+}
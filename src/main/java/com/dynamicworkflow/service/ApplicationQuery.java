@@ -0,0 +1,200 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Filters, sort order and position of one page of the application listing. The cursor
+ * is the sort value and id of the last application of the previous page, so pages stay
+ * stable while applications are added or change status.
+ */
+public class ApplicationQuery {
+
+    public enum SortKey {
+        SUBMITTED_AT("submittedAt"),
+        UPDATED_AT("updatedAt");
+
+        private final String parameter;
+
+        SortKey(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getParameter() { return parameter; }
+
+        static SortKey fromParameter(String parameter) {
+            for (SortKey key : values()) {
+                if (key.parameter.equalsIgnoreCase(parameter)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Invalid sort key: " + parameter + " (submittedAt or updatedAt)");
+        }
+    }
+
+    private static final String CURSOR_VERSION = "c1";
+
+    private final Set<ApplicationStatus> statuses;
+    private final String position;
+    private final Boolean referral;
+    private final Long submittedFrom;
+    private final Long submittedTo;
+    private final SortKey sortKey;
+    private final boolean descending;
+    private final int limit;
+    private final long afterTime;
+    private final String afterId;
+
+    private ApplicationQuery(Set<ApplicationStatus> statuses, String position, Boolean referral, Long submittedFrom,
+                             Long submittedTo, SortKey sortKey, boolean descending, int limit, long afterTime, String afterId) {
+        this.statuses = statuses;
+        this.position = position;
+        this.referral = referral;
+        this.submittedFrom = submittedFrom;
+        this.submittedTo = submittedTo;
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.limit = limit;
+        this.afterTime = afterTime;
+        this.afterId = afterId;
+    }
+
+    /**
+     * Parses the request parameters; invalid values raise IllegalArgumentException
+     *
+     * @param sort   sort key, prefixed with - for descending order (default -submittedAt)
+     * @param from   epoch millis, ISO date or ISO date-time, inclusive
+     * @param to     epoch millis, ISO date (the whole day) or ISO date-time, inclusive
+     * @param cursor nextCursor of the previous page, null for the first page
+     */
+    public static ApplicationQuery of(Collection<String> statuses, String position, Boolean referral,
+                                      String from, String to, String sort, int limit, String cursor) {
+        Set<ApplicationStatus> statusFilter = null;
+        if (statuses != null && !statuses.isEmpty()) {
+            statusFilter = EnumSet.noneOf(ApplicationStatus.class);
+            for (String value : statuses) {
+                for (String status : value.split(",")) {
+                    if (status.trim().isEmpty()) {
+                        continue;
+                    }
+                    ApplicationStatus applicationStatus = ApplicationStatus.fromValue(status.trim());
+                    if (applicationStatus == null) {
+                        throw new IllegalArgumentException("Invalid status: " + status);
+                    }
+                    statusFilter.add(applicationStatus);
+                }
+            }
+            if (statusFilter.isEmpty()) {
+                statusFilter = null;
+            }
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+
+        String sortParameter = sort == null || sort.trim().isEmpty() ? "-submittedAt" : sort.trim();
+        boolean descending = sortParameter.startsWith("-");
+        SortKey sortKey = SortKey.fromParameter(descending || sortParameter.startsWith("+")
+                                                ? sortParameter.substring(1) : sortParameter);
+
+        long afterTime = 0;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeCursor(cursor);
+            if (!sortKey.name().equals(parts[1]) || descending != "desc".equals(parts[2])) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            try {
+                afterTime = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            afterId = parts[4];
+        }
+
+        String positionFilter = position != null && !position.trim().isEmpty() ? position.trim().toLowerCase() : null;
+        return new ApplicationQuery(statusFilter, positionFilter, referral, parseTime(from, false), parseTime(to, true),
+                                    sortKey, descending, limit, afterTime, afterId);
+    }
+
+    /**
+     * Cursor continuing after the application with the given sort value
+     */
+    public String cursorAfter(long time, String applicationId) {
+        String value = String.join(":", CURSOR_VERSION, sortKey.name(), descending ? "desc" : "asc",
+                                   Long.toString(time), applicationId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Set<ApplicationStatus> getStatuses() { return statuses != null ? statuses : Collections.emptySet(); }
+    public boolean hasStatusFilter() { return statuses != null; }
+    /** Lower-cased, matched like the position index */
+    public String getPosition() { return position; }
+    public Boolean getReferral() { return referral; }
+    public Long getSubmittedFrom() { return submittedFrom; }
+    public Long getSubmittedTo() { return submittedTo; }
+    public SortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+    public int getLimit() { return limit; }
+    public boolean hasCursor() { return afterId != null; }
+    public long getAfterTime() { return afterTime; }
+    public String getAfterId() { return afterId; }
+
+    public String getSortParameter() {
+        return (descending ? "-" : "") + sortKey.getParameter();
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // The application id comes last, so it may itself contain ':'
+        String[] parts = value.split(":", 5);
+        if (parts.length != 5 || !CURSOR_VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    private static Long parseTime(String value, boolean endOfRange) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String text = value.trim();
+        try {
+            if (text.chars().allMatch(Character::isDigit)) {
+                return Long.parseLong(text);
+            }
+            if (text.length() == 10) {
+                LocalDate date = LocalDate.parse(text);
+                return endOfRange
+                    ? date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli() - 1
+                    : date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            if (text.endsWith("Z")) {
+                return Instant.parse(text).toEpochMilli();
+            }
+            if (text.matches(".*[+-]\\d\\d:\\d\\d$")) {
+                return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.dto.ApplicationProjection;
+import com.dynamicworkflow.dto.ApplicationView;
+import com.dynamicworkflow.model.ReviewRole;
+import com.dynamicworkflow.repository.ApplicationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent events for the review dashboards. Every change in the change feed that
+ * concerns a subscriber's role is pushed as an "application" event whose id is the
+ * change's sequence number, so a reconnecting EventSource resumes from Last-Event-ID.
+ * When the changes after that id are no longer buffered the subscriber gets a "reset"
+ * event and reloads its list.
+ *
+ * Subscriptions, replays and fan-out all run on one thread; the feed listener only
+ * schedules a drain, so publishing never waits for a client. Starts after
+ * JobApplicationService has continued the feed from the stored sequence.
+ */
+@Component
+@DependsOn("jobApplicationService")
+public class ApplicationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationStreamService.class);
+
+    private static final int DRAIN_BATCH_SIZE = 1000;
+
+    private final ApplicationChangeFeed changeFeed;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationProjection cardProjection = ApplicationProjection.named("card");
+
+    @Value("${workflow.stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${workflow.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${workflow.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    // Written only on the stream thread
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile long dispatched;
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainListener = this::scheduleDrain;
+    private ScheduledExecutorService streamExecutor;
+
+    public ApplicationStreamService(ApplicationChangeFeed changeFeed, ApplicationRepository applicationRepository) {
+        this.changeFeed = changeFeed;
+        this.applicationRepository = applicationRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Dashboard event stream disabled");
+            return;
+        }
+        streamExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatched = changeFeed.getLatestSequence();
+        changeFeed.addListener(drainListener);
+        streamExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        logger.info("Dashboard event stream enabled (heartbeat {}ms, timeout {}ms)", heartbeatMs, timeoutMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (streamExecutor != null) {
+            changeFeed.removeListener(drainListener);
+            streamExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens a stream of the changes concerning the role, all changes when role is null
+     *
+     * @param lastEventId last sequence number the client has seen, null for a new stream
+     */
+    public SseEmitter subscribe(ReviewRole role, Long lastEventId) {
+        if (!enabled) {
+            throw new IllegalStateException("Dashboard event stream is disabled");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, role);
+        emitter.onCompletion(() -> execute(() -> subscribers.remove(subscriber)));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> execute(() -> subscribers.remove(subscriber)));
+        execute(() -> open(subscriber, lastEventId));
+        return emitter;
+    }
+
+    private void open(Subscriber subscriber, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            subscriber.emitter.completeWithError(new IllegalStateException("Too many stream subscribers"));
+            return;
+        }
+        subscribers.add(subscriber);
+
+        if (lastEventId == null) {
+            subscriber.lastSent = dispatched;
+            send(subscriber, SseEmitter.event().id(Long.toString(dispatched)).name("ready").data(readyData()));
+            return;
+        }
+
+        // Changes up to the dispatched sequence are not going to reach this subscriber through drain()
+        List<ApplicationChangeFeed.Change> missed = changeFeed.since(lastEventId, Integer.MAX_VALUE);
+        if (missed == null) {
+            resetSubscriber(subscriber);
+            return;
+        }
+        subscriber.lastSent = lastEventId;
+        for (ApplicationChangeFeed.Change change : missed) {
+            if (change.getSequence() > dispatched) {
+                break;
+            }
+            if (change.concerns(subscriber.role)) {
+                send(subscriber, applicationEvent(change, cardOf(change)));
+            }
+            subscriber.lastSent = change.getSequence();
+        }
+        subscriber.lastSent = Math.max(subscriber.lastSent, dispatched);
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        while (true) {
+            List<ApplicationChangeFeed.Change> changes = changeFeed.since(dispatched, DRAIN_BATCH_SIZE);
+            if (changes == null) {
+                drainOverrun();
+                return;
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            for (ApplicationChangeFeed.Change change : changes) {
+                ApplicationView card = null;
+                for (Subscriber subscriber : subscribers) {
+                    if (change.getSequence() <= subscriber.lastSent || !change.concerns(subscriber.role)) {
+                        continue;
+                    }
+                    if (card == null) {
+                        card = cardOf(change);
+                    }
+                    send(subscriber, applicationEvent(change, card));
+                    subscriber.lastSent = change.getSequence();
+                }
+                dispatched = change.getSequence();
+            }
+        }
+    }
+
+    /**
+     * The feed overwrote changes before they were dispatched; every subscriber reloads
+     */
+    private void drainOverrun() {
+        logger.warn("Dashboard stream fell behind the change feed, resetting {} subscribers", subscribers.size());
+        dispatched = changeFeed.getLatestSequence();
+        for (Subscriber subscriber : subscribers) {
+            resetSubscriber(subscriber);
+        }
+    }
+
+    private void resetSubscriber(Subscriber subscriber) {
+        subscriber.lastSent = dispatched;
+        send(subscriber, SseEmitter.event().id(Long.toString(dispatched)).name("reset").data(readyData()));
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a broken connection
+            subscribers.remove(subscriber);
+            logger.debug("Dropped stream subscriber: {}", e.getMessage());
+        }
+    }
+
+    private SseEmitter.SseEventBuilder applicationEvent(ApplicationChangeFeed.Change change, ApplicationView card) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("sequence", change.getSequence());
+        data.put("applicationId", change.getApplicationId());
+        data.put("version", change.getVersion());
+        data.put("status", change.getStatus() != null ? change.getStatus().name() : null);
+        data.put("previousStatus", change.getPreviousStatus() != null ? change.getPreviousStatus().name() : null);
+        data.put("pendingRoles", change.getPendingRoles());
+        data.put("timestamp", change.getTimestamp());
+        data.put("application", card);
+        return SseEmitter.event()
+            .id(Long.toString(change.getSequence()))
+            .name("application")
+            .data(data, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Current card of the application; later changes of it follow as their own events
+     */
+    private ApplicationView cardOf(ApplicationChangeFeed.Change change) {
+        return applicationRepository.findById(change.getApplicationId())
+            .map(record -> new ApplicationView(cardProjection, record))
+            .orElse(null);
+    }
+
+    private Map<String, Object> readyData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("sequence", dispatched);
+        return data;
+    }
+
+    private void execute(Runnable task) {
+        try {
+            streamExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Dashboard stream is shutting down: {}", e.getMessage());
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final ReviewRole role;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, ReviewRole role) {
+            this.emitter = emitter;
+            this.role = role;
+        }
+    }
+}
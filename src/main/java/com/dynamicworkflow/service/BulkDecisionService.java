@@ -0,0 +1,179 @@
+package com.dynamicworkflow.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approves and rejects many applications in one call. The review tasks of all items
+ * are loaded with batched queries up front; the decisions are then completed in
+ * chunks, each chunk in one transaction. If a chunk fails it is rolled back and its
+ * items are retried one transaction each, so every item gets its own result.
+ *
+ * The application store, change feed and journal are not transactional, so each
+ * transaction holds back its stores until it commits (JobApplicationService.storeAfterCommit):
+ * a rolled back chunk leaves no trace outside the engine.
+ */
+@Service
+public class BulkDecisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDecisionService.class);
+
+    private final JobApplicationService jobApplicationService;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    @Value("${workflow.bulk.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${workflow.bulk.max-items:1000}")
+    private int maxItems;
+
+    public BulkDecisionService(JobApplicationService jobApplicationService,
+                               PlatformTransactionManager transactionManager,
+                               OptimisticLockRetry optimisticLockRetry) {
+        this.jobApplicationService = jobApplicationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.optimisticLockRetry = optimisticLockRetry;
+    }
+
+    /**
+     * @param items maps with applicationId, role, decision (approve/accept or reject),
+     *              comments and, for Head HR and Company Manager approvals, offerCTC
+     * @return totals and one result per item, in request order
+     */
+    public Map<String, Object> applyDecisions(List<Map<String, Object>> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No decisions given");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " decisions per request, got " + items.size());
+        }
+        long start = System.currentTimeMillis();
+
+        Set<String> applicationIds = new LinkedHashSet<>();
+        for (Map<String, Object> item : items) {
+            Object applicationId = item.get("applicationId");
+            if (applicationId != null) {
+                applicationIds.add(applicationId.toString());
+            }
+        }
+        jobApplicationService.prefetchReviewTasks(applicationIds);
+
+        List<Map<String, Object>> results = new ArrayList<>(items.size());
+        int chunks = 0;
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<Map<String, Object>> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            results.addAll(applyChunk(chunk, from));
+            chunks++;
+        }
+
+        int succeeded = 0;
+        for (Map<String, Object> result : results) {
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                succeeded++;
+            }
+        }
+        logger.info("Bulk decision: {} of {} items succeeded in {} chunks, {}ms", succeeded, items.size(), chunks,
+                   System.currentTimeMillis() - start);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", items.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", items.size() - succeeded);
+        response.put("chunks", chunks);
+        response.put("timestamp", LocalDateTime.now().toString());
+        response.put("results", results);
+        return response;
+    }
+
+    private List<Map<String, Object>> applyChunk(List<Map<String, Object>> chunk, int offset) {
+        try {
+            return transactionTemplate.execute(status -> jobApplicationService.storeAfterCommit(() -> {
+                List<Map<String, Object>> results = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    // Any failure rolls back the whole chunk
+                    results.add(apply(chunk.get(i), offset + i));
+                }
+                return results;
+            }));
+        } catch (Exception e) {
+            logger.warn("Bulk decision chunk at {} rolled back, retrying its {} items one by one: {}",
+                       offset, chunk.size(), e.getMessage());
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Map<String, Object> item = chunk.get(i);
+            int index = offset + i;
+            try {
+                // Conflicts roll back the item's transaction, so the whole transaction is retried
+                results.add(optimisticLockRetry.execute("bulk decision " + index,
+                    () -> transactionTemplate.execute(status ->
+                        jobApplicationService.storeAfterCommit(() -> apply(item, index)))));
+            } catch (Exception e) {
+                results.add(failure(item, index, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Object> apply(Map<String, Object> item, int index) {
+        String applicationId = stringValue(item.get("applicationId"));
+        String role = stringValue(item.get("role"));
+        String decision = stringValue(item.get("decision"));
+        String comments = stringValue(item.get("comments"));
+        if (applicationId == null || role == null || decision == null) {
+            throw new IllegalArgumentException("applicationId, role and decision are required");
+        }
+
+        Map<String, Object> outcome;
+        switch (decision.toLowerCase()) {
+            case "approve":
+            case "accept":
+                outcome = jobApplicationService.approveApplication(applicationId, role, comments,
+                    stringValue(item.get("offerCTC")));
+                break;
+            case "reject":
+                outcome = jobApplicationService.rejectApplication(applicationId, role, comments);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid decision: " + decision);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("applicationId", applicationId);
+        result.put("role", role);
+        result.put("decision", decision);
+        result.put("success", true);
+        result.put("newStatus", outcome.get("newStatus"));
+        return result;
+    }
+
+    private static Map<String, Object> failure(Map<String, Object> item, int index, String error) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("applicationId", item.get("applicationId"));
+        result.put("role", item.get("role"));
+        result.put("decision", item.get("decision"));
+        result.put("success", false);
+        result.put("error", error);
+        return result;
+    }
+
+    private static String stringValue(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dynamicworkflow.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background reconciliation with Camunda. The first run after startup covers every
+ * instance; later runs only look at instances changed since the previous run started,
+ * minus an overlap that absorbs transactions committing after their timestamps.
+ * Applying a state twice is harmless, so the overlap only costs a few re-reads.
+ */
+@Component
+public class CamundaReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CamundaReconciler.class);
+
+    private final JobApplicationService jobApplicationService;
+
+    @Value("${workflow.sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${workflow.sync.interval-ms:30000}")
+    private long intervalMs;
+
+    @Value("${workflow.sync.overlap-ms:60000}")
+    private long overlapMs;
+
+    // Start of the last successful run, null until the first full pass has completed
+    private volatile Date watermark;
+    private ScheduledExecutorService reconcileExecutor;
+
+    public CamundaReconciler(JobApplicationService jobApplicationService) {
+        this.jobApplicationService = jobApplicationService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Background Camunda reconciliation disabled");
+            return;
+        }
+        reconcileExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "camunda-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconcileExecutor.scheduleWithFixedDelay(this::reconcileQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Background Camunda reconciliation every {}ms (overlap {}ms)", intervalMs, overlapMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reconcileExecutor != null) {
+            reconcileExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reconciles the instances changed since the last run and advances the watermark
+     *
+     * @return number of process instances reconciled
+     */
+    public int reconcile() {
+        Date runStart = new Date();
+        Date current = watermark;
+        Date since = current != null ? new Date(current.getTime() - overlapMs) : null;
+        int reconciled = jobApplicationService.reconcileChangedSince(since);
+        watermark = runStart;
+        return reconciled;
+    }
+
+    public Date getWatermark() {
+        return watermark;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // Watermark stays put, the next run covers this window again
+            logger.warn("Camunda reconciliation failed, will retry: {}", e.getMessage());
+        }
+    }
+}
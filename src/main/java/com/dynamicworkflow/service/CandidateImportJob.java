@@ -0,0 +1,109 @@
+package com.dynamicworkflow.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and rejected rows of one candidate import. Counters are updated by the
+ * import thread and read by progress requests.
+ */
+public class CandidateImportJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String importId;
+    private final String format;
+    private final int maxRejectedReported;
+    private final long createdAt = System.currentTimeMillis();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsValid = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong applicationsStarted = new AtomicLong();
+    private final AtomicLong batchesCommitted = new AtomicLong();
+    private final List<Map<String, Object>> rejectedRows = new ArrayList<>();
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+
+    public CandidateImportJob(String importId, String format, int maxRejectedReported) {
+        this.importId = importId;
+        this.format = format;
+        this.maxRejectedReported = maxRejectedReported;
+    }
+
+    void started() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+    }
+
+    void finished() {
+        finishedAt = System.currentTimeMillis();
+        state = State.COMPLETED;
+    }
+
+    void failed(String message) {
+        error = message;
+        finishedAt = System.currentTimeMillis();
+        state = State.FAILED;
+    }
+
+    void rowRead() { rowsRead.incrementAndGet(); }
+    void rowValid() { rowsValid.incrementAndGet(); }
+    void batchCommitted(int applications) {
+        applicationsStarted.addAndGet(applications);
+        batchesCommitted.incrementAndGet();
+    }
+
+    /**
+     * Adds a row to the rejected-rows report; rows past the report limit are only counted
+     */
+    void reject(long rowNumber, Map<String, Object> row, String reason) {
+        rowsRejected.incrementAndGet();
+        synchronized (rejectedRows) {
+            if (rejectedRows.size() < maxRejectedReported) {
+                Map<String, Object> rejected = new LinkedHashMap<>();
+                rejected.put("row", rowNumber);
+                rejected.put("reason", reason);
+                rejected.put("data", row);
+                rejectedRows.add(rejected);
+            }
+        }
+    }
+
+    public String getImportId() { return importId; }
+    public String getFormat() { return format; }
+    public State getState() { return state; }
+    public boolean isDone() { return state == State.COMPLETED || state == State.FAILED; }
+
+    public List<Map<String, Object>> getRejectedRows() {
+        synchronized (rejectedRows) {
+            return Collections.unmodifiableList(new ArrayList<>(rejectedRows));
+        }
+    }
+
+    public Map<String, Object> toProgress() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = startedAt > 0 ? end - startedAt : 0;
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("importId", importId);
+        progress.put("format", format);
+        progress.put("state", state.name());
+        progress.put("rowsRead", rowsRead.get());
+        progress.put("rowsValid", rowsValid.get());
+        progress.put("rowsRejected", rowsRejected.get());
+        progress.put("applicationsStarted", applicationsStarted.get());
+        progress.put("batchesCommitted", batchesCommitted.get());
+        progress.put("rowsPerSecond", elapsed > 0 ? rowsRead.get() * 1000 / elapsed : 0);
+        progress.put("createdAt", createdAt);
+        progress.put("elapsedMs", elapsed);
+        if (error != null) {
+            progress.put("error", error);
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,268 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.WorkflowStep;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports candidate lists (CSV or JSON) from job fairs. The upload is spooled to disk
+ * and processed on a background thread: rows are read one at a time, validated in
+ * batches on a thread pool against every step of the workflow definition, and the
+ * valid rows of each batch become applications whose process instances are started
+ * in one transaction. At most max-pending-batches batches are in flight, so reading
+ * stops while validation or the database is behind.
+ */
+@Service
+public class CandidateImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidateImportService.class);
+
+    private final JobApplicationService jobApplicationService;
+    private final WorkflowDefinitionService workflowDefinitionService;
+    private final ValidationService validationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CandidateImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    @Value("${workflow.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${workflow.import.validation-threads:4}")
+    private int validationThreads;
+
+    @Value("${workflow.import.max-pending-batches:8}")
+    private int maxPendingBatches;
+
+    @Value("${workflow.import.max-rejected-report:10000}")
+    private int maxRejectedReport;
+
+    @Value("${workflow.import.retained-jobs:50}")
+    private int retainedJobs;
+
+    @Value("${workflow.import.spool-dir:./data/imports}")
+    private String spoolDir;
+
+    private ExecutorService importExecutor;
+    private ExecutorService validationExecutor;
+
+    public CandidateImportService(JobApplicationService jobApplicationService,
+                                  WorkflowDefinitionService workflowDefinitionService,
+                                  ValidationService validationService,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.jobApplicationService = jobApplicationService;
+        this.workflowDefinitionService = workflowDefinitionService;
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        importExecutor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "candidate-import"));
+        AtomicInteger threadNumber = new AtomicInteger();
+        validationExecutor = Executors.newFixedThreadPool(validationThreads,
+            runnable -> daemon(runnable, "candidate-import-validation-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        importExecutor.shutdownNow();
+        validationExecutor.shutdownNow();
+    }
+
+    /**
+     * Spools the upload and queues the import; imports run one at a time
+     *
+     * @param format csv or json
+     */
+    public CandidateImportJob submit(InputStream input, String format) throws IOException {
+        if (!"csv".equalsIgnoreCase(format) && !"json".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        String importId = "IMP-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        Path directory = Paths.get(spoolDir);
+        Files.createDirectories(directory);
+        Path spool = directory.resolve(importId + "." + format.toLowerCase());
+        long bytes = Files.copy(input, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        CandidateImportJob job = new CandidateImportJob(importId, format.toLowerCase(), maxRejectedReport);
+        register(job);
+        importExecutor.execute(() -> run(job, spool));
+        logger.info("Queued candidate import {} ({} bytes)", importId, bytes);
+        return job;
+    }
+
+    public Optional<CandidateImportJob> getJob(String importId) {
+        return Optional.ofNullable(jobs.get(importId));
+    }
+
+    private void run(CandidateImportJob job, Path spool) {
+        job.started();
+        List<WorkflowStep> steps = workflowDefinitionService.getWorkflowDefinition().getSteps();
+        try (InputStream input = Files.newInputStream(spool);
+             CandidateRowReader reader = CandidateRowReader.open(input, job.getFormat(), objectMapper)) {
+            Deque<Future<ValidatedBatch>> pending = new ArrayDeque<>();
+            List<NumberedRow> batch = new ArrayList<>(batchSize);
+            long rowNumber = 0;
+            Map<String, Object> row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                batch.add(new NumberedRow(++rowNumber, row));
+                if (batch.size() == batchSize) {
+                    pending.add(validate(batch, steps, job));
+                    batch = new ArrayList<>(batchSize);
+                    if (pending.size() >= maxPendingBatches) {
+                        startApplications(job, await(pending.poll()));
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pending.add(validate(batch, steps, job));
+            }
+            while (!pending.isEmpty()) {
+                startApplications(job, await(pending.poll()));
+            }
+            job.finished();
+            logger.info("Candidate import {} finished: {}", job.getImportId(), job.toProgress());
+
+        } catch (Exception e) {
+            logger.error("Candidate import {} failed: {}", job.getImportId(), e.getMessage());
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                logger.warn("Failed to delete import spool file {}: {}", spool, e.getMessage());
+            }
+        }
+    }
+
+    private Future<ValidatedBatch> validate(List<NumberedRow> rows, List<WorkflowStep> steps, CandidateImportJob job) {
+        return validationExecutor.submit(() -> {
+            ValidatedBatch validated = new ValidatedBatch();
+            for (NumberedRow row : rows) {
+                List<String> errors = new ArrayList<>();
+                for (WorkflowStep step : steps) {
+                    try {
+                        validationService.validateStepData(step, row.data);
+                    } catch (ValidationService.ValidationException e) {
+                        errors.add(step.getStepName() + ": " + e.getMessage());
+                    }
+                }
+                if (errors.isEmpty()) {
+                    job.rowValid();
+                    validated.valid.add(row);
+                } else {
+                    validated.rejected.put(row, String.join("; ", errors));
+                }
+            }
+            return validated;
+        });
+    }
+
+    /**
+     * Starts the valid rows of a batch in one transaction; if it rolls back, each row is
+     * retried on its own so only the rows that really fail end up in the report
+     */
+    private void startApplications(CandidateImportJob job, ValidatedBatch batch) {
+        batch.rejected.forEach((row, reason) -> job.reject(row.number, row.data, reason));
+        if (batch.valid.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(batch.valid.size());
+        for (NumberedRow row : batch.valid) {
+            rows.add(row.data);
+        }
+        try {
+            List<String> applicationIds = transactionTemplate.execute(status ->
+                jobApplicationService.startImportedApplications(rows, job.getImportId()));
+            job.batchCommitted(applicationIds.size());
+            return;
+        } catch (Exception e) {
+            logger.warn("Import batch of {} rows rolled back, retrying one by one: {}", rows.size(), e.getMessage());
+        }
+
+        for (NumberedRow row : batch.valid) {
+            try {
+                transactionTemplate.execute(status ->
+                    jobApplicationService.startImportedApplications(Collections.singletonList(row.data), job.getImportId()));
+                job.batchCommitted(1);
+            } catch (Exception e) {
+                job.reject(row.number, row.data, "Failed to start application: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ValidatedBatch await(Future<ValidatedBatch> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to validate import batch: " + e.getCause().getMessage());
+        }
+    }
+
+    private void register(CandidateImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getImportId(), job);
+            // Forget the oldest finished imports beyond the retention limit
+            Iterator<CandidateImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isDone()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class NumberedRow {
+        private final long number;
+        private final Map<String, Object> data;
+
+        NumberedRow(long number, Map<String, Object> data) {
+            this.number = number;
+            this.data = data;
+        }
+    }
+
+    private static class ValidatedBatch {
+        private final List<NumberedRow> valid = new ArrayList<>();
+        private final Map<NumberedRow, String> rejected = new LinkedHashMap<>();
+    }
+}
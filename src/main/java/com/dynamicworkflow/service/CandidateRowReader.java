@@ -0,0 +1,151 @@
+package com.dynamicworkflow.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads candidate rows one at a time from an import file, so memory use does not grow
+ * with the file. CSV files need a header row naming the form fields; JSON files are
+ * either one array of objects or a sequence of objects (one per line).
+ */
+public abstract class CandidateRowReader implements Closeable {
+
+    /**
+     * @return the next row, or null at the end of the input
+     */
+    public abstract Map<String, Object> next() throws IOException;
+
+    public static CandidateRowReader open(InputStream input, String format, ObjectMapper objectMapper) throws IOException {
+        if ("csv".equalsIgnoreCase(format)) {
+            return new Csv(input);
+        } else if ("json".equalsIgnoreCase(format)) {
+            return new Json(input, objectMapper);
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + format);
+    }
+
+    private static class Csv extends CandidateRowReader {
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        Csv(InputStream input) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            this.header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import has no header row");
+            }
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+        }
+
+        @Override
+        public Map<String, Object> next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+            } while (values != null && values.size() == 1 && values.get(0).isEmpty());
+            if (values == null) {
+                return null;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    row.put(header.get(i).trim(), values.get(i));
+                }
+            }
+            return row;
+        }
+
+        // RFC 4180: quoted values may contain separators, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            value.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+            values.add(value.toString());
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class Json extends CandidateRowReader {
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private final boolean array;
+
+        Json(InputStream input, ObjectMapper objectMapper) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(input);
+            this.objectMapper = objectMapper;
+            JsonToken first = parser.nextToken();
+            this.array = first == JsonToken.START_ARRAY;
+            if (array) {
+                parser.nextToken();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> next() throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object at " + parser.getCurrentLocation());
+            }
+            Map<String, Object> row = objectMapper.readValue(parser, LinkedHashMap.class);
+            parser.nextToken();
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -1,56 +1,148 @@
 package com.dynamicworkflow.service;
 
 import com.dynamicworkflow.dto.ApplicationResponse;
+import com.dynamicworkflow.journal.ApplicationJournal;
+import com.dynamicworkflow.journal.JournalEventType;
+import com.dynamicworkflow.listener.ReviewTaskCatalog;
+import com.dynamicworkflow.listener.WorkflowProjectionParseListener;
+import com.dynamicworkflow.listener.WorkflowStateEvent;
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.Decision;
+import com.dynamicworkflow.model.ReviewRole;
 import com.dynamicworkflow.model.WorkflowStep;
+import com.dynamicworkflow.repository.ApplicationRepository;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.TaskService;
 import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.task.Task;
 import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Service
+@DependsOn("journalRecovery")
 public class JobApplicationService {
     
     private static final Logger logger = LoggerFactory.getLogger(JobApplicationService.class);
     
+    private static final int LOCK_STRIPES = 256;
+    private static final int SYNC_BATCH_SIZE = 500;
+    
     private final RuntimeService runtimeService;
     private final TaskService taskService;
     private final HistoryService historyService;
+    private final RepositoryService repositoryService;
     private final WorkflowDefinitionService workflowDefinitionService;
     private final ValidationService validationService;
     private final ReferralService referralService;
     private final EmailService emailService;
     
-    // In-memory storage for application data
-    private final Map<String, Map<String, Object>> applicationDataStore = new ConcurrentHashMap<>();
-    private final Map<String, String> applicationStatusStore = new ConcurrentHashMap<>();
+    // Application data and status storage (JPA with write-behind, or in-memory)
+    private final ApplicationRepository applicationRepository;
+    
+    // Append-only record of every mutation, replayed on startup
+    private final ApplicationJournal applicationJournal;
+    
+    // Serializes updates per application; unrelated applications use different stripes
+    private final ApplicationLocks applicationLocks = new ApplicationLocks(LOCK_STRIPES);
+    
+    // Secondary indexes for dashboard queries, updated on every store()
+    private final ApplicationIndex applicationIndex = new ApplicationIndex();
+    
+    // Batched variable and task reads for the Camunda reconciliation
+    private final ProcessStateReader processStateReader;
+    
+    // Open user tasks per application, maintained from engine events
+    private final ActiveTaskIndex activeTaskIndex = new ActiveTaskIndex();
+    
+    // Task key -> reviewer role, built when the process definition is parsed
+    private final ReviewTaskCatalog reviewTaskCatalog;
+    
+    private final OptimisticLockRetry optimisticLockRetry;
+    
+    // Sequenced changes for the dashboard stream
+    private final ApplicationChangeFeed changeFeed;
+    
+    // Only the variables gateways and delegates read go to the engine; form data stays in the store
+    @Value("${workflow.variables.slim:false}")
+    private boolean slimVariables;
+    
+    @Value("${workflow.listing.max-page-size:200}")
+    private int maxPageSize;
     
     public JobApplicationService(ProcessEngine processEngine, 
                                WorkflowDefinitionService workflowDefinitionService,
                                ValidationService validationService,
                                ReferralService referralService,
-                               EmailService emailService) {
+                               EmailService emailService,
+                               ApplicationRepository applicationRepository,
+                               ApplicationJournal applicationJournal,
+                               ReviewTaskCatalog reviewTaskCatalog,
+                               OptimisticLockRetry optimisticLockRetry,
+                               ApplicationChangeFeed changeFeed) {
         this.runtimeService = processEngine.getRuntimeService();
         this.taskService = processEngine.getTaskService();
         this.historyService = processEngine.getHistoryService();
+        this.repositoryService = processEngine.getRepositoryService();
+        this.processStateReader = new ProcessStateReader(processEngine, SYNC_BATCH_SIZE);
         this.workflowDefinitionService = workflowDefinitionService;
         this.validationService = validationService;
         this.referralService = referralService;
         this.emailService = emailService;
+        this.applicationRepository = applicationRepository;
+        this.applicationJournal = applicationJournal;
+        this.reviewTaskCatalog = reviewTaskCatalog;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.changeFeed = changeFeed;
+    }
+    
+    @PostConstruct
+    public void buildIndexes() {
+        long start = System.currentTimeMillis();
+        applicationRepository.findAll().values().forEach(applicationIndex::update);
+        logger.info("Indexed {} applications in {}ms", applicationIndex.size(), System.currentTimeMillis() - start);
+        changeFeed.advanceTo(applicationIndex.getLatestChangeSequence());
+        
+        // The engine parses definitions lazily; loading them now fills the review task catalog
+        for (ProcessDefinition definition : repositoryService.createProcessDefinitionQuery()
+                .processDefinitionKey(WorkflowProjectionParseListener.PROCESS_DEFINITION_KEY)
+                .list()) {
+            repositoryService.getProcessDefinition(definition.getId());
+        }
+        logger.info("Review task catalog holds {} task definitions", reviewTaskCatalog.size());
     }
     
     public ApplicationResponse startApplication() {
@@ -65,18 +157,17 @@ public class JobApplicationService {
             }
             
             // Initialize application data storage
-            Map<String, Object> applicationData = new HashMap<>();
-            applicationData.put("applicationId", applicationId);
-            applicationData.put("applicationStatus", "STARTED");
-            applicationData.put("submissionTimestamp", LocalDateTime.now().toString());
-            applicationData.put("currentStep", firstStep.get().getStepId());
-            applicationData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
+            ApplicationRecord applicationData = newRecord(applicationId);
+            applicationData.setStatus(ApplicationStatus.STARTED);
+            applicationData.setSubmittedAt(System.currentTimeMillis());
+            applicationData.setCurrentStep(firstStep.get().getStepId());
+            applicationData.touch();
             
             // Store in memory
-            applicationDataStore.put(applicationId, applicationData);
-            applicationStatusStore.put(applicationId, "STARTED");
+            store(applicationData);
             
             // Start BPMN Process Instance
+            String processInstanceId = null;
             try {
                 Map<String, Object> processVariables = new HashMap<>();
                 processVariables.put("applicationId", applicationId);
@@ -91,19 +182,27 @@ public class JobApplicationService {
                 
                 logger.info("Started BPMN process instance: {} for application: {}", 
                            processInstance.getId(), applicationId);
-                
-                // Store process instance ID
-                applicationData.put("processInstanceId", processInstance.getId());
-                applicationDataStore.put(applicationId, applicationData);
+                processInstanceId = processInstance.getId();
                 
             } catch (Exception e) {
                 logger.warn("Failed to start BPMN process for application {}: {}", applicationId, e.getMessage());
                 // Continue without BPMN process - the application will still work
             }
             
+            // Store process instance ID on the record as projected while the instance started
+            String startedInstanceId = processInstanceId;
+            applicationLocks.withLock(applicationId, () -> {
+                ApplicationRecord current = reloadAfterEngineCall(applicationId);
+                if (startedInstanceId != null) {
+                    current.setProcessInstanceId(startedInstanceId);
+                    store(current);
+                }
+                journal(JournalEventType.APPLICATION_STARTED, current);
+            });
+            
             ApplicationResponse response = new ApplicationResponse();
             response.setApplicationId(applicationId);
-            response.setProcessInstanceId("process-" + System.currentTimeMillis());
+            response.setProcessInstanceId(processInstanceId);
             response.setCurrentStep(firstStep.get().getStepId());
             response.setStatus("STARTED");
             response.setMessage("Application started successfully");
@@ -118,7 +217,84 @@ public class JobApplicationService {
         }
     }
     
+    /**
+     * Creates applications for validated import rows and starts their process instances
+     * before CollectApplicantDataTask, as if the applicant had submitted every form step.
+     * Must run inside a transaction: the records are stored once it commits, ahead of the
+     * projection events of the new instances, so a rolled back batch leaves nothing behind.
+     *
+     * @return the new application ids, in row order
+     */
+    public List<String> startImportedApplications(List<Map<String, Object>> rows, String importId) {
+        List<ApplicationRecord> records = new ArrayList<>(rows.size());
+        // Registered before the engine publishes anything, so it runs first after commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (ApplicationRecord record : records) {
+                    applicationLocks.withLock(record.getApplicationId(), () -> {
+                        store(record);
+                        journal(JournalEventType.APPLICATION_IMPORTED, record);
+                    });
+                }
+            }
+        });
+        
+        List<WorkflowStep> steps = workflowDefinitionService.getWorkflowDefinition().getSteps();
+        String lastStepId = steps.isEmpty() ? null : steps.get(steps.size() - 1).getStepId();
+        List<String> applicationIds = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            String applicationId = generateApplicationId();
+            ApplicationRecord applicationData = newRecord(applicationId);
+            row.forEach(applicationData::put);
+            
+            Object referral = row.get("referralId");
+            String referralId = referral != null ? referral.toString().trim() : "";
+            boolean hasValidReferral = !referralId.isEmpty() && referralService.isValidReferralId(referralId);
+            applicationData.put("hasValidReferral", hasValidReferral);
+            applicationData.put("bypassedApprovals", hasValidReferral);
+            if (!referralId.isEmpty()) {
+                applicationData.put("referralId", referralId.toUpperCase());
+                if (!hasValidReferral) {
+                    applicationData.put("invalidReferralId", true);
+                }
+            }
+            applicationData.put("lastCompletedStep", lastStepId);
+            applicationData.put("importId", importId);
+            applicationData.setStatus(hasValidReferral ? ApplicationStatus.PENDING_COMPANY_MANAGER_REVIEW
+                                                       : ApplicationStatus.PENDING_HR_REVIEW);
+            applicationData.setSubmittedAt(System.currentTimeMillis());
+            applicationData.touch();
+            
+            Map<String, Object> processVariables = slimVariables ? new HashMap<>() : new HashMap<>(row);
+            if (slimVariables && applicationData.get("referralId") != null) {
+                processVariables.put("referralId", applicationData.get("referralId"));
+            }
+            processVariables.put("applicationId", applicationId);
+            processVariables.put("applicationStatus", applicationData.getStatus().name());
+            processVariables.put("validationResult", true);
+            processVariables.put("hasValidReferral", hasValidReferral);
+            processVariables.put("bypassedApprovals", hasValidReferral);
+            
+            ProcessInstance processInstance = runtimeService
+                .createProcessInstanceByKey(WorkflowProjectionParseListener.PROCESS_DEFINITION_KEY)
+                .businessKey(applicationId)
+                .setVariables(processVariables)
+                .startBeforeActivity("CollectApplicantDataTask")
+                .execute();
+            applicationData.setProcessInstanceId(processInstance.getId());
+            
+            records.add(applicationData);
+            applicationIds.add(applicationId);
+        }
+        return applicationIds;
+    }
+    
     public ApplicationResponse submitStep(String applicationId, Map<String, Object> stepData) {
+        return applicationLocks.withLock(applicationId, () -> doSubmitStep(applicationId, stepData));
+    }
+    
+    private ApplicationResponse doSubmitStep(String applicationId, Map<String, Object> stepData) {
         try {
             String currentStepId = (String) stepData.get("currentStep");
             logger.info("Submitting step {} for application {}", currentStepId, applicationId);
@@ -134,7 +310,9 @@ public class JobApplicationService {
             validationService.validateStepData(currentStep.get(), stepData);
             
             // Get existing application data
-            Map<String, Object> applicationData = applicationDataStore.getOrDefault(applicationId, new HashMap<>());
+            ApplicationRecord applicationData = applicationRepository.findById(applicationId)
+                .map(ApplicationRecord::mutableCopy)
+                .orElseGet(() -> newRecord(applicationId));
             logger.info("Existing application data: {}", applicationData);
             
             // Merge step data into application data (excluding control fields)
@@ -143,12 +321,12 @@ public class JobApplicationService {
                 .forEach(entry -> applicationData.put(entry.getKey(), entry.getValue()));
             
             // Update metadata
-            applicationData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
+            applicationData.touch();
             applicationData.put("lastCompletedStep", currentStepId);
             
             // Determine next step and check for referral bypass
             String nextStepId = null;
-            String status = "IN_PROGRESS";
+            ApplicationStatus status = ApplicationStatus.IN_PROGRESS;
             
             if (workflowDefinitionService.isLastStep(currentStepId)) {
                 // Check if referral ID is provided and valid
@@ -157,14 +335,14 @@ public class JobApplicationService {
                                          referralService.isValidReferralId(referralId);
                 
                 if (hasValidReferral) {
-                    status = "PENDING_COMPANY_MANAGER_REVIEW";
+                    status = ApplicationStatus.PENDING_COMPANY_MANAGER_REVIEW;
                     applicationData.put("referralId", referralId.trim().toUpperCase());
                     applicationData.put("hasValidReferral", true);
                     applicationData.put("bypassedApprovals", true);
                     logger.info("Application {} has valid referral ID: {} - bypassing normal approval process", 
                                applicationId, referralId);
                 } else {
-                    status = "PENDING_HR_REVIEW";
+                    status = ApplicationStatus.PENDING_HR_REVIEW;
                     applicationData.put("hasValidReferral", false);
                     applicationData.put("bypassedApprovals", false);
                     if (referralId != null && !referralId.trim().isEmpty()) {
@@ -175,22 +353,22 @@ public class JobApplicationService {
                 }
                 
                 nextStepId = null;
-                applicationData.put("submissionTimestamp", LocalDateTime.now().toString());
-                applicationData.put("applicationStatus", status);
-                applicationStatusStore.put(applicationId, status);
+                applicationData.setSubmittedAt(System.currentTimeMillis());
+                applicationData.setStatus(status);
                 logger.info("Application {} submitted for review with status: {}", applicationId, status);
             } else {
                 Optional<WorkflowStep> nextStep = workflowDefinitionService.getNextStep(currentStepId);
                 if (nextStep.isPresent()) {
                     nextStepId = nextStep.get().getStepId();
                 }
-                applicationData.put("currentStep", nextStepId);
-                applicationStatusStore.put(applicationId, "IN_PROGRESS");
+                applicationData.setCurrentStep(nextStepId);
+                applicationData.setStatus(ApplicationStatus.IN_PROGRESS);
                 logger.info("Application {} moving to next step: {}", applicationId, nextStepId);
             }
             
             // Store updated data
-            applicationDataStore.put(applicationId, applicationData);
+            store(applicationData);
+            journal(JournalEventType.STEP_SUBMITTED, applicationData);
             logger.info("Updated application data: {}", applicationData);
             
             // Handle BPMN workflow
@@ -215,7 +393,7 @@ public class JobApplicationService {
             ApplicationResponse response = new ApplicationResponse();
             response.setApplicationId(applicationId);
             response.setCurrentStep(nextStepId);
-            response.setStatus(status);
+            response.setStatus(status.name());
             response.setMessage("Step submitted successfully");
             response.setTimestamp(LocalDateTime.now());
             
@@ -234,10 +412,10 @@ public class JobApplicationService {
         }
     }
     
-    private void updateBPMNProcess(String applicationId, Map<String, Object> applicationData, 
+    private void updateBPMNProcess(String applicationId, ApplicationRecord applicationData, 
                                   Map<String, Object> stepData, String currentStepId) {
         try {
-            String processInstanceId = (String) applicationData.get("processInstanceId");
+            String processInstanceId = applicationData.getProcessInstanceId();
             if (processInstanceId != null) {
                 // Find and complete current user task
                 Task currentTask = taskService.createTaskQuery()
@@ -247,7 +425,7 @@ public class JobApplicationService {
                 
                 if (currentTask != null) {
                     // Set task variables and complete
-                    Map<String, Object> taskVariables = new HashMap<>(stepData);
+                    Map<String, Object> taskVariables = slimVariables ? engineVariables(stepData) : new HashMap<>(stepData);
                     taskVariables.put("stepCompleted", currentStepId);
                     taskVariables.put("validationResult", true);
                     
@@ -283,21 +461,33 @@ public class JobApplicationService {
         }
     }
     
+    /**
+     * The step fields the process itself reads; the rest is loaded from the store by
+     * the delegates that need it
+     */
+    private static Map<String, Object> engineVariables(Map<String, Object> stepData) {
+        Map<String, Object> variables = new HashMap<>();
+        if (stepData.get("referralId") != null) {
+            variables.put("referralId", stepData.get("referralId"));
+        }
+        return variables;
+    }
+    
     public ApplicationResponse getApplication(String applicationId) {
         try {
             // Get stored application data
-            Map<String, Object> applicationData = applicationDataStore.get(applicationId);
+            ApplicationRecord applicationData = applicationRepository.findById(applicationId).orElse(null);
             
             if (applicationData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
-            String status = applicationStatusStore.getOrDefault(applicationId, "UNKNOWN");
+            ApplicationStatus status = applicationData.getStatus() != null ? applicationData.getStatus() : ApplicationStatus.UNKNOWN;
             
             ApplicationResponse response = new ApplicationResponse();
             response.setApplicationId(applicationId);
-            response.setStatus(status);
-            response.setCurrentStep((String) applicationData.get("currentStep"));
+            response.setStatus(status.name());
+            response.setCurrentStep(applicationData.getCurrentStep());
             response.setMessage("Application retrieved successfully");
             response.setTimestamp(LocalDateTime.now());
             
@@ -317,110 +507,408 @@ public class JobApplicationService {
     
     // Add method to get all applications for debugging
     public Map<String, Object> getAllApplications() {
-        // Sync with Camunda process instances to get latest status
-        syncApplicationStatusWithCamunda();
+        // Status is kept current by onWorkflowStateEvent, no Camunda round trip needed here
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalApplications", applicationRepository.count());
+        result.put("applications", applicationRepository.findAll());
+        result.put("statuses", applicationRepository.findAllStatuses());
+        return result;
+    }
+    
+    /**
+     * Applications waiting for a decision by the given role, oldest submission first
+     */
+    public Map<String, Object> getInbox(String role) {
+        ReviewRole reviewRole = ReviewRole.fromRequestRole(role);
+        if (reviewRole == null) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        Map<String, Object> result = loadIndexed(applicationIndex.findPendingFor(reviewRole));
+        result.put("role", role);
+        return result;
+    }
+    
+    public Map<String, Object> getApplicationsByStatus(String status) {
+        ApplicationStatus applicationStatus = ApplicationStatus.fromValue(status);
+        if (applicationStatus == null) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        Map<String, Object> result = loadIndexed(applicationIndex.findByStatus(applicationStatus));
+        result.put("status", applicationStatus.name());
+        return result;
+    }
+    
+    public Map<String, Object> getApplicationsByPosition(String position) {
+        Map<String, Object> result = loadIndexed(applicationIndex.findByPosition(position));
+        result.put("position", position);
+        return result;
+    }
+    
+    /**
+     * Most recently submitted applications first
+     */
+    public Map<String, Object> getRecentApplications(int limit) {
+        return loadIndexed(applicationIndex.findMostRecent(Math.max(0, limit)));
+    }
+    
+    /**
+     * One page of the filtered, sorted application listing, served from the indexes.
+     * The page size is capped at workflow.listing.max-page-size.
+     */
+    public Map<String, Object> listApplications(ApplicationQuery query) {
+        int limit = Math.min(query.getLimit(), maxPageSize);
+        List<ApplicationIndex.Match> matches = applicationIndex.query(query, limit);
+        boolean hasMore = matches.size() > limit;
+        
+        List<ApplicationRecord> applications = new ArrayList<>(Math.min(matches.size(), limit));
+        ApplicationIndex.Match last = null;
+        for (ApplicationIndex.Match match : matches.subList(0, Math.min(matches.size(), limit))) {
+            Optional<ApplicationRecord> record = applicationRepository.findById(match.getApplicationId());
+            if (record.isPresent()) {
+                applications.add(record.get());
+            }
+            last = match;
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", applications.size());
+        result.put("limit", limit);
+        result.put("sort", query.getSortParameter());
+        result.put("nextCursor", hasMore && last != null ? query.cursorAfter(last.getSortTime(), last.getApplicationId()) : null);
+        result.put("applications", applications);
+        return result;
+    }
+    
+    /**
+     * Applications changed after the given change sequence, in change order, for clients
+     * that sync by polling: they pass nextSince back as since. Served from the change
+     * feed's buffer while it still holds every change after since, otherwise from the
+     * change sequence index over the store, where each application carries the sequence
+     * of its last change. Ids that no longer resolve to an application are listed as
+     * deleted. The page size is capped at workflow.listing.max-page-size.
+     */
+    public Map<String, Object> getChangesSince(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        int pageSize = Math.min(limit, maxPageSize);
+        long latestSequence = changeFeed.getLatestSequence();
+        if (since > latestSequence) {
+            throw new IllegalArgumentException("since " + since + " is ahead of the latest change sequence " + latestSequence);
+        }
+        
+        // Latest change per application within the page, in change order
+        Map<String, Long> changed = new LinkedHashMap<>();
+        long nextSince = since;
+        boolean hasMore;
+        String source;
+        List<ApplicationChangeFeed.Change> buffered = changeFeed.since(since, pageSize);
+        if (buffered != null) {
+            for (ApplicationChangeFeed.Change change : buffered) {
+                changed.remove(change.getApplicationId());
+                changed.put(change.getApplicationId(), change.getSequence());
+                nextSince = change.getSequence();
+            }
+            hasMore = nextSince < latestSequence;
+            source = "buffer";
+        } else {
+            List<ApplicationIndex.Match> matches = applicationIndex.changedSince(since, latestSequence, pageSize);
+            hasMore = matches.size() > pageSize;
+            for (ApplicationIndex.Match match : matches.subList(0, Math.min(matches.size(), pageSize))) {
+                changed.put(match.getApplicationId(), match.getSortTime());
+                nextSince = Math.max(nextSince, match.getSortTime());
+            }
+            if (!hasMore) {
+                nextSince = Math.max(nextSince, latestSequence);
+            }
+            source = "store";
+        }
         
+        List<ApplicationRecord> applications = new ArrayList<>(changed.size());
+        List<String> deleted = new ArrayList<>();
+        for (String applicationId : changed.keySet()) {
+            Optional<ApplicationRecord> record = applicationRepository.findById(applicationId);
+            if (record.isPresent()) {
+                applications.add(record.get());
+            } else {
+                deleted.add(applicationId);
+            }
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("since", since);
+        result.put("nextSince", nextSince);
+        result.put("latestSequence", Math.max(latestSequence, nextSince));
+        result.put("hasMore", hasMore);
+        result.put("source", source);
+        result.put("count", applications.size());
+        result.put("applications", applications);
+        result.put("deleted", deleted);
+        return result;
+    }
+    
+    private Map<String, Object> loadIndexed(List<String> applicationIds) {
+        List<ApplicationRecord> applications = new ArrayList<>(applicationIds.size());
+        for (String applicationId : applicationIds) {
+            applicationRepository.findById(applicationId).ifPresent(applications::add);
+        }
         Map<String, Object> result = new HashMap<>();
-        result.put("totalApplications", applicationDataStore.size());
-        result.put("applications", applicationDataStore);
-        result.put("statuses", applicationStatusStore);
+        result.put("count", applications.size());
+        result.put("applications", applications);
         return result;
     }
     
-    // Method to sync application status with Camunda process instances
-    private void syncApplicationStatusWithCamunda() {
+    /**
+     * Full reconciliation against Camunda. Reads are served from the projection, so this
+     * is only needed to repair state (e.g. after tasks were completed outside this service).
+     */
+    public long syncWithCamunda() {
         try {
-            // Get all process instances for our workflow (both active and ended)
-            List<ProcessInstance> activeProcesses = runtimeService.createProcessInstanceQuery()
-                .processDefinitionKey("job-recruitment-workflow-india")
-                .active()
-                .list();
-            
-            // Sync active processes
-            for (ProcessInstance processInstance : activeProcesses) {
-                String applicationId = processInstance.getBusinessKey();
-                if (applicationId != null && applicationDataStore.containsKey(applicationId)) {
-                    syncProcessVariables(processInstance.getId(), applicationId, false);
-                }
+            syncApplicationStatusWithCamunda(null);
+        } catch (Exception e) {
+            logger.warn("Failed to sync application status with Camunda: {}", e.getMessage());
+        }
+        return applicationRepository.count();
+    }
+    
+    /**
+     * Reconciles only the applications whose process instance changed since the given time:
+     * a task was created or completed, or the process finished. Used by CamundaReconciler.
+     *
+     * @param since lower bound of the change window, null for a full reconciliation
+     * @return number of process instances reconciled
+     */
+    public int reconcileChangedSince(Date since) {
+        return syncApplicationStatusWithCamunda(since);
+    }
+    
+    /**
+     * Projects engine state changes published by WorkflowProjectionListener onto the
+     * application store. Runs after the engine transaction commits, so rolled back
+     * commands never leak into the projection.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowStateEvent(WorkflowStateEvent event) {
+        if (event.getApplicationId() != null) {
+            applicationLocks.withLock(event.getApplicationId(), () -> projectWorkflowEvent(event));
+        }
+    }
+    
+    private void projectWorkflowEvent(WorkflowStateEvent event) {
+        String applicationId = event.getApplicationId();
+        ApplicationRecord appData = applicationId != null ? loadForUpdate(applicationId) : null;
+        if (appData == null) {
+            return;
+        }
+        
+        try {
+            switch (event.getType()) {
+                case TASK_CREATED:
+                    activeTaskIndex.add(applicationId, event.getTaskId(), event.getTaskDefinitionKey(),
+                                        reviewTaskCatalog.roleOf(event.getTaskDefinitionKey()));
+                    updateStatusFromActiveTasks(applicationId, appData);
+                    break;
+                    
+                case TASK_COMPLETED:
+                    syncAllDecisionData(appData, event.getVariables());
+                    activeTaskIndex.remove(applicationId, event.getTaskId());
+                    updateStatusFromActiveTasks(applicationId, appData);
+                    break;
+                    
+                case TASK_DELETED:
+                    activeTaskIndex.remove(applicationId, event.getTaskId());
+                    break;
+                    
+                case PROCESS_ENDED:
+                    activeTaskIndex.clear(applicationId);
+                    syncAllDecisionData(appData, event.getVariables());
+                    
+                    // Hiring and onboarding are finalized by HR, not by the process end
+                    if (!appData.isManualStatusOverride() && !appData.isProcessCompleted()) {
+                        ApplicationStatus finalStatus = determineFinalStatus(event.getVariables());
+                        appData.setStatus(finalStatus);
+                        logger.info("Updated completed application {} to final status: {}", applicationId, finalStatus);
+                    }
+                    break;
             }
             
-            // Also check for ended processes using HistoryService
-            List<HistoricProcessInstance> endedProcesses = historyService.createHistoricProcessInstanceQuery()
-                .processDefinitionKey("job-recruitment-workflow-india")
-                .finished()
-                .list();
-            
-            for (HistoricProcessInstance processInstance : endedProcesses) {
-                String applicationId = processInstance.getBusinessKey();
-                if (applicationId != null && applicationDataStore.containsKey(applicationId)) {
-                    syncProcessVariables(processInstance.getId(), applicationId, true);
-                }
-            }
+            appData.touch();
+            store(appData);
+            journal(JournalEventType.WORKFLOW_PROJECTED, appData);
             
         } catch (Exception e) {
-            logger.warn("Failed to sync application status with Camunda: {}", e.getMessage());
+            logger.warn("Failed to project {} for application {}: {}", event.getType(), applicationId, e.getMessage());
+        }
+    }
+    
+    private void updateStatusFromActiveTasks(String applicationId, ApplicationRecord appData) {
+        // Don't override if manually set to HIRED
+        if (appData.isManualStatusOverride()) {
+            return;
+        }
+        
+        Collection<ActiveTaskIndex.ActiveTask> activeTasks = activeTaskIndex.getTasks(applicationId);
+        if (activeTasks.isEmpty()) {
+            return;
+        }
+        
+        // More than one open task only happens during the parallel TL/PM review
+        ApplicationStatus newStatus = activeTasks.size() == 1
+            ? reviewTaskCatalog.statusOf(activeTasks.iterator().next().getTaskDefinitionKey())
+            : ApplicationStatus.HR_APPROVED;
+        
+        appData.setStatus(newStatus);
+        logger.debug("Projected application {} status to: {}", applicationId, newStatus);
+    }
+    
+    private void syncAllDecisionData(ApplicationRecord appData, Map<String, Object> processVariables) {
+        for (ReviewRole role : ReviewRole.values()) {
+            syncDecisionData(appData, processVariables, role);
+        }
+    }
+    
+    /**
+     * Reconciles applications with their process instances. Variables and open tasks are
+     * read in batches by ProcessStateReader, so the number of engine queries grows with
+     * instances / SYNC_BATCH_SIZE rather than with the number of instances.
+     *
+     * @param since only instances changed after this time, null for all instances
+     */
+    private int syncApplicationStatusWithCamunda(Date since) {
+        long start = System.currentTimeMillis();
+        
+        Map<String, String> activeApplications = new LinkedHashMap<>();
+        for (ProcessInstance processInstance : findActiveProcessInstances(since)) {
+            addKnownApplication(activeApplications, processInstance.getId(), processInstance.getBusinessKey());
+        }
+        
+        HistoricProcessInstanceQuery endedQuery = historyService.createHistoricProcessInstanceQuery()
+            .processDefinitionKey("job-recruitment-workflow-india")
+            .finished();
+        if (since != null) {
+            endedQuery.finishedAfter(since);
+        }
+        Map<String, String> endedApplications = new LinkedHashMap<>();
+        for (HistoricProcessInstance processInstance : endedQuery.list()) {
+            addKnownApplication(endedApplications, processInstance.getId(), processInstance.getBusinessKey());
+        }
+        
+        processStateReader.readActive(activeApplications.keySet()).forEach((processInstanceId, state) -> {
+            String applicationId = activeApplications.get(processInstanceId);
+            applicationLocks.withLock(applicationId, () -> applyProcessState(applicationId, state, false));
+        });
+        processStateReader.readEnded(endedApplications.keySet()).forEach((processInstanceId, state) -> {
+            String applicationId = endedApplications.get(processInstanceId);
+            applicationLocks.withLock(applicationId, () -> applyProcessState(applicationId, state, true));
+        });
+        
+        if (since == null) {
+            logger.info("Synced {} active and {} ended process instances in {}ms", activeApplications.size(),
+                       endedApplications.size(), System.currentTimeMillis() - start);
+        } else {
+            logger.debug("Synced {} active and {} ended process instances changed since {} in {}ms",
+                        activeApplications.size(), endedApplications.size(), since, System.currentTimeMillis() - start);
+        }
+        return activeApplications.size() + endedApplications.size();
+    }
+    
+    /**
+     * Running instances of the workflow; with a lower bound, only those with a task
+     * created or completed after it (found through the task history)
+     */
+    private List<ProcessInstance> findActiveProcessInstances(Date since) {
+        if (since == null) {
+            return runtimeService.createProcessInstanceQuery()
+                .processDefinitionKey("job-recruitment-workflow-india")
+                .active()
+                .list();
+        }
+        
+        Set<String> changed = new LinkedHashSet<>();
+        for (HistoricTaskInstance task : historyService.createHistoricTaskInstanceQuery()
+                .processDefinitionKey("job-recruitment-workflow-india")
+                .startedAfter(since)
+                .list()) {
+            changed.add(task.getProcessInstanceId());
+        }
+        for (HistoricTaskInstance task : historyService.createHistoricTaskInstanceQuery()
+                .processDefinitionKey("job-recruitment-workflow-india")
+                .finishedAfter(since)
+                .list()) {
+            changed.add(task.getProcessInstanceId());
+        }
+        
+        List<String> ids = new ArrayList<>(changed);
+        List<ProcessInstance> result = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += SYNC_BATCH_SIZE) {
+            result.addAll(runtimeService.createProcessInstanceQuery()
+                .processInstanceIds(new HashSet<>(ids.subList(from, Math.min(from + SYNC_BATCH_SIZE, ids.size()))))
+                .active()
+                .list());
+        }
+        return result;
+    }
+    
+    private void addKnownApplication(Map<String, String> applications, String processInstanceId, String applicationId) {
+        if (applicationId != null && applicationRepository.existsById(applicationId)) {
+            applications.put(processInstanceId, applicationId);
         }
     }
     
-    private void syncProcessVariables(String processInstanceId, String applicationId, boolean isEnded) {
+    private void applyProcessState(String applicationId, ProcessStateReader.ProcessState state, boolean isEnded) {
         try {
-            Map<String, Object> processVariables;
-            
-            if (isEnded) {
-                processVariables = historyService.createHistoricVariableInstanceQuery()
-                    .processInstanceId(processInstanceId)
-                    .list()
-                    .stream()
-                    .collect(java.util.stream.Collectors.toMap(
-                        v -> v.getName(),
-                        v -> v.getValue()
-                    ));
-            } else {
-                processVariables = runtimeService.getVariables(processInstanceId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
+            if (appData == null) {
+                return;
             }
             
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
-            
             // Sync all decisions
-            syncDecisionData(appData, processVariables, "hr");
-            syncDecisionData(appData, processVariables, "tl");
-            syncDecisionData(appData, processVariables, "pm");
-            syncDecisionData(appData, processVariables, "headHR");
-            syncDecisionData(appData, processVariables, "companyManager");
+            syncAllDecisionData(appData, state.getVariables());
             
             if (isEnded) {
-                // Determine final status for ended processes
-                String finalStatus = determineFinalStatus(processVariables);
-                appData.put("applicationStatus", finalStatus);
-                applicationStatusStore.put(applicationId, finalStatus);
-                logger.info("Updated completed application {} to final status: {}", applicationId, finalStatus);
+                activeTaskIndex.clear(applicationId);
+                // Same rule as the PROCESS_ENDED projection: hiring and onboarding are finalized by HR
+                if (!appData.isManualStatusOverride() && !appData.isProcessCompleted()) {
+                    ApplicationStatus finalStatus = determineFinalStatus(state.getVariables());
+                    appData.setStatus(finalStatus);
+                    logger.info("Updated completed application {} to final status: {}", applicationId, finalStatus);
+                }
             } else {
-                // Update status based on current task for active processes
-                updateStatusFromCurrentTask(processInstanceId, applicationId, appData);
+                // Repair the active task projection, then derive the status from it
+                List<ActiveTaskIndex.ActiveTask> activeTasks = new ArrayList<>();
+                state.getActiveTasks().forEach((taskId, taskDefinitionKey) -> activeTasks.add(
+                    new ActiveTaskIndex.ActiveTask(taskId, taskDefinitionKey, reviewTaskCatalog.roleOf(taskDefinitionKey))));
+                activeTaskIndex.replace(applicationId, activeTasks);
+                updateStatusFromActiveTasks(applicationId, appData);
             }
             
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
+            appData.touch();
+            store(appData);
+            journal(JournalEventType.WORKFLOW_PROJECTED, appData);
             
         } catch (Exception e) {
-            logger.warn("Failed to sync process variables for application {}: {}", applicationId, e.getMessage());
+            logger.warn("Failed to sync process state for application {}: {}", applicationId, e.getMessage());
         }
     }
     
-    private void syncDecisionData(Map<String, Object> appData, Map<String, Object> processVariables, String role) {
-        String decisionKey = role + "Decision";
-        String commentsKey = role + "Comments";
+    private void syncDecisionData(ApplicationRecord appData, Map<String, Object> processVariables, ReviewRole role) {
+        String decisionKey = role.getDecisionKey();
+        String commentsKey = role.getCommentsKey();
         
         if (processVariables.containsKey(decisionKey)) {
             appData.put(decisionKey, processVariables.get(decisionKey));
             appData.put(commentsKey, processVariables.get(commentsKey));
             
             // Handle special fields
-            if ("hr".equals(role) && processVariables.containsKey("interviewRequired")) {
+            if (role == ReviewRole.HR && processVariables.containsKey("interviewRequired")) {
                 Object interviewRequired = processVariables.get("interviewRequired");
                 appData.put("interviewRequired", interviewRequired != null ? interviewRequired : false);
-            } else if ("headHR".equals(role) && processVariables.containsKey("offerCTC")) {
+            } else if (role == ReviewRole.HEAD_HR && processVariables.containsKey("offerCTC")) {
                 appData.put("offerCTC", processVariables.get("offerCTC"));
-            } else if ("companyManager".equals(role) && processVariables.containsKey("finalOfferCTC")) {
+            } else if (role == ReviewRole.COMPANY_MANAGER && processVariables.containsKey("finalOfferCTC")) {
                 appData.put("finalOfferCTC", processVariables.get("finalOfferCTC"));
             }
             
@@ -428,82 +916,45 @@ public class JobApplicationService {
         }
     }
     
-    private String determineFinalStatus(Map<String, Object> processVariables) {
+    private ApplicationStatus determineFinalStatus(Map<String, Object> processVariables) {
         if (processVariables.containsKey("companyManagerDecision")) {
-            String companyManagerDecision = (String) processVariables.get("companyManagerDecision");
-            return "accept".equals(companyManagerDecision) ? "ACCEPTED" : "REJECTED_BY_COMPANY_MANAGER";
+            Decision companyManagerDecision = Decision.fromValue(processVariables.get("companyManagerDecision"));
+            return companyManagerDecision == Decision.ACCEPT ? ApplicationStatus.ACCEPTED : ApplicationStatus.REJECTED_BY_COMPANY_MANAGER;
         } else if (processVariables.containsKey("headHRDecision")) {
-            String headHRDecision = (String) processVariables.get("headHRDecision");
-            return "accept".equals(headHRDecision) ? "PENDING_COMPANY_MANAGER_REVIEW" : "REJECTED_BY_HEAD_HR";
+            Decision headHRDecision = Decision.fromValue(processVariables.get("headHRDecision"));
+            return headHRDecision == Decision.ACCEPT ? ApplicationStatus.PENDING_COMPANY_MANAGER_REVIEW : ApplicationStatus.REJECTED_BY_HEAD_HR;
         } else if (processVariables.containsKey("tlDecision") || processVariables.containsKey("pmDecision")) {
-            String tlDecision = (String) processVariables.get("tlDecision");
-            String pmDecision = (String) processVariables.get("pmDecision");
-            if ("reject".equals(tlDecision) || "reject".equals(pmDecision)) {
-                return "REJECTED_BY_TL_PM";
+            Decision tlDecision = Decision.fromValue(processVariables.get("tlDecision"));
+            Decision pmDecision = Decision.fromValue(processVariables.get("pmDecision"));
+            if (tlDecision == Decision.REJECT || pmDecision == Decision.REJECT) {
+                return ApplicationStatus.REJECTED_BY_TL_PM;
             }
         } else if (processVariables.containsKey("hrDecision")) {
-            String hrDecision = (String) processVariables.get("hrDecision");
-            if ("reject".equals(hrDecision)) {
-                return "REJECTED_BY_HR";
+            if (Decision.fromValue(processVariables.get("hrDecision")) == Decision.REJECT) {
+                return ApplicationStatus.REJECTED_BY_HR;
             }
         }
-        return "COMPLETED";
-    }
-    
-    private void updateStatusFromCurrentTask(String processInstanceId, String applicationId, Map<String, Object> appData) {
-        try {
-            // Don't override if manually set to HIRED
-            if (appData.containsKey("manualStatusOverride") && (Boolean) appData.get("manualStatusOverride")) {
-                logger.info("Skipping Camunda status sync for application {} - manual status override active", applicationId);
-                return;
-            }
-            
-            Task currentTask = taskService.createTaskQuery()
-                .processInstanceId(processInstanceId)
-                .active()
-                .singleResult();
-            
-            if (currentTask != null) {
-                String taskName = currentTask.getName();
-                String newStatus = determineStatusFromTaskName(taskName);
-                
-                appData.put("applicationStatus", newStatus);
-                applicationStatusStore.put(applicationId, newStatus);
-                logger.debug("Updated application {} status to: {} (task: {})", applicationId, newStatus, taskName);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to update status from current task for application {}: {}", applicationId, e.getMessage());
-        }
-    }
-    
-    private String determineStatusFromTaskName(String taskName) {
-        if (taskName.contains("HR Application Review")) {
-            return "PENDING_HR_REVIEW";
-        } else if (taskName.contains("Team Lead Review")) {
-            return "PENDING_TL_REVIEW";
-        } else if (taskName.contains("Project Manager Review")) {
-            return "PENDING_PM_REVIEW";
-        } else if (taskName.contains("Head HR Final Review")) {
-            return "PENDING_HEAD_HR_REVIEW";
-        } else if (taskName.contains("Company Manager Final Review")) {
-            return "PENDING_COMPANY_MANAGER_REVIEW";
-        }
-        return "IN_PROGRESS";
+        return ApplicationStatus.COMPLETED;
     }
     
     // Method to manually update application status (can be called by Camunda delegates)
     public void updateApplicationStatus(String applicationId, String status, Map<String, Object> additionalData) {
+        applicationLocks.withLock(applicationId, () -> doUpdateApplicationStatus(applicationId, status, additionalData));
+    }
+    
+    private void doUpdateApplicationStatus(String applicationId, String status, Map<String, Object> additionalData) {
         try {
-            if (applicationDataStore.containsKey(applicationId)) {
-                applicationStatusStore.put(applicationId, status);
-                Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
+            if (appData != null) {
                 appData.put("applicationStatus", status);
-                appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
+                appData.touch();
                 
                 // Add any additional data
                 if (additionalData != null) {
                     appData.putAll(additionalData);
                 }
+                store(appData);
+                journal(JournalEventType.STATUS_UPDATED, appData);
                 
                 logger.info("Manually updated application {} status to: {}", applicationId, status);
             }
@@ -513,30 +964,40 @@ public class JobApplicationService {
     }
     
     /**
-     * Approve an application by a specific role
+     * Approve an application by a specific role. Each attempt reloads the application,
+     * so an attempt lost to an optimistic locking conflict (TL and PM completing in
+     * front of the parallel join together) is retried from the committed state.
      */
     public Map<String, Object> approveApplication(String applicationId, String role, String comments, String offerCTC) {
+        return optimisticLockRetry.execute("approval of " + applicationId + " by " + role, () ->
+            applicationLocks.withLock(applicationId, () -> doApproveApplication(applicationId, role, comments, offerCTC)));
+    }
+    
+    private Map<String, Object> doApproveApplication(String applicationId, String role, String comments, String offerCTC) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Find the Camunda task for this application and role (optional for Company Manager)
-            String processInstanceId = (String) appData.get("processInstanceId");
-            Task activeTask = null;
+            String processInstanceId = appData.getProcessInstanceId();
+            String activeTaskId = null;
             
             if (processInstanceId != null) {
-                activeTask = findTaskForRole(processInstanceId, role);
+                activeTaskId = findTaskIdForRole(applicationId, processInstanceId, role);
             }
             
             // For Company Manager, allow approval even without Camunda task (referral applications)
-            if (activeTask == null && !"companymanager".equals(role.toLowerCase())) {
+            if (activeTaskId == null && !"companymanager".equals(role.toLowerCase())) {
                 if (processInstanceId == null) {
                     throw new RuntimeException("No process instance found for application: " + applicationId);
+                } else if (hasDecision(appData, role, Decision.ACCEPT)) {
+                    // Repeated request, e.g. a client retry after a timeout: the decision is already recorded
+                    return repeatedDecision(appData, role, "approve", comments);
                 } else {
                     throw new RuntimeException("No active task found for role: " + role + " in application: " + applicationId);
                 }
@@ -544,24 +1005,24 @@ public class JobApplicationService {
             
             // Prepare task variables for approval
             Map<String, Object> taskVariables = new HashMap<>();
+            ReviewRole reviewRole;
+            ApplicationStatus approvedStatus = null;
+            String offerKey = null;
             
             switch (role.toLowerCase()) {
                 case "hr":
                     taskVariables.put("hrDecision", "accept");
                     taskVariables.put("hrComments", comments != null ? comments : "");
                     taskVariables.put("interviewRequired", true); // Default for approved applications
-                    appData.put("hrDecision", "accept");
-                    appData.put("hrComments", comments);
-                    appData.put("applicationStatus", "HR_APPROVED");
-                    applicationStatusStore.put(applicationId, "HR_APPROVED");
+                    reviewRole = ReviewRole.HR;
+                    approvedStatus = ApplicationStatus.HR_APPROVED;
                     break;
                     
                 case "teamlead":
                 case "tl":
                     taskVariables.put("tlDecision", "accept");
                     taskVariables.put("tlComments", comments != null ? comments : "");
-                    appData.put("tlDecision", "accept");
-                    appData.put("tlComments", comments);
+                    reviewRole = ReviewRole.TEAM_LEAD;
                     // Status will be updated based on PM decision
                     break;
                     
@@ -569,8 +1030,7 @@ public class JobApplicationService {
                 case "pm":
                     taskVariables.put("pmDecision", "accept");
                     taskVariables.put("pmComments", comments != null ? comments : "");
-                    appData.put("pmDecision", "accept");
-                    appData.put("pmComments", comments);
+                    reviewRole = ReviewRole.PROJECT_MANAGER;
                     // Status will be updated based on TL decision
                     break;
                     
@@ -579,14 +1039,12 @@ public class JobApplicationService {
                     taskVariables.put("headHRComments", comments != null ? comments : "");
                     if (offerCTC != null && !offerCTC.trim().isEmpty()) {
                         taskVariables.put("offerCTC", offerCTC);
-                        appData.put("offerCTC", offerCTC);
+                        offerKey = "offerCTC";
                     }
-                    appData.put("headHRDecision", "accept");
-                    appData.put("headHRComments", comments);
+                    reviewRole = ReviewRole.HEAD_HR;
                     
                     // Normal flow - always goes to Company Manager after Head HR
-                    appData.put("applicationStatus", "PENDING_COMPANY_MANAGER_REVIEW");
-                    applicationStatusStore.put(applicationId, "PENDING_COMPANY_MANAGER_REVIEW");
+                    approvedStatus = ApplicationStatus.PENDING_COMPANY_MANAGER_REVIEW;
                     break;
                     
                 case "companymanager":
@@ -594,12 +1052,10 @@ public class JobApplicationService {
                     taskVariables.put("companyManagerComments", comments != null ? comments : "");
                     if (offerCTC != null && !offerCTC.trim().isEmpty()) {
                         taskVariables.put("finalOfferCTC", offerCTC);
-                        appData.put("finalOfferCTC", offerCTC);
+                        offerKey = "finalOfferCTC";
                     }
-                    appData.put("companyManagerDecision", "accept");
-                    appData.put("companyManagerComments", comments);
-                    appData.put("applicationStatus", "PENDING_HR_HIRING");
-                    applicationStatusStore.put(applicationId, "PENDING_HR_HIRING");
+                    reviewRole = ReviewRole.COMPANY_MANAGER;
+                    approvedStatus = ApplicationStatus.PENDING_HR_HIRING;
                     break;
                     
                 default:
@@ -607,8 +1063,8 @@ public class JobApplicationService {
             }
             
             // Complete the Camunda task (optional for Company Manager with referral applications)
-            if (activeTask != null) {
-                taskService.complete(activeTask.getId(), taskVariables);
+            if (activeTaskId != null) {
+                taskService.complete(activeTaskId, taskVariables);
             } else if ("companymanager".equals(role.toLowerCase())) {
                 // For Company Manager, allow approval without Camunda task (referral applications)
                 logger.info("Company Manager approval for application {} without Camunda task (likely referral application)", applicationId);
@@ -616,22 +1072,26 @@ public class JobApplicationService {
                 throw new RuntimeException("No active task found for role: " + role + " in application: " + applicationId);
             }
             
-            // Update application data
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
-            applicationDataStore.put(applicationId, appData);
+            // Record the decision on the application as stored after the engine call
+            ApplicationRecord current = reloadAfterEngineCall(applicationId);
+            current.setDecision(reviewRole, Decision.ACCEPT, comments);
+            if (offerKey != null) {
+                current.put(offerKey, offerCTC);
+            }
+            // A status projected from the engine during complete() is newer than ours
+            if (approvedStatus != null && current.getStatus() == appData.getStatus()) {
+                current.setStatus(approvedStatus);
+            }
             
             // Check if both TL and PM have approved (for parallel gateway)
-            if (("teamlead".equals(role.toLowerCase()) || "tl".equals(role.toLowerCase()) || 
-                 "projectmanager".equals(role.toLowerCase()) || "pm".equals(role.toLowerCase()))) {
-                
-                String tlDecision = (String) appData.get("tlDecision");
-                String pmDecision = (String) appData.get("pmDecision");
-                
-                if ("accept".equals(tlDecision) && "accept".equals(pmDecision)) {
-                    appData.put("applicationStatus", "PENDING_HEAD_HR_REVIEW");
-                    applicationStatusStore.put(applicationId, "PENDING_HEAD_HR_REVIEW");
-                }
+            if ((reviewRole == ReviewRole.TEAM_LEAD || reviewRole == ReviewRole.PROJECT_MANAGER) &&
+                current.getDecision(ReviewRole.TEAM_LEAD) == Decision.ACCEPT &&
+                current.getDecision(ReviewRole.PROJECT_MANAGER) == Decision.ACCEPT) {
+                current.setStatus(ApplicationStatus.PENDING_HEAD_HR_REVIEW);
             }
+            current.touch();
+            store(current);
+            journal(JournalEventType.APPLICATION_APPROVED, current);
             
             result.put("success", true);
             result.put("message", "Application approved successfully by " + role);
@@ -640,12 +1100,14 @@ public class JobApplicationService {
             result.put("decision", "approve");
             result.put("comments", comments);
             result.put("timestamp", LocalDateTime.now().toString());
-            result.put("newStatus", appData.get("applicationStatus"));
+            result.put("newStatus", current.get("applicationStatus"));
             
             logger.info("Application {} approved by {}: {}", applicationId, role, comments);
             
             return result;
             
+        } catch (OptimisticLockingException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to approve application {} by {}: {}", applicationId, role, e.getMessage());
             throw new RuntimeException("Failed to approve application: " + e.getMessage());
@@ -653,30 +1115,38 @@ public class JobApplicationService {
     }
     
     /**
-     * Reject an application by a specific role
+     * Reject an application by a specific role; retried like approvals
      */
     public Map<String, Object> rejectApplication(String applicationId, String role, String comments) {
+        return optimisticLockRetry.execute("rejection of " + applicationId + " by " + role, () ->
+            applicationLocks.withLock(applicationId, () -> doRejectApplication(applicationId, role, comments)));
+    }
+    
+    private Map<String, Object> doRejectApplication(String applicationId, String role, String comments) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Find the Camunda task for this application and role (optional for Company Manager)
-            String processInstanceId = (String) appData.get("processInstanceId");
-            Task activeTask = null;
+            String processInstanceId = appData.getProcessInstanceId();
+            String activeTaskId = null;
             
             if (processInstanceId != null) {
-                activeTask = findTaskForRole(processInstanceId, role);
+                activeTaskId = findTaskIdForRole(applicationId, processInstanceId, role);
             }
             
             // For Company Manager, allow rejection even without Camunda task (referral applications)
-            if (activeTask == null && !"companymanager".equals(role.toLowerCase())) {
+            if (activeTaskId == null && !"companymanager".equals(role.toLowerCase())) {
                 if (processInstanceId == null) {
                     throw new RuntimeException("No process instance found for application: " + applicationId);
+                } else if (hasDecision(appData, role, Decision.REJECT)) {
+                    // Repeated request, e.g. a client retry after a timeout: the decision is already recorded
+                    return repeatedDecision(appData, role, "reject", comments);
                 } else {
                     throw new RuntimeException("No active task found for role: " + role + " in application: " + applicationId);
                 }
@@ -684,49 +1154,45 @@ public class JobApplicationService {
             
             // Prepare task variables for rejection
             Map<String, Object> taskVariables = new HashMap<>();
-            String rejectionStatus;
+            ReviewRole reviewRole;
+            ApplicationStatus rejectionStatus;
             
             switch (role.toLowerCase()) {
                 case "hr":
                     taskVariables.put("hrDecision", "reject");
                     taskVariables.put("hrComments", comments != null ? comments : "");
-                    appData.put("hrDecision", "reject");
-                    appData.put("hrComments", comments);
-                    rejectionStatus = "REJECTED_BY_HR";
+                    reviewRole = ReviewRole.HR;
+                    rejectionStatus = ApplicationStatus.REJECTED_BY_HR;
                     break;
                     
                 case "teamlead":
                 case "tl":
                     taskVariables.put("tlDecision", "reject");
                     taskVariables.put("tlComments", comments != null ? comments : "");
-                    appData.put("tlDecision", "reject");
-                    appData.put("tlComments", comments);
-                    rejectionStatus = "REJECTED_BY_TL_PM";
+                    reviewRole = ReviewRole.TEAM_LEAD;
+                    rejectionStatus = ApplicationStatus.REJECTED_BY_TL_PM;
                     break;
                     
                 case "projectmanager":
                 case "pm":
                     taskVariables.put("pmDecision", "reject");
                     taskVariables.put("pmComments", comments != null ? comments : "");
-                    appData.put("pmDecision", "reject");
-                    appData.put("pmComments", comments);
-                    rejectionStatus = "REJECTED_BY_TL_PM";
+                    reviewRole = ReviewRole.PROJECT_MANAGER;
+                    rejectionStatus = ApplicationStatus.REJECTED_BY_TL_PM;
                     break;
                     
                 case "headhr":
                     taskVariables.put("headHRDecision", "reject");
                     taskVariables.put("headHRComments", comments != null ? comments : "");
-                    appData.put("headHRDecision", "reject");
-                    appData.put("headHRComments", comments);
-                    rejectionStatus = "REJECTED_BY_HEAD_HR";
+                    reviewRole = ReviewRole.HEAD_HR;
+                    rejectionStatus = ApplicationStatus.REJECTED_BY_HEAD_HR;
                     break;
                     
                 case "companymanager":
                     taskVariables.put("companyManagerDecision", "reject");
                     taskVariables.put("companyManagerComments", comments != null ? comments : "");
-                    appData.put("companyManagerDecision", "reject");
-                    appData.put("companyManagerComments", comments);
-                    rejectionStatus = "REJECTED_BY_COMPANY_MANAGER";
+                    reviewRole = ReviewRole.COMPANY_MANAGER;
+                    rejectionStatus = ApplicationStatus.REJECTED_BY_COMPANY_MANAGER;
                     break;
                     
                 default:
@@ -734,8 +1200,8 @@ public class JobApplicationService {
             }
             
             // Complete the Camunda task (optional for Company Manager with referral applications)
-            if (activeTask != null) {
-                taskService.complete(activeTask.getId(), taskVariables);
+            if (activeTaskId != null) {
+                taskService.complete(activeTaskId, taskVariables);
             } else if ("companymanager".equals(role.toLowerCase())) {
                 // For Company Manager, allow rejection without Camunda task (referral applications)
                 logger.info("Company Manager rejection for application {} without Camunda task (likely referral application)", applicationId);
@@ -743,11 +1209,14 @@ public class JobApplicationService {
                 throw new RuntimeException("No active task found for role: " + role + " in application: " + applicationId);
             }
             
-            // Update application status to rejected
-            appData.put("applicationStatus", rejectionStatus);
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
-            applicationStatusStore.put(applicationId, rejectionStatus);
-            applicationDataStore.put(applicationId, appData);
+            // Record the decision on the application as stored after the engine call, which
+            // keeps what the rejection delegate stored (message, reference number, ...)
+            ApplicationRecord current = reloadAfterEngineCall(applicationId);
+            current.setDecision(reviewRole, Decision.REJECT, comments);
+            current.setStatus(rejectionStatus);
+            current.touch();
+            store(current);
+            journal(JournalEventType.APPLICATION_REJECTED, current);
             
             result.put("success", true);
             result.put("message", "Application rejected by " + role);
@@ -756,27 +1225,46 @@ public class JobApplicationService {
             result.put("decision", "reject");
             result.put("comments", comments);
             result.put("timestamp", LocalDateTime.now().toString());
-            result.put("newStatus", rejectionStatus);
+            result.put("newStatus", rejectionStatus.name());
             
             logger.info("Application {} rejected by {}: {}", applicationId, role, comments);
             
             return result;
             
+        } catch (OptimisticLockingException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to reject application {} by {}: {}", applicationId, role, e.getMessage());
             throw new RuntimeException("Failed to reject application: " + e.getMessage());
         }
     }
     
+    private static boolean hasDecision(ApplicationRecord appData, String role, Decision decision) {
+        ReviewRole reviewRole = ReviewRole.fromRequestRole(role);
+        return reviewRole != null && appData.getDecision(reviewRole) == decision;
+    }
+    
+    private Map<String, Object> repeatedDecision(ApplicationRecord appData, String role, String decision, String comments) {
+        logger.info("Application {} already has the {} decision of {}, nothing to do", appData.getApplicationId(), decision, role);
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("message", "Decision already recorded for " + role);
+        result.put("applicationId", appData.getApplicationId());
+        result.put("role", role);
+        result.put("decision", decision);
+        result.put("comments", comments);
+        result.put("timestamp", LocalDateTime.now().toString());
+        result.put("newStatus", appData.get("applicationStatus"));
+        result.put("repeated", true);
+        return result;
+    }
+    
     /**
      * Get application status with approval details
      */
     public Map<String, Object> getApplicationStatus(String applicationId) {
         try {
-            // Sync with Camunda first
-            syncApplicationStatusWithCamunda();
-            
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = applicationRepository.findById(applicationId).orElse(null);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
@@ -847,50 +1335,33 @@ public class JobApplicationService {
     }
     
     /**
-     * Find the active Camunda task for a specific role
+     * Id of the open task the given role has to complete. Served from the active-task index;
+     * a miss (e.g. a task created before a restart) costs one query by task key.
      */
-    private Task findTaskForRole(String processInstanceId, String role) {
+    private String findTaskIdForRole(String applicationId, String processInstanceId, String role) {
+        ReviewRole reviewRole = ReviewRole.fromRequestRole(role);
+        if (reviewRole == null) {
+            return null;
+        }
+        String taskId = activeTaskIndex.findTaskId(applicationId, reviewRole);
+        if (taskId != null) {
+            return taskId;
+        }
+        
         try {
-            List<Task> activeTasks = taskService.createTaskQuery()
+            Set<String> taskKeys = reviewTaskCatalog.taskKeysFor(reviewRole);
+            if (taskKeys.isEmpty()) {
+                return null;
+            }
+            List<Task> tasks = taskService.createTaskQuery()
                 .processInstanceId(processInstanceId)
+                .taskDefinitionKeyIn(taskKeys.toArray(new String[0]))
                 .active()
                 .list();
-            
-            for (Task task : activeTasks) {
-                String taskName = task.getName();
-                
-                switch (role.toLowerCase()) {
-                    case "hr":
-                        if (taskName.contains("HR Application Review") || taskName.contains("HR Review")) {
-                            return task;
-                        }
-                        break;
-                    case "teamlead":
-                    case "tl":
-                        if (taskName.contains("Team Lead Review") || taskName.contains("TL Review")) {
-                            return task;
-                        }
-                        break;
-                    case "projectmanager":
-                    case "pm":
-                        if (taskName.contains("Project Manager Review") || taskName.contains("PM Review")) {
-                            return task;
-                        }
-                        break;
-                    case "headhr":
-                        if (taskName.contains("Head HR Final Review") || taskName.contains("Head HR Review")) {
-                            return task;
-                        }
-                        break;
-                    case "companymanager":
-                        if (taskName.contains("Company Manager Final Review") || taskName.contains("Company Manager Review")) {
-                            return task;
-                        }
-                        break;
-                }
+            for (Task task : tasks) {
+                activeTaskIndex.add(applicationId, task.getId(), task.getTaskDefinitionKey(), reviewRole);
             }
-            
-            return null;
+            return tasks.isEmpty() ? null : tasks.get(0).getId();
             
         } catch (Exception e) {
             logger.error("Failed to find task for role {} in process {}: {}", role, processInstanceId, e.getMessage());
@@ -898,28 +1369,70 @@ public class JobApplicationService {
         }
     }
 
+    /**
+     * Loads the open review tasks of many applications into the active-task index with
+     * one task query per SYNC_BATCH_SIZE process instances, so the approvals and
+     * rejections that follow resolve their tasks without a query each
+     */
+    public void prefetchReviewTasks(Collection<String> applicationIds) {
+        Map<String, String> applicationsByProcess = new LinkedHashMap<>();
+        for (String applicationId : applicationIds) {
+            if (!activeTaskIndex.getTasks(applicationId).isEmpty()) {
+                continue;
+            }
+            applicationRepository.findById(applicationId)
+                .map(ApplicationRecord::getProcessInstanceId)
+                .ifPresent(processInstanceId -> applicationsByProcess.put(processInstanceId, applicationId));
+        }
+        
+        Set<String> taskKeys = new HashSet<>();
+        for (ReviewRole role : ReviewRole.values()) {
+            taskKeys.addAll(reviewTaskCatalog.taskKeysFor(role));
+        }
+        if (applicationsByProcess.isEmpty() || taskKeys.isEmpty()) {
+            return;
+        }
+        
+        List<String> processInstanceIds = new ArrayList<>(applicationsByProcess.keySet());
+        for (int from = 0; from < processInstanceIds.size(); from += SYNC_BATCH_SIZE) {
+            List<Task> tasks = taskService.createTaskQuery()
+                .processInstanceIdIn(processInstanceIds.subList(from, Math.min(from + SYNC_BATCH_SIZE, processInstanceIds.size()))
+                    .toArray(new String[0]))
+                .taskDefinitionKeyIn(taskKeys.toArray(new String[0]))
+                .active()
+                .list();
+            for (Task task : tasks) {
+                activeTaskIndex.add(applicationsByProcess.get(task.getProcessInstanceId()), task.getId(),
+                    task.getTaskDefinitionKey(), reviewTaskCatalog.roleOf(task.getTaskDefinitionKey()));
+            }
+        }
+    }
+    
     /**
      * HR hires a candidate (final step that sends congratulations email)
      */
     public Map<String, Object> hireCandidateByHR(String applicationId, String hrComments, String joiningDate, String department) {
+        return applicationLocks.withLock(applicationId, () -> doHireCandidateByHR(applicationId, hrComments, joiningDate, department));
+    }
+    
+    private Map<String, Object> doHireCandidateByHR(String applicationId, String hrComments, String joiningDate, String department) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Update application status to HIRED
-            appData.put("applicationStatus", "HIRED");
+            appData.setStatus(ApplicationStatus.HIRED);
             appData.put("hrHiringComments", hrComments);
             appData.put("joiningDate", joiningDate);
             appData.put("department", department);
             appData.put("hiredByHR", true);
             appData.put("hiredTimestamp", LocalDateTime.now().toString());
             appData.put("manualStatusOverride", true); // Prevent Camunda sync from overwriting
-            applicationStatusStore.put(applicationId, "HIRED");
             
             // Send congratulations email with onboarding link
             try {
@@ -938,8 +1451,9 @@ public class JobApplicationService {
             }
             
             // Update application data
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
-            applicationDataStore.put(applicationId, appData);
+            appData.touch();
+            store(appData);
+            journal(JournalEventType.CANDIDATE_HIRED, appData);
             
             result.put("success", true);
             result.put("message", "Candidate hired successfully by HR and email sent");
@@ -964,19 +1478,22 @@ public class JobApplicationService {
      * Manually update application status to ACCEPTED and send email (for testing/fixing)
      */
     public Map<String, Object> markApplicationAsAcceptedAndSendEmail(String applicationId) {
+        return applicationLocks.withLock(applicationId, () -> doMarkApplicationAsAcceptedAndSendEmail(applicationId));
+    }
+    
+    private Map<String, Object> doMarkApplicationAsAcceptedAndSendEmail(String applicationId) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Update status to ACCEPTED
-            appData.put("applicationStatus", "ACCEPTED");
-            applicationStatusStore.put(applicationId, "ACCEPTED");
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
+            appData.setStatus(ApplicationStatus.ACCEPTED);
+            appData.touch();
             
             // Send congratulations email with onboarding link
             try {
@@ -995,7 +1512,8 @@ public class JobApplicationService {
             }
             
             // Update application data
-            applicationDataStore.put(applicationId, appData);
+            store(appData);
+            journal(JournalEventType.APPLICATION_ACCEPTED, appData);
             
             result.put("success", true);
             result.put("message", "Application marked as ACCEPTED and email sent");
@@ -1018,29 +1536,145 @@ public class JobApplicationService {
         return "APP-" + System.currentTimeMillis() + "-" + 
                UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
+
+    /**
+     * Runs the action with every store and journal entry it makes held back until the
+     * surrounding transaction commits, as startImportedApplications does for new
+     * applications; a rollback discards them. Used by bulk decisions, whose chunk
+     * transaction rolls back the engine work of all its items together: without this their
+     * decisions would already be stored, journaled and streamed to dashboards. Reads for an
+     * update inside the action see the held-back records. Must run inside a transaction.
+     */
+    public <T> T storeAfterCommit(Supplier<T> action) {
+        if (TransactionSynchronizationManager.hasResource(DeferredStores.class)) {
+            return action.get();
+        }
+        DeferredStores deferred = new DeferredStores();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Ahead of the projection listeners, which then build on the stored decisions
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                // Stores made from here on, e.g. by the projection, go straight to the repository
+                TransactionSynchronizationManager.unbindResourceIfPossible(DeferredStores.class);
+                deferred.apply();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DeferredStores.class);
+            }
+        });
+        TransactionSynchronizationManager.bindResource(DeferredStores.class, deferred);
+        return action.get();
+    }
+
+    /**
+     * Private copy of the stored application for a mutation; store() publishes it
+     */
+    private ApplicationRecord loadForUpdate(String applicationId) {
+        DeferredStores deferred = deferredStores();
+        ApplicationRecord held = deferred != null ? deferred.load(applicationId) : null;
+        if (held != null) {
+            return held;
+        }
+        return applicationRepository.findById(applicationId).map(ApplicationRecord::mutableCopy).orElse(null);
+    }
+
+    /**
+     * Fresh working copy after an engine call. taskService.complete() runs the delegates
+     * and, on commit, the projection listener on this thread under the same lock; they
+     * store newer copies, so a copy loaded before the call must not be stored after it.
+     */
+    private ApplicationRecord reloadAfterEngineCall(String applicationId) {
+        ApplicationRecord current = loadForUpdate(applicationId);
+        if (current == null) {
+            throw new RuntimeException("Application not found: " + applicationId);
+        }
+        return current;
+    }
+
+    /**
+     * Saves a frozen snapshot of the working copy, which stays mutable for further changes,
+     * under the next change sequence number. Callers hold the application's lock, so the
+     * indexed state read first is the state before this change.
+     */
+    private void store(ApplicationRecord appData) {
+        DeferredStores deferred = deferredStores();
+        if (deferred != null) {
+            deferred.store(appData);
+            return;
+        }
+        String applicationId = appData.getApplicationId();
+        // Reentrant: most callers already hold it, new applications do not
+        applicationLocks.withLock(applicationId, () -> {
+            ApplicationStatus previousStatus = applicationIndex.statusOf(applicationId);
+            Set<ReviewRole> previousPendingRoles = applicationIndex.pendingRolesOf(applicationId);
+            long storedVersion = applicationRepository.findById(applicationId)
+                .map(ApplicationRecord::getVersion)
+                .orElse(0L);
+            
+            appData.nextVersion(storedVersion);
+            changeFeed.publish(appData, previousStatus, previousPendingRoles, () -> {
+                applicationRepository.save(appData);
+                applicationIndex.update(appData);
+            });
+        });
+    }
+    
+    private void journal(JournalEventType type, ApplicationRecord appData) {
+        DeferredStores deferred = deferredStores();
+        if (deferred != null) {
+            deferred.journal(type, appData);
+            return;
+        }
+        try {
+            applicationJournal.append(type, appData.getApplicationId(), appData.toStoredMap());
+        } catch (Exception e) {
+            // The repository already holds the change, only crash recovery is affected
+            logger.warn("Failed to journal {} for application {}: {}", type, appData.getApplicationId(), e.getMessage());
+        }
+    }
+
+    private static DeferredStores deferredStores() {
+        return (DeferredStores) TransactionSynchronizationManager.getResource(DeferredStores.class);
+    }
+
+    private ApplicationRecord newRecord(String applicationId) {
+        return new ApplicationRecord(workflowDefinitionService.getApplicationSchema(), applicationId);
+    }
     
     /**
      * Initiate onboarding process for an application
      */
     public Map<String, Object> initiateOnboarding(String applicationId, String joiningDate, 
                                                  String reportingManager, String department, String comments) {
+        return applicationLocks.withLock(applicationId, () -> doInitiateOnboarding(applicationId, joiningDate, reportingManager, department, comments));
+    }
+    
+    private Map<String, Object> doInitiateOnboarding(String applicationId, String joiningDate, 
+                                                     String reportingManager, String department, String comments) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Find the HR Review task for this application
-            String processInstanceId = (String) appData.get("processInstanceId");
+            String processInstanceId = appData.getProcessInstanceId();
             if (processInstanceId == null) {
                 throw new RuntimeException("No process instance found for application: " + applicationId);
             }
             
-            Task activeTask = findTaskForRole(processInstanceId, "hr");
-            if (activeTask == null) {
+            String activeTaskId = findTaskIdForRole(applicationId, processInstanceId, "hr");
+            if (activeTaskId == null) {
                 throw new RuntimeException("No active HR task found for application: " + applicationId);
             }
             
@@ -1052,21 +1686,23 @@ public class JobApplicationService {
             taskVariables.put("reportingManager", reportingManager);
             taskVariables.put("department", department);
             
-            // Update application data
-            appData.put("hrDecision", "onboarding");
-            appData.put("hrComments", comments);
-            appData.put("joiningDate", joiningDate);
-            appData.put("reportingManager", reportingManager);
-            appData.put("department", department);
-            appData.put("applicationStatus", "ONBOARDING_INITIATED");
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
-            
             // Complete the Camunda task
-            taskService.complete(activeTask.getId(), taskVariables);
+            taskService.complete(activeTaskId, taskVariables);
+            
+            // Update application data as stored after the engine call
+            ApplicationRecord current = reloadAfterEngineCall(applicationId);
+            current.setDecision(ReviewRole.HR, Decision.ONBOARDING, comments);
+            current.put("joiningDate", joiningDate);
+            current.put("reportingManager", reportingManager);
+            current.put("department", department);
+            if (current.getStatus() == appData.getStatus()) {
+                current.setStatus(ApplicationStatus.ONBOARDING_INITIATED);
+            }
+            current.touch();
             
             // Update stores
-            applicationDataStore.put(applicationId, appData);
-            applicationStatusStore.put(applicationId, "ONBOARDING_INITIATED");
+            store(current);
+            journal(JournalEventType.ONBOARDING_INITIATED, current);
             
             result.put("success", true);
             result.put("message", "Onboarding process initiated successfully");
@@ -1075,7 +1711,7 @@ public class JobApplicationService {
             result.put("reportingManager", reportingManager);
             result.put("department", department);
             result.put("timestamp", LocalDateTime.now().toString());
-            result.put("newStatus", "ONBOARDING_INITIATED");
+            result.put("newStatus", current.get("applicationStatus"));
             
             logger.info("Onboarding initiated for application {}: joining={}, manager={}, dept={}", 
                        applicationId, joiningDate, reportingManager, department);
@@ -1092,31 +1728,42 @@ public class JobApplicationService {
      * Get application data by ID
      */
     public Map<String, Object> getApplicationById(String applicationId) {
-        return applicationDataStore.get(applicationId);
+        return applicationRepository.findById(applicationId).orElse(null);
+    }
+    
+    /**
+     * Version of the application's stored state for ETags, null if it does not exist.
+     * Only reads the record's version and change sequence, so a conditional request
+     * needs neither the engine nor serialization.
+     */
+    public String getApplicationStateVersion(String applicationId) {
+        return applicationRepository.findById(applicationId)
+            .map(record -> record.getVersion() + "-" + record.getChangeSequence())
+            .orElse(null);
     }
     
     /**
      * Complete the candidate onboarding process
      */
     public Map<String, Object> completeOnboarding(String applicationId, Map<String, Object> onboardingData) {
+        return applicationLocks.withLock(applicationId, () -> doCompleteOnboarding(applicationId, onboardingData));
+    }
+    
+    private Map<String, Object> doCompleteOnboarding(String applicationId, Map<String, Object> onboardingData) {
         try {
             Map<String, Object> result = new HashMap<>();
             
             // Get application data
-            Map<String, Object> appData = applicationDataStore.get(applicationId);
+            ApplicationRecord appData = loadForUpdate(applicationId);
             if (appData == null) {
                 throw new RuntimeException("Application not found: " + applicationId);
             }
             
             // Find the Candidate Onboarding task for this application
-            String processInstanceId = (String) appData.get("processInstanceId");
+            String processInstanceId = appData.getProcessInstanceId();
             
-            // Update application data with comprehensive onboarding information
-            appData.putAll(onboardingData);
-            appData.put("applicationStatus", "ONBOARDING_COMPLETED");
-            appData.put("onboardingCompletedDate", LocalDateTime.now().toString());
-            appData.put("lastUpdatedTimestamp", LocalDateTime.now().toString());
-            appData.put("processCompleted", true);
+            // Outcome of ending the Camunda process, recorded with the onboarding data below
+            Map<String, Object> processOutcome = new HashMap<>();
             
             // Complete the Camunda process if it exists
             if (processInstanceId != null) {
@@ -1145,26 +1792,36 @@ public class JobApplicationService {
                     
                     if (processInstance == null) {
                         logger.info("Camunda process successfully ended for application: {}", applicationId);
-                        appData.put("camundaProcessEnded", true);
+                        processOutcome.put("camundaProcessEnded", true);
                     } else {
                         logger.warn("Camunda process still active for application: {}", applicationId);
-                        appData.put("camundaProcessEnded", false);
+                        processOutcome.put("camundaProcessEnded", false);
                     }
                     
                 } catch (Exception e) {
                     logger.warn("Failed to complete Camunda process for application {}: {}", applicationId, e.getMessage());
                     // Continue without Camunda - the onboarding is still complete
-                    appData.put("camundaProcessEnded", false);
-                    appData.put("camundaError", e.getMessage());
+                    processOutcome.put("camundaProcessEnded", false);
+                    processOutcome.put("camundaError", e.getMessage());
                 }
             } else {
                 logger.info("No Camunda process found for application: {}", applicationId);
-                appData.put("camundaProcessEnded", true);
+                processOutcome.put("camundaProcessEnded", true);
             }
             
+            // Update application data with comprehensive onboarding information, on the
+            // record as stored after the engine calls
+            ApplicationRecord current = reloadAfterEngineCall(applicationId);
+            current.putAll(onboardingData);
+            current.setStatus(ApplicationStatus.ONBOARDING_COMPLETED);
+            current.put("onboardingCompletedDate", LocalDateTime.now().toString());
+            current.touch();
+            current.put("processCompleted", true);
+            current.putAll(processOutcome);
+            
             // Update stores
-            applicationDataStore.put(applicationId, appData);
-            applicationStatusStore.put(applicationId, "ONBOARDING_COMPLETED");
+            store(current);
+            journal(JournalEventType.ONBOARDING_COMPLETED, current);
             
             // Create comprehensive result
             result.put("success", true);
@@ -1175,10 +1832,10 @@ public class JobApplicationService {
             result.put("processCompleted", true);
             result.put("candidateName", onboardingData.get("fullName"));
             result.put("joiningDate", onboardingData.get("expectedJoiningDate"));
-            result.put("camundaProcessEnded", appData.get("camundaProcessEnded"));
+            result.put("camundaProcessEnded", processOutcome.get("camundaProcessEnded"));
             
             logger.info("Comprehensive onboarding completed for application {} - Candidate: {} - Camunda Process Ended: {}", 
-                       applicationId, onboardingData.get("fullName"), appData.get("camundaProcessEnded"));
+                       applicationId, onboardingData.get("fullName"), processOutcome.get("camundaProcessEnded"));
             
             return result;
             
@@ -1187,4 +1844,42 @@ public class JobApplicationService {
             throw new RuntimeException("Failed to complete onboarding: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Stores and journal entries held back by storeAfterCommit, applied in call order
+     */
+    private final class DeferredStores {
+        private final Map<String, ApplicationRecord> latest = new HashMap<>();
+        private final List<Runnable> actions = new ArrayList<>();
+        
+        ApplicationRecord load(String applicationId) {
+            ApplicationRecord record = latest.get(applicationId);
+            return record != null ? record.mutableCopy() : null;
+        }
+        
+        void store(ApplicationRecord appData) {
+            ApplicationRecord held = appData.mutableCopy();
+            latest.put(held.getApplicationId(), held);
+            actions.add(() -> JobApplicationService.this.store(held));
+        }
+        
+        void journal(JournalEventType type, ApplicationRecord appData) {
+            // The held copy gets its version and change sequence when it is stored
+            ApplicationRecord held = latest.get(appData.getApplicationId());
+            ApplicationRecord entry = held != null ? held : appData.mutableCopy();
+            actions.add(() -> applicationLocks.withLock(entry.getApplicationId(),
+                () -> JobApplicationService.this.journal(type, entry)));
+        }
+        
+        void apply() {
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    // The engine has committed; later changes still go through
+                    logger.error("Failed to apply a change held back until commit: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
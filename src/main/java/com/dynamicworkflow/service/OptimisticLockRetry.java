@@ -0,0 +1,98 @@
+package com.dynamicworkflow.service;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries an action that failed with an OptimisticLockingException, e.g. two reviewers
+ * completing the TL and PM tasks in front of the parallel join at the same moment.
+ * Waits between attempts are randomized (full jitter over an exponential bound) so the
+ * competing commands don't collide again. The action must start from fresh state on
+ * every attempt.
+ *
+ * Inside a surrounding transaction the failed engine command has already marked it
+ * rollback-only, so the exception is passed on and the owner of the transaction
+ * decides whether to retry it as a whole.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticLockRetry(@Value("${workflow.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${workflow.retry.base-backoff-ms:20}") long baseBackoffMs,
+                               @Value("${workflow.retry.max-backoff-ms:500}") long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <T> T execute(String description, Supplier<T> action) {
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockingFailure(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (!retryable || attempt >= maxAttempts) {
+                    if (retryable) {
+                        exhausted.increment();
+                        logger.warn("Optimistic locking conflict on {} persisted after {} attempts", description, attempt);
+                    }
+                    throw e;
+                }
+                long backoff = backoff(attempt);
+                logger.debug("Optimistic locking conflict on {}, retrying in {}ms (attempt {} of {})",
+                            description, backoff, attempt + 1, maxAttempts);
+                sleep(backoff);
+            }
+        }
+    }
+
+    public long getConflicts() { return conflicts.sum(); }
+    public long getExhausted() { return exhausted.sum(); }
+
+    public static boolean isOptimisticLockingFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempt) {
+        long bound = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ReviewRole;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.task.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the review variables and open user tasks of many process instances with a fixed
+ * number of engine queries per batch (variableNameIn / processInstanceIdIn), instead of
+ * a variable and a task query per instance.
+ */
+public class ProcessStateReader {
+
+    /**
+     * The variables the application projection is built from
+     */
+    static final String[] SYNCED_VARIABLES = syncedVariables();
+
+    private final RuntimeService runtimeService;
+    private final TaskService taskService;
+    private final HistoryService historyService;
+    private final int batchSize;
+
+    public ProcessStateReader(ProcessEngine processEngine, int batchSize) {
+        this.runtimeService = processEngine.getRuntimeService();
+        this.taskService = processEngine.getTaskService();
+        this.historyService = processEngine.getHistoryService();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Variables and active tasks of running instances: two queries per batch
+     *
+     * @return a state for every requested process instance id
+     */
+    public Map<String, ProcessState> readActive(Collection<String> processInstanceIds) {
+        Map<String, ProcessState> states = emptyStates(processInstanceIds);
+        for (String[] batch : batches(processInstanceIds)) {
+            List<VariableInstance> variables = runtimeService.createVariableInstanceQuery()
+                .processInstanceIdIn(batch)
+                .variableNameIn(SYNCED_VARIABLES)
+                .disableBinaryFetching()
+                .disableCustomObjectDeserialization()
+                .list();
+            for (VariableInstance variable : variables) {
+                // Same view as runtimeService.getVariables(processInstanceId): process scope only
+                if (variable.getProcessInstanceId().equals(variable.getExecutionId())) {
+                    states.get(variable.getProcessInstanceId()).variables.put(variable.getName(), variable.getValue());
+                }
+            }
+
+            List<Task> tasks = taskService.createTaskQuery()
+                .processInstanceIdIn(batch)
+                .active()
+                .list();
+            for (Task task : tasks) {
+                states.get(task.getProcessInstanceId()).activeTasks.put(task.getId(), task.getTaskDefinitionKey());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Final variables of finished instances: one history query per batch
+     *
+     * @return a state for every requested process instance id, without active tasks
+     */
+    public Map<String, ProcessState> readEnded(Collection<String> processInstanceIds) {
+        Map<String, ProcessState> states = emptyStates(processInstanceIds);
+        for (String[] batch : batches(processInstanceIds)) {
+            List<HistoricVariableInstance> variables = historyService.createHistoricVariableInstanceQuery()
+                .processInstanceIdIn(batch)
+                .variableNameIn(SYNCED_VARIABLES)
+                .disableBinaryFetching()
+                .disableCustomObjectDeserialization()
+                .list();
+            for (HistoricVariableInstance variable : variables) {
+                states.get(variable.getProcessInstanceId()).variables.put(variable.getName(), variable.getValue());
+            }
+        }
+        return states;
+    }
+
+    private Map<String, ProcessState> emptyStates(Collection<String> processInstanceIds) {
+        Map<String, ProcessState> states = new LinkedHashMap<>();
+        for (String processInstanceId : processInstanceIds) {
+            states.put(processInstanceId, new ProcessState(processInstanceId));
+        }
+        return states;
+    }
+
+    private List<String[]> batches(Collection<String> processInstanceIds) {
+        List<String> ids = new ArrayList<>(processInstanceIds);
+        List<String[]> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            batches.add(ids.subList(from, Math.min(from + batchSize, ids.size())).toArray(new String[0]));
+        }
+        return batches;
+    }
+
+    private static String[] syncedVariables() {
+        List<String> names = new ArrayList<>();
+        for (ReviewRole role : ReviewRole.values()) {
+            names.add(role.getDecisionKey());
+            names.add(role.getCommentsKey());
+        }
+        names.add("offerCTC");
+        names.add("finalOfferCTC");
+        names.add("interviewRequired");
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * Review variables and open user tasks (taskId -> taskDefinitionKey) of one process instance
+     */
+    public static class ProcessState {
+        private final String processInstanceId;
+        private final Map<String, Object> variables = new HashMap<>();
+        private final Map<String, String> activeTasks = new LinkedHashMap<>();
+
+        ProcessState(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public String getProcessInstanceId() { return processInstanceId; }
+        public Map<String, Object> getVariables() { return variables; }
+        public Map<String, String> getActiveTasks() { return Collections.unmodifiableMap(activeTasks); }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dynamicworkflow.service;
 
+import com.dynamicworkflow.model.ApplicationSchema;
 import com.dynamicworkflow.model.WorkflowDefinition;
 import com.dynamicworkflow.model.WorkflowStep;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,9 +10,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Optional;
 
 @Service
@@ -26,6 +31,8 @@ public class WorkflowDefinitionService {
     private String workflowJsonPath;
     
     private WorkflowDefinition workflowDefinition;
+    private ApplicationSchema applicationSchema;
+    private String definitionDigest;
     
     public WorkflowDefinitionService(ResourceLoader resourceLoader, ObjectMapper objectMapper) {
         this.resourceLoader = resourceLoader;
@@ -36,8 +43,15 @@ public class WorkflowDefinitionService {
     public void loadWorkflowDefinition() {
         try {
             Resource resource = resourceLoader.getResource(workflowJsonPath);
-            workflowDefinition = objectMapper.readValue(resource.getInputStream(), WorkflowDefinition.class);
-            logger.info("Workflow definition loaded successfully: {}", workflowDefinition.getWorkflowName());
+            byte[] json;
+            try (InputStream in = resource.getInputStream()) {
+                json = StreamUtils.copyToByteArray(in);
+            }
+            workflowDefinition = objectMapper.readValue(json, WorkflowDefinition.class);
+            applicationSchema = ApplicationSchema.compile(workflowDefinition);
+            definitionDigest = digest(json);
+            logger.info("Workflow definition loaded successfully: {} ({} form fields)", 
+                       workflowDefinition.getWorkflowName(), applicationSchema.size());
         } catch (IOException e) {
             logger.error("Failed to load workflow definition from: {}", workflowJsonPath, e);
             throw new RuntimeException("Failed to load workflow definition", e);
@@ -48,6 +62,20 @@ public class WorkflowDefinitionService {
         return workflowDefinition;
     }
     
+    /**
+     * Digest of the definition file, changes whenever the definition does
+     */
+    public String getDefinitionDigest() {
+        return definitionDigest;
+    }
+    
+    /**
+     * Record layout for application data, compiled from the form fields of all steps
+     */
+    public ApplicationSchema getApplicationSchema() {
+        return applicationSchema;
+    }
+    
     public Optional<WorkflowStep> getStepById(String stepId) {
         return workflowDefinition.getSteps().stream()
                 .filter(step -> step.getStepId().equals(stepId))
@@ -92,4 +120,17 @@ public class WorkflowDefinitionService {
         Optional<WorkflowStep> step = getStepById(stepId);
         return step.isPresent() && step.get().getStepOrder() == 1;
     }
+    
+    private static String digest(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to digest workflow definition: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
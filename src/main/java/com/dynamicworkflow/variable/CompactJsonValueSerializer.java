@@ -0,0 +1,127 @@
+package com.dynamicworkflow.variable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractObjectValueSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores map and list process variables (applicantData, onboarding data, list form
+ * fields) as JSON instead of Java serialization, deflated once they pass a size
+ * threshold. The first byte of the stored value tells which. Only values that come
+ * back equal after a JSON round trip are handled: the top-level collection is one of
+ * a few plain JDK types, map keys are strings and leaves are strings, booleans,
+ * integers or doubles. Anything else is left to the Java serializer.
+ */
+public class CompactJsonValueSerializer extends AbstractObjectValueSerializer {
+
+    public static final String DATA_FORMAT = "application/x-compact-json";
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    private static final int MAX_DEPTH = 16;
+    private static final Set<Class<?>> TOP_LEVEL_TYPES = new HashSet<>(Arrays.asList(
+        HashMap.class, LinkedHashMap.class, TreeMap.class, ArrayList.class, LinkedList.class));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int deflateThreshold;
+
+    public CompactJsonValueSerializer(int deflateThreshold) {
+        super(DATA_FORMAT);
+        this.deflateThreshold = deflateThreshold;
+    }
+
+    @Override
+    public String getName() {
+        return "compact-json";
+    }
+
+    @Override
+    protected String getTypeNameForDeserialized(Object deserializedObject) {
+        return deserializedObject.getClass().getName();
+    }
+
+    @Override
+    protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(deserializedObject);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+        if (json.length < deflateThreshold) {
+            out.write(PLAIN);
+            out.write(json);
+        } else {
+            out.write(DEFLATED);
+            try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+                deflater.write(json);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    protected Object deserializeFromByteArray(byte[] object, String objectTypeName) throws Exception {
+        if (object.length == 0) {
+            throw new IOException("Empty " + DATA_FORMAT + " value");
+        }
+        Class<?> type = Class.forName(objectTypeName);
+        InputStream json = new ByteArrayInputStream(object, 1, object.length - 1);
+        if (object[0] == DEFLATED) {
+            json = new InflaterInputStream(json);
+        }
+        try (InputStream in = json) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    @Override
+    protected boolean isSerializationTextBased() {
+        return false;
+    }
+
+    @Override
+    protected boolean canSerializeValue(Object value) {
+        return value != null && TOP_LEVEL_TYPES.contains(value.getClass()) && isJsonCompatible(value, 0);
+    }
+
+    private static boolean isJsonCompatible(Object value, int depth) {
+        if (value == null || value instanceof String || value instanceof Boolean
+                || value instanceof Integer || value instanceof Double) {
+            return true;
+        }
+        if (depth >= MAX_DEPTH) {
+            return false;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isJsonCompatible(entry.getValue(), depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof List) {
+            for (Object element : (Collection<?>) value) {
+                if (!isJsonCompatible(element, depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
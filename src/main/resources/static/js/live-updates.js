@@ -0,0 +1,69 @@
+// Live dashboard updates over server-sent events
+//
+// Calls onChange whenever an application concerning the role changes, coalescing bursts
+// into one call. The browser reconnects on its own and resumes after the last event id;
+// a "reset" event means changes were missed, which a reload covers as well. Without
+// EventSource support, or while the stream is unavailable, the dashboard polls instead.
+function subscribeToApplicationChanges(role, onChange, fallbackIntervalMs) {
+    const debounceMs = 300;
+    let pending = null;
+    let pollTimer = null;
+
+    function changed() {
+        if (pending) {
+            return;
+        }
+        pending = setTimeout(() => {
+            pending = null;
+            onChange();
+        }, debounceMs);
+    }
+
+    function startPolling() {
+        if (!pollTimer) {
+            pollTimer = setInterval(onChange, fallbackIntervalMs);
+        }
+    }
+
+    function stopPolling() {
+        if (pollTimer) {
+            clearInterval(pollTimer);
+            pollTimer = null;
+        }
+    }
+
+    if (!window.EventSource) {
+        startPolling();
+        return null;
+    }
+
+    const url = '/api/job-applications/stream' + (role ? '?role=' + encodeURIComponent(role) : '');
+    const source = new EventSource(url);
+    let connectedBefore = false;
+
+    source.addEventListener('ready', () => {
+        stopPolling();
+        // Changes made while disconnected without a resumable id
+        if (connectedBefore) {
+            changed();
+        }
+        connectedBefore = true;
+    });
+    source.addEventListener('application', () => {
+        stopPolling();
+        changed();
+    });
+    source.addEventListener('reset', () => {
+        stopPolling();
+        changed();
+    });
+    source.onerror = () => {
+        if (source.readyState === EventSource.CLOSED) {
+            // Rejected outright (e.g. stream disabled); the browser won't retry
+            startPolling();
+        }
+    };
+
+    window.addEventListener('beforeunload', () => source.close());
+    return source;
+}
@@ -0,0 +1,115 @@
+package com.dynamicworkflow.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes synthetic events to a journal and measures append, snapshot and recovery time
+ * with and without a snapshot.
+ *
+ * Usage: JournalBenchmark &lt;work-dir&gt; [events]   (default 1,000,000 events)
+ */
+public class JournalBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int EVENTS_PER_APPLICATION = 5;
+    private static final String[] STATUSES = {
+        "STARTED", "IN_PROGRESS", "PENDING_HR_REVIEW", "HR_APPROVED", "PENDING_HEAD_HR_REVIEW"
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JournalBenchmark <work-dir> [events]");
+            System.exit(1);
+        }
+        benchmark(Paths.get(args[0]), args.length >= 2 ? Long.parseLong(args[1]) : 1_000_000L);
+    }
+
+    private static void benchmark(Path directory, long events) throws IOException {
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> existing = Files.list(directory)) {
+                if (existing.findAny().isPresent()) {
+                    System.err.println("Benchmark needs a new or empty directory: " + directory);
+                    System.exit(1);
+                }
+            }
+        }
+        long applications = Math.max(1, events / EVENTS_PER_APPLICATION);
+        System.out.printf("Writing %,d events for %,d applications to %s%n", events, applications, directory);
+
+        long start = System.nanoTime();
+        try (ApplicationJournal journal = ApplicationJournal.open(directory, SEGMENT_SIZE, false, 0)) {
+            for (long i = 0; i < events; i++) {
+                long application = i % applications;
+                journal.append(JournalEventType.STEP_SUBMITTED, "APP-" + application,
+                               syntheticState(application, (int) (i / applications)));
+            }
+        }
+        report("Append", start, events);
+
+        start = System.nanoTime();
+        try (ApplicationJournal journal = ApplicationJournal.open(directory, SEGMENT_SIZE, false, 0)) {
+            report("Recovery, full replay", start, events);
+            System.out.println("  " + journal.getRecoveryStats());
+
+            long snapshotStart = System.nanoTime();
+            journal.snapshot();
+            report("Snapshot", snapshotStart, applications);
+        }
+
+        start = System.nanoTime();
+        try (ApplicationJournal journal = ApplicationJournal.open(directory, SEGMENT_SIZE, false, 0)) {
+            report("Recovery from snapshot", start, applications);
+            System.out.println("  " + journal.getRecoveryStats());
+
+            // Typical restart: snapshot plus a tail of newer events
+            long tail = events / 10;
+            for (long i = 0; i < tail; i++) {
+                journal.append(JournalEventType.APPLICATION_APPROVED, "APP-" + (i % applications),
+                               syntheticState(i % applications, EVENTS_PER_APPLICATION));
+            }
+        }
+
+        start = System.nanoTime();
+        try (ApplicationJournal journal = ApplicationJournal.open(directory, SEGMENT_SIZE, false, 0)) {
+            report("Recovery from snapshot + tail", start, journal.getRecoveryStats().getReplayedEvents());
+            System.out.println("  " + journal.getRecoveryStats());
+
+            long decodeStart = System.nanoTime();
+            int decoded = journal.readAll().size();
+            report("Decoding all records", decodeStart, decoded);
+        }
+    }
+
+    private static Map<String, Object> syntheticState(long application, int version) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("applicationId", "APP-" + application);
+        state.put("applicationStatus", STATUSES[Math.min(version, STATUSES.length - 1)]);
+        state.put("processInstanceId", "pi-" + application);
+        state.put("currentStep", "experience-education");
+        state.put("lastUpdatedTimestamp", "2024-01-01T10:00:00." + version);
+        state.put("firstName", "First" + application);
+        state.put("lastName", "Last" + application);
+        state.put("email", "applicant" + application + "@example.com");
+        state.put("mobileNumber", "9876543210");
+        state.put("position", "Software Engineer");
+        state.put("expectedSalaryCTC", "1200000");
+        state.put("totalExperience", "5");
+        state.put("skills", "Java, Spring, Camunda");
+        state.put("hasValidReferral", false);
+        state.put("hrDecision", version > 2 ? "accept" : null);
+        return state;
+    }
+
+    private static void report(String phase, long startNanos, long items) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        System.out.printf("%-32s %,8d ms  (%,d items, %,.0f/s)%n",
+                          phase, millis, items, items * 1000.0 / Math.max(1, millis));
+    }
+}
@@ -0,0 +1,67 @@
+package com.dynamicworkflow.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApplicationRecordTest {
+
+    private final ApplicationSchema schema = ApplicationSchema.compile(new WorkflowDefinition());
+
+    @Test
+    void mapViewNeitherShowsNorAcceptsBookkeepingKeys() {
+        ApplicationRecord record = new ApplicationRecord(schema, "APP-1");
+        record.nextVersion(4);
+        record.setChangeSequence(17);
+
+        Map<String, Object> clientData = new HashMap<>();
+        clientData.put("version", 1000L);
+        clientData.put("changeSequence", 1000L);
+        clientData.put("firstName", "Ravi");
+        record.putAll(clientData);
+        record.remove("version");
+
+        assertThat(record.getVersion()).isEqualTo(5);
+        assertThat(record.getChangeSequence()).isEqualTo(17);
+        assertThat(record).doesNotContainKeys("version", "changeSequence");
+        assertThat(record.keySet()).doesNotContain("version", "changeSequence");
+        assertThat(record.get("firstName")).isEqualTo("Ravi");
+    }
+
+    @Test
+    void storedMapKeepsBookkeeping() {
+        ApplicationRecord record = new ApplicationRecord(schema, "APP-1");
+        record.setStatus(ApplicationStatus.PENDING_HR_REVIEW);
+        record.nextVersion(0);
+        record.setChangeSequence(42);
+
+        ApplicationRecord restored = ApplicationRecord.fromMap(schema, "APP-1", record.toStoredMap());
+
+        assertThat(restored.getVersion()).isEqualTo(1);
+        assertThat(restored.getChangeSequence()).isEqualTo(42);
+        assertThat(restored.getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+        assertThat(restored).isEqualTo(record);
+    }
+
+    @Test
+    void mapViewWalksTheSlotsInStoredOrder() {
+        ApplicationRecord record = new ApplicationRecord(schema, "APP-1");
+        record.setStatus(ApplicationStatus.PENDING_HR_REVIEW);
+        record.put("firstName", "Ravi");
+        record.put("hasValidReferral", true);
+        record.put("onboardingNotes", "Laptop ordered");
+        record.put("joiningDate", 20240101);
+        record.nextVersion(0);
+
+        Map<String, Object> expected = record.toStoredMap();
+        expected.remove("version");
+
+        assertThat(record).hasSize(expected.size());
+        assertThat(new ArrayList<>(record.entrySet())).containsExactlyElementsOf(expected.entrySet());
+        assertThat(record.freeze().entrySet()).hasSize(expected.size());
+    }
+}
@@ -0,0 +1,251 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.Decision;
+import com.dynamicworkflow.model.ReviewRole;
+import com.dynamicworkflow.repository.ApplicationRepository;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.camunda.bpm.engine.task.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The team lead approves through approveApplication while the project manager's task
+ * is completed by another node at the same moment, so the team lead's command loses the
+ * race at the recruitment workflow's TL/PM join. The approval must be retried from a
+ * fresh copy and leave both decisions and the Head HR review on the stored record.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:approval-join-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "camunda.bpm.process-engine-name=approvalJoinTest",
+    "workflow.store.archive.dir=./target/test-data/approval-join/archive",
+    "workflow.journal.dir=./target/test-data/approval-join/journal",
+    "workflow.history.side-log=./target/test-data/approval-join/history/variables.log",
+    "workflow.import.spool-dir=./target/test-data/approval-join/imports"
+})
+@ActiveProfiles("test")
+class ApprovalJoinRetryTest {
+
+    private static final String TEAM_LEAD_TASK = "TeamLeadReviewTask";
+    private static final String PROJECT_MANAGER_TASK = "ProjectManagerReviewTask";
+
+    @Autowired
+    private JobApplicationService jobApplicationService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationChangeFeed changeFeed;
+
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JoinRace joinRace;
+
+    @Test
+    void approvalLosingTheJoinIsRetriedAndStoresBothDecisions() throws Exception {
+        String applicationId = submittedApplication();
+        jobApplicationService.approveApplication(applicationId, "hr", "Strong profile", null);
+        String processInstanceId = record(applicationId).getProcessInstanceId();
+        Task projectManagerTask = taskService.createTaskQuery().processInstanceId(processInstanceId)
+            .taskDefinitionKey(PROJECT_MANAGER_TASK).singleResult();
+        long sequenceBefore = changeFeed.getLatestSequence();
+        long conflictsBefore = optimisticLockRetry.getConflicts();
+        long exhaustedBefore = optimisticLockRetry.getExhausted();
+
+        joinRace.arm();
+        ExecutorService reviewers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<String, Object>> teamLead = reviewers.submit(() ->
+                jobApplicationService.approveApplication(applicationId, "tl", "Good fit", null));
+            // Another node: completes the task directly, without this node's application lock
+            Future<?> projectManager = reviewers.submit(() -> {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("pmDecision", "accept");
+                variables.put("pmComments", "Good fit");
+                taskService.complete(projectManagerTask.getId(), variables);
+            });
+            projectManager.get(30, TimeUnit.SECONDS);
+            assertThat(teamLead.get(30, TimeUnit.SECONDS).get("success")).isEqualTo(true);
+        } finally {
+            reviewers.shutdownNow();
+        }
+
+        assertThat(optimisticLockRetry.getConflicts()).isGreaterThan(conflictsBefore);
+        assertThat(optimisticLockRetry.getExhausted()).isEqualTo(exhaustedBefore);
+        assertThat(taskService.createTaskQuery().processInstanceId(processInstanceId)
+            .taskDefinitionKey("HeadHRReviewTask").count()).isEqualTo(1);
+
+        ApplicationRecord record = record(applicationId);
+        assertThat(record.getDecision(ReviewRole.HR)).isEqualTo(Decision.ACCEPT);
+        assertThat(record.getDecision(ReviewRole.TEAM_LEAD)).isEqualTo(Decision.ACCEPT);
+        assertThat(record.getDecision(ReviewRole.PROJECT_MANAGER)).isEqualTo(Decision.ACCEPT);
+        assertThat(record.getStatus()).isEqualTo(ApplicationStatus.PENDING_HEAD_HR_REVIEW);
+
+        // Every change of the retried approval was stored on top of the previous one
+        List<Long> versions = new ArrayList<>();
+        for (ApplicationChangeFeed.Change change : changeFeed.since(sequenceBefore, Integer.MAX_VALUE)) {
+            if (applicationId.equals(change.getApplicationId())) {
+                versions.add(change.getVersion());
+            }
+        }
+        assertThat(versions).isNotEmpty().isSorted().doesNotHaveDuplicates();
+        assertThat(record.getVersion()).isEqualTo(versions.get(versions.size() - 1));
+    }
+
+    private String submittedApplication() {
+        String applicationId = jobApplicationService.startApplication().getApplicationId();
+
+        Map<String, Object> personalInfo = new HashMap<>();
+        personalInfo.put("currentStep", "personal-info");
+        personalInfo.put("firstName", "Rohan");
+        personalInfo.put("lastName", "Mehta");
+        personalInfo.put("email", "rohan.mehta@example.com");
+        personalInfo.put("mobileNumber", "9876543210");
+        personalInfo.put("dateOfBirth", "1990-08-21");
+        personalInfo.put("gender", "male");
+        jobApplicationService.submitStep(applicationId, personalInfo);
+
+        Map<String, Object> jobPreferences = new HashMap<>();
+        jobPreferences.put("currentStep", "job-preferences");
+        jobPreferences.put("position", "software-engineer");
+        jobPreferences.put("expectedSalaryCTC", "18");
+        jobPreferences.put("noticePeriod", "2-months");
+        jobApplicationService.submitStep(applicationId, jobPreferences);
+
+        Map<String, Object> experience = new HashMap<>();
+        experience.put("currentStep", "experience-education");
+        experience.put("totalExperience", "8");
+        experience.put("highestEducation", "B.Tech");
+        experience.put("skills", "Java, Camunda");
+        jobApplicationService.submitStep(applicationId, experience);
+
+        assertThat(record(applicationId).getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+        return applicationId;
+    }
+
+    private ApplicationRecord record(String applicationId) {
+        return applicationRepository.findById(applicationId).orElseThrow(AssertionError::new);
+    }
+
+    /**
+     * Holds the first TL and PM completions open until both have started, then lets the
+     * PM command commit before the TL command flushes, so the TL side always conflicts.
+     * Retries pass straight through.
+     */
+    static class JoinRace {
+        private final AtomicBoolean teamLeadArmed = new AtomicBoolean();
+        private final AtomicBoolean projectManagerArmed = new AtomicBoolean();
+        private final CountDownLatch bothCompleting = new CountDownLatch(2);
+        private final CountDownLatch projectManagerCommitted = new CountDownLatch(1);
+
+        void arm() {
+            teamLeadArmed.set(true);
+            projectManagerArmed.set(true);
+        }
+
+        void onComplete(DelegateTask task) {
+            String taskDefinitionKey = task.getTaskDefinitionKey();
+            if (TEAM_LEAD_TASK.equals(taskDefinitionKey) && teamLeadArmed.getAndSet(false)) {
+                // Read the execution tree now, so the join works from the state before the PM commit
+                ((ExecutionEntity) task.getExecution()).getProcessInstance().getExecutions();
+                bothCompleting.countDown();
+                await(bothCompleting);
+                await(projectManagerCommitted);
+            } else if (PROJECT_MANAGER_TASK.equals(taskDefinitionKey) && projectManagerArmed.getAndSet(false)) {
+                // Signalled ahead of the projection, which waits for the TL side's application lock
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public int getOrder() {
+                        return Ordered.HIGHEST_PRECEDENCE;
+                    }
+
+                    @Override
+                    public void afterCommit() {
+                        projectManagerCommitted.countDown();
+                    }
+                });
+                bothCompleting.countDown();
+                await(bothCompleting);
+            }
+        }
+
+        private static void await(CountDownLatch latch) {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class JoinRaceConfiguration {
+
+        @Bean
+        JoinRace joinRace() {
+            return new JoinRace();
+        }
+
+        @Bean
+        ProcessEnginePlugin joinRacePlugin(JoinRace joinRace) {
+            TaskListener listener = joinRace::onComplete;
+            BpmnParseListener parseListener = new AbstractBpmnParseListener() {
+                @Override
+                public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+                    ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition()
+                        .addTaskListener(TaskListener.EVENTNAME_COMPLETE, listener);
+                }
+            };
+            return new AbstractProcessEnginePlugin() {
+                @Override
+                public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+                    List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+                    if (parseListeners == null) {
+                        parseListeners = new ArrayList<>();
+                        processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+                    }
+                    parseListeners.add(parseListener);
+                }
+            };
+        }
+    }
+}
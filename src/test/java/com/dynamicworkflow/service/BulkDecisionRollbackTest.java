@@ -0,0 +1,168 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.Decision;
+import com.dynamicworkflow.model.ReviewRole;
+import com.dynamicworkflow.repository.ApplicationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * One item of a bulk chunk fails, so the chunk is rolled back and its items are retried
+ * one by one. The other items' decisions must not reach the store or the change feed
+ * before their own retry has committed.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulk-decision-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "camunda.bpm.process-engine-name=bulkDecisionTest",
+    "workflow.store.archive.dir=./target/test-data/bulk-decision/archive",
+    "workflow.journal.dir=./target/test-data/bulk-decision/journal",
+    "workflow.history.side-log=./target/test-data/bulk-decision/history/variables.log",
+    "workflow.import.spool-dir=./target/test-data/bulk-decision/imports"
+})
+@ActiveProfiles("test")
+class BulkDecisionRollbackTest {
+
+    private static final String RETRY_PREFIX = "bulk decision ";
+
+    @Autowired
+    private JobApplicationService jobApplicationService;
+
+    @Autowired
+    private BulkDecisionService bulkDecisionService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationChangeFeed changeFeed;
+
+    @SpyBean
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Test
+    void rolledBackChunkStoresNothingUntilItsItemsAreRetried() {
+        String approved = submittedApplication(0);
+        String rejected = submittedApplication(1);
+        String failing = submittedApplication(2);
+        long versionBefore = record(approved).getVersion();
+        long failingVersionBefore = record(failing).getVersion();
+        long sequenceBefore = changeFeed.getLatestSequence();
+
+        // Taken as each item's own retry starts, i.e. after the chunk and the earlier retries
+        Map<Integer, Observed> observedAtRetry = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            String description = invocation.getArgument(0);
+            if (description.startsWith(RETRY_PREFIX)) {
+                observedAtRetry.put(Integer.parseInt(description.substring(RETRY_PREFIX.length())),
+                                    new Observed(record(approved), record(rejected), changeFeed.getLatestSequence()));
+            }
+            return invocation.callRealMethod();
+        }).when(optimisticLockRetry).execute(anyString(), any());
+
+        Map<String, Object> response = bulkDecisionService.applyDecisions(Arrays.asList(
+            item(approved, "hr", "approve"),
+            item(rejected, "hr", "reject"),
+            // No team lead task yet: fails in the chunk and again on its own
+            item(failing, "tl", "approve")));
+
+        assertThat(response.get("succeeded")).isEqualTo(2);
+        assertThat(response.get("failed")).isEqualTo(1);
+
+        // The chunk was rolled back: nothing of it was stored, journaled or published
+        Observed beforeRetries = observedAtRetry.get(0);
+        assertThat(beforeRetries.latestSequence).isEqualTo(sequenceBefore);
+        assertThat(beforeRetries.approved.getDecision(ReviewRole.HR)).isNull();
+        assertThat(beforeRetries.approved.getVersion()).isEqualTo(versionBefore);
+        assertThat(beforeRetries.approved.getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+        assertThat(beforeRetries.rejected.getDecision(ReviewRole.HR)).isNull();
+        assertThat(beforeRetries.rejected.get("rejectionMessage")).isNull();
+
+        // The first retry committed, the second had not started
+        Observed afterFirstRetry = observedAtRetry.get(1);
+        assertThat(afterFirstRetry.latestSequence).isGreaterThan(sequenceBefore);
+        assertThat(afterFirstRetry.approved.getDecision(ReviewRole.HR)).isEqualTo(Decision.ACCEPT);
+        assertThat(afterFirstRetry.rejected.getDecision(ReviewRole.HR)).isNull();
+        assertThat(afterFirstRetry.rejected.getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+
+        assertThat(record(approved).getStatus()).isEqualTo(ApplicationStatus.HR_APPROVED);
+        assertThat(record(rejected).getDecision(ReviewRole.HR)).isEqualTo(Decision.REJECT);
+        assertThat(record(rejected).getStatus()).isEqualTo(ApplicationStatus.REJECTED_BY_HR);
+        assertThat(record(failing).getVersion()).isEqualTo(failingVersionBefore);
+
+        List<ApplicationChangeFeed.Change> changes = changeFeed.since(sequenceBefore, Integer.MAX_VALUE);
+        assertThat(changes).isNotNull();
+        assertThat(changes).noneMatch(change -> failing.equals(change.getApplicationId()));
+    }
+
+    private String submittedApplication(int applicant) {
+        String applicationId = jobApplicationService.startApplication().getApplicationId();
+
+        Map<String, Object> personalInfo = new HashMap<>();
+        personalInfo.put("currentStep", "personal-info");
+        personalInfo.put("firstName", "Asha");
+        personalInfo.put("lastName", "Verma");
+        personalInfo.put("email", "bulk" + applicant + "@example.com");
+        personalInfo.put("mobileNumber", "9876543210");
+        personalInfo.put("dateOfBirth", "1992-03-14");
+        personalInfo.put("gender", "female");
+        jobApplicationService.submitStep(applicationId, personalInfo);
+
+        Map<String, Object> jobPreferences = new HashMap<>();
+        jobPreferences.put("currentStep", "job-preferences");
+        jobPreferences.put("position", "software-engineer");
+        jobPreferences.put("expectedSalaryCTC", "14");
+        jobPreferences.put("noticePeriod", "1-month");
+        jobApplicationService.submitStep(applicationId, jobPreferences);
+
+        Map<String, Object> experience = new HashMap<>();
+        experience.put("currentStep", "experience-education");
+        experience.put("totalExperience", "6");
+        experience.put("highestEducation", "M.Tech");
+        experience.put("skills", "Java, Spring");
+        jobApplicationService.submitStep(applicationId, experience);
+
+        assertThat(record(applicationId).getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+        return applicationId;
+    }
+
+    private static Map<String, Object> item(String applicationId, String role, String decision) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("applicationId", applicationId);
+        item.put("role", role);
+        item.put("decision", decision);
+        item.put("comments", "Bulk review");
+        return item;
+    }
+
+    private ApplicationRecord record(String applicationId) {
+        return applicationRepository.findById(applicationId).orElseThrow(AssertionError::new);
+    }
+
+    private static final class Observed {
+        private final ApplicationRecord approved;
+        private final ApplicationRecord rejected;
+        private final long latestSequence;
+
+        private Observed(ApplicationRecord approved, ApplicationRecord rejected, long latestSequence) {
+            this.approved = approved;
+            this.rejected = rejected;
+            this.latestSequence = latestSequence;
+        }
+    }
+}
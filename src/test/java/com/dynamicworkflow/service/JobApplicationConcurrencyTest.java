@@ -0,0 +1,202 @@
+package com.dynamicworkflow.service;
+
+import com.dynamicworkflow.model.ApplicationRecord;
+import com.dynamicworkflow.model.ApplicationStatus;
+import com.dynamicworkflow.model.Decision;
+import com.dynamicworkflow.model.ReviewRole;
+import com.dynamicworkflow.repository.ApplicationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several threads submit, approve and reject the same applications at once. Every
+ * update must survive and every application's versions must only increase.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JobApplicationConcurrencyTest {
+
+    private static final int APPLICATIONS = 12;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private JobApplicationService jobApplicationService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationChangeFeed changeFeed;
+
+    private ExecutorService workers;
+
+    @BeforeEach
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void concurrentSubmissionsAndDecisionsLoseNoUpdates() throws Exception {
+        long firstSequence = changeFeed.getLatestSequence();
+        List<String> applicationIds = new ArrayList<>();
+        for (int i = 0; i < APPLICATIONS; i++) {
+            applicationIds.add(jobApplicationService.startApplication().getApplicationId());
+        }
+
+        // Each applicant fills in the form steps while the others do the same
+        List<Runnable> submissions = new ArrayList<>();
+        for (int i = 0; i < applicationIds.size(); i++) {
+            String applicationId = applicationIds.get(i);
+            int applicant = i;
+            submissions.add(() -> submitAllSteps(applicationId, applicant));
+        }
+        assertThat(runTogether(submissions)).containsOnlyNulls();
+        for (String applicationId : applicationIds) {
+            assertThat(record(applicationId).getStatus()).isEqualTo(ApplicationStatus.PENDING_HR_REVIEW);
+        }
+
+        // HR approves and rejects every application from two threads: exactly one wins
+        Map<String, Decision> hrDecisions = new ConcurrentHashMap<>();
+        List<Runnable> hrReviews = new ArrayList<>();
+        for (String applicationId : applicationIds) {
+            hrReviews.add(() -> {
+                jobApplicationService.approveApplication(applicationId, "hr", "Strong profile", null);
+                hrDecisions.put(applicationId, Decision.ACCEPT);
+            });
+            hrReviews.add(() -> {
+                jobApplicationService.rejectApplication(applicationId, "hr", "Not a fit");
+                hrDecisions.put(applicationId, Decision.REJECT);
+            });
+        }
+        Collections.shuffle(hrReviews);
+        List<Throwable> hrFailures = runTogether(hrReviews);
+        assertThat(hrDecisions).hasSize(APPLICATIONS);
+        assertThat(hrFailures.stream().filter(failure -> failure != null)).hasSize(APPLICATIONS);
+
+        // TL and PM approve together, with a client retry of the TL approval on top
+        List<Runnable> parallelReviews = new ArrayList<>();
+        hrDecisions.forEach((applicationId, decision) -> {
+            if (decision == Decision.ACCEPT) {
+                parallelReviews.add(() -> jobApplicationService.approveApplication(applicationId, "tl", "Good fit", null));
+                parallelReviews.add(() -> jobApplicationService.approveApplication(applicationId, "pm", "Good fit", null));
+                parallelReviews.add(() -> jobApplicationService.approveApplication(applicationId, "tl", "Good fit", null));
+            }
+        });
+        Collections.shuffle(parallelReviews);
+        assertThat(runTogether(parallelReviews)).containsOnlyNulls();
+
+        for (String applicationId : applicationIds) {
+            ApplicationRecord record = record(applicationId);
+            assertThat(record.get("lastName")).isEqualTo("Sharma");
+            assertThat(record.get("skills")).isEqualTo("Java, Camunda");
+            assertThat(record.getDecision(ReviewRole.HR)).isEqualTo(hrDecisions.get(applicationId));
+
+            if (hrDecisions.get(applicationId) == Decision.ACCEPT) {
+                assertThat(record.getDecision(ReviewRole.TEAM_LEAD)).isEqualTo(Decision.ACCEPT);
+                assertThat(record.getDecision(ReviewRole.PROJECT_MANAGER)).isEqualTo(Decision.ACCEPT);
+                assertThat(record.getStatus()).isEqualTo(ApplicationStatus.PENDING_HEAD_HR_REVIEW);
+            } else {
+                assertThat(record.getStatus()).isEqualTo(ApplicationStatus.REJECTED_BY_HR);
+                // Stored by SendRejectionDelegate while the rejection completed its task
+                assertThat(record.get("rejectionMessage")).isNotNull();
+                assertThat(record.get("notificationSent")).isEqualTo(true);
+            }
+        }
+
+        // Every store moved the version up by one from the stored version
+        List<ApplicationChangeFeed.Change> changes = changeFeed.since(firstSequence, Integer.MAX_VALUE);
+        assertThat(changes).isNotNull();
+        Map<String, List<Long>> versions = new LinkedHashMap<>();
+        for (ApplicationChangeFeed.Change change : changes) {
+            versions.computeIfAbsent(change.getApplicationId(), id -> new ArrayList<>()).add(change.getVersion());
+        }
+        for (String applicationId : applicationIds) {
+            List<Long> applicationVersions = versions.get(applicationId);
+            for (int i = 0; i < applicationVersions.size(); i++) {
+                assertThat(applicationVersions.get(i)).isEqualTo(i + 1L);
+            }
+            assertThat(record(applicationId).getVersion()).isEqualTo(applicationVersions.size());
+        }
+    }
+
+    private void submitAllSteps(String applicationId, int applicant) {
+        Map<String, Object> personalInfo = new HashMap<>();
+        personalInfo.put("currentStep", "personal-info");
+        personalInfo.put("firstName", "Ravi");
+        personalInfo.put("lastName", "Sharma");
+        personalInfo.put("email", "applicant" + applicant + "@example.com");
+        personalInfo.put("mobileNumber", "9876543210");
+        personalInfo.put("dateOfBirth", "1990-05-01");
+        personalInfo.put("gender", "male");
+        jobApplicationService.submitStep(applicationId, personalInfo);
+
+        Map<String, Object> jobPreferences = new HashMap<>();
+        jobPreferences.put("currentStep", "job-preferences");
+        jobPreferences.put("position", "software-engineer");
+        jobPreferences.put("expectedSalaryCTC", "12");
+        jobPreferences.put("noticePeriod", "1-month");
+        jobApplicationService.submitStep(applicationId, jobPreferences);
+
+        Map<String, Object> experience = new HashMap<>();
+        experience.put("currentStep", "experience-education");
+        experience.put("totalExperience", "5");
+        experience.put("highestEducation", "B.Tech");
+        experience.put("skills", "Java, Camunda");
+        jobApplicationService.submitStep(applicationId, experience);
+    }
+
+    private ApplicationRecord record(String applicationId) {
+        return applicationRepository.findById(applicationId).orElseThrow(AssertionError::new);
+    }
+
+    /**
+     * Releases all actions at once
+     *
+     * @return per action the exception it threw, null when it succeeded
+     */
+    private List<Throwable> runTogether(List<Runnable> actions) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Throwable>> outcomes = new ArrayList<>();
+        for (Runnable action : actions) {
+            outcomes.add(workers.submit(() -> {
+                start.await();
+                try {
+                    action.run();
+                    return null;
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Throwable> outcome : outcomes) {
+            failures.add(outcome.get(60, TimeUnit.SECONDS));
+        }
+        return failures;
+    }
+}
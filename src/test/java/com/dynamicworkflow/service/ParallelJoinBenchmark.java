@@ -0,0 +1,123 @@
+package com.dynamicworkflow.service;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Completes the two review tasks in front of a parallel join from two threads at the
+ * same moment, as TL and PM approving together do, on an in-memory H2 engine: once
+ * without retries and once through OptimisticLockRetry.
+ *
+ * Usage: ParallelJoinBenchmark [instances]   (default 500)
+ */
+public class ParallelJoinBenchmark {
+
+    private static final String PROCESS_KEY = "join-benchmark";
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        run(instances, null);
+        run(instances, new OptimisticLockRetry(5, 20, 500));
+    }
+
+    private static void run(int instances, OptimisticLockRetry retry) throws Exception {
+        StandaloneInMemProcessEngineConfiguration configuration = new StandaloneInMemProcessEngineConfiguration();
+        configuration.setJdbcUrl("jdbc:h2:mem:join-benchmark-" + (retry != null ? "retry" : "plain") + ";DB_CLOSE_DELAY=-1");
+        configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+        configuration.setHistory(ProcessEngineConfiguration.HISTORY_FULL);
+        configuration.setJobExecutorActivate(false);
+        configuration.setMetricsEnabled(false);
+        ProcessEngine processEngine = configuration.buildProcessEngine();
+        ExecutorService reviewers = Executors.newFixedThreadPool(2);
+
+        try {
+            TaskService taskService = processEngine.getTaskService();
+            processEngine.getRepositoryService().createDeployment()
+                .addModelInstance(PROCESS_KEY + ".bpmn", model())
+                .deploy();
+
+            AtomicLong failures = new AtomicLong();
+            AtomicLong totalNanos = new AtomicLong();
+            LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+            long start = System.nanoTime();
+            for (int i = 0; i < instances; i++) {
+                ProcessInstance processInstance = processEngine.getRuntimeService()
+                    .startProcessInstanceByKey(PROCESS_KEY, "APP-" + i);
+                List<Task> tasks = taskService.createTaskQuery().processInstanceId(processInstance.getId()).list();
+                CyclicBarrier together = new CyclicBarrier(tasks.size());
+                List<Future<?>> completions = new ArrayList<>();
+                for (Task task : tasks) {
+                    completions.add(reviewers.submit(() -> {
+                        together.await();
+                        long begin = System.nanoTime();
+                        try {
+                            if (retry != null) {
+                                retry.execute("join " + task.getId(), () -> {
+                                    taskService.complete(task.getId());
+                                    return null;
+                                });
+                            } else {
+                                taskService.complete(task.getId());
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        long nanos = System.nanoTime() - begin;
+                        totalNanos.addAndGet(nanos);
+                        maxNanos.accumulate(nanos);
+                        return null;
+                    }));
+                }
+                for (Future<?> completion : completions) {
+                    completion.get();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long joined = taskService.createTaskQuery().taskDefinitionKey("HeadHRReviewTask").count();
+            long completions = 2L * instances;
+            System.out.printf("%n%s, %,d instances%n", retry != null ? "With OptimisticLockRetry" : "Without retry", instances);
+            System.out.printf("  %-26s %,8d%n", "Joined instances", joined);
+            System.out.printf("  %-26s %,8d%n", "Failed completions", failures.get());
+            if (retry != null) {
+                System.out.printf("  %-26s %,8d%n", "Conflicts retried", retry.getConflicts() - retry.getExhausted());
+            }
+            System.out.printf("  %-26s %,8d us%n", "Mean completion", TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / completions));
+            System.out.printf("  %-26s %,8d us%n", "Max completion", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+            System.out.printf("  %-26s %,8d ms%n", "Total", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } finally {
+            reviewers.shutdownNow();
+            processEngine.close();
+        }
+    }
+
+    private static BpmnModelInstance model() {
+        return Bpmn.createExecutableProcess(PROCESS_KEY)
+            .startEvent()
+            .parallelGateway("ParallelReviewGateway")
+            .userTask("TeamLeadReviewTask")
+            .parallelGateway("ParallelJoinGateway")
+            .userTask("HeadHRReviewTask")
+            .endEvent()
+            .moveToNode("ParallelReviewGateway")
+            .userTask("ProjectManagerReviewTask")
+            .connectTo("ParallelJoinGateway")
+            .done();
+    }
+}
@@ -0,0 +1,124 @@
+package com.dynamicworkflow.service;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TL and PM complete their tasks in front of the parallel join from two threads. Both
+ * transactions are held open until the other one has started, so the second to reach
+ * the join always fails with an optimistic locking conflict and has to be retried.
+ */
+class ParallelJoinRetryTest {
+
+    private static final String PROCESS_KEY = "join-retry";
+
+    private final CountDownLatch bothCompleting = new CountDownLatch(2);
+    private ProcessEngine processEngine;
+    private ExecutorService reviewers;
+
+    @BeforeEach
+    void startEngine() {
+        Map<Object, Object> beans = new HashMap<>();
+        beans.put("awaitOtherReviewer", (TaskListener) task -> awaitOtherReviewer());
+
+        StandaloneInMemProcessEngineConfiguration configuration = new StandaloneInMemProcessEngineConfiguration();
+        configuration.setJdbcUrl("jdbc:h2:mem:join-retry-test;DB_CLOSE_DELAY=-1");
+        configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+        configuration.setJobExecutorActivate(false);
+        configuration.setMetricsEnabled(false);
+        configuration.setBeans(beans);
+        processEngine = configuration.buildProcessEngine();
+        processEngine.getRepositoryService().createDeployment()
+            .addModelInstance(PROCESS_KEY + ".bpmn", model())
+            .deploy();
+
+        reviewers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stopEngine() {
+        reviewers.shutdownNow();
+        processEngine.close();
+    }
+
+    @Test
+    void conflictingReviewsAreRetriedAndBothDecisionsRecorded() throws Exception {
+        TaskService taskService = processEngine.getTaskService();
+        OptimisticLockRetry retry = new OptimisticLockRetry(5, 5, 50);
+        ProcessInstance processInstance = processEngine.getRuntimeService()
+            .startProcessInstanceByKey(PROCESS_KEY, "APP-1");
+        Task teamLeadTask = taskService.createTaskQuery().processInstanceId(processInstance.getId())
+            .taskDefinitionKey("TeamLeadReviewTask").singleResult();
+        Task projectManagerTask = taskService.createTaskQuery().processInstanceId(processInstance.getId())
+            .taskDefinitionKey("ProjectManagerReviewTask").singleResult();
+
+        Future<?> teamLead = reviewers.submit(() -> retry.execute("TL review", () -> {
+            taskService.complete(teamLeadTask.getId(), Collections.singletonMap("tlDecision", "accept"));
+            return null;
+        }));
+        Future<?> projectManager = reviewers.submit(() -> retry.execute("PM review", () -> {
+            taskService.complete(projectManagerTask.getId(), Collections.singletonMap("pmDecision", "accept"));
+            return null;
+        }));
+        teamLead.get(30, TimeUnit.SECONDS);
+        projectManager.get(30, TimeUnit.SECONDS);
+
+        assertThat(retry.getConflicts()).isGreaterThanOrEqualTo(1);
+        assertThat(retry.getExhausted()).isZero();
+        assertThat(taskService.createTaskQuery().processInstanceId(processInstance.getId())
+            .taskDefinitionKey("HeadHRReviewTask").count()).isEqualTo(1);
+        assertThat(processEngine.getRuntimeService().getVariable(processInstance.getId(), "tlDecision"))
+            .isEqualTo("accept");
+        assertThat(processEngine.getRuntimeService().getVariable(processInstance.getId(), "pmDecision"))
+            .isEqualTo("accept");
+    }
+
+    /**
+     * First attempts wait inside their transaction for the other reviewer; retries pass
+     */
+    private void awaitOtherReviewer() {
+        bothCompleting.countDown();
+        try {
+            bothCompleting.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BpmnModelInstance model() {
+        return Bpmn.createExecutableProcess(PROCESS_KEY)
+            .startEvent()
+            .parallelGateway("ParallelReviewGateway")
+            .userTask("TeamLeadReviewTask")
+                .camundaTaskListenerDelegateExpression(TaskListener.EVENTNAME_COMPLETE, "${awaitOtherReviewer}")
+            .parallelGateway("ParallelJoinGateway")
+            .userTask("HeadHRReviewTask")
+            .endEvent()
+            .moveToNode("ParallelReviewGateway")
+            .userTask("ProjectManagerReviewTask")
+                .camundaTaskListenerDelegateExpression(TaskListener.EVENTNAME_COMPLETE, "${awaitOtherReviewer}")
+            .connectTo("ParallelJoinGateway")
+            .done();
+    }
+}
@@ -0,0 +1,137 @@
+package com.dynamicworkflow.service;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-instance Camunda sync (one variable query plus one task query per
+ * instance) with the batched ProcessStateReader on an in-memory H2 engine.
+ *
+ * Usage: ProcessSyncBenchmark [instances...]   (default 1000 10000 100000)
+ * A quarter of the instances are run to completion to exercise the history path.
+ */
+public class ProcessSyncBenchmark {
+
+    private static final String PROCESS_KEY = "sync-benchmark";
+    private static final int BATCH_SIZE = 500;
+
+    public static void main(String[] args) {
+        long[] sizes = args.length > 0 ? new long[args.length] : new long[] {1_000, 10_000, 100_000};
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Long.parseLong(args[i]);
+        }
+        for (long size : sizes) {
+            run((int) size);
+        }
+    }
+
+    private static void run(int instances) {
+        StandaloneInMemProcessEngineConfiguration configuration = new StandaloneInMemProcessEngineConfiguration();
+        configuration.setJdbcUrl("jdbc:h2:mem:sync-benchmark-" + instances + ";DB_CLOSE_DELAY=-1");
+        configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+        configuration.setHistory(ProcessEngineConfiguration.HISTORY_FULL);
+        configuration.setJobExecutorActivate(false);
+        configuration.setMetricsEnabled(false);
+        ProcessEngine processEngine = configuration.buildProcessEngine();
+
+        try {
+            RuntimeService runtimeService = processEngine.getRuntimeService();
+            TaskService taskService = processEngine.getTaskService();
+            HistoryService historyService = processEngine.getHistoryService();
+            processEngine.getRepositoryService().createDeployment()
+                .addModelInstance(PROCESS_KEY + ".bpmn", model())
+                .deploy();
+
+            System.out.printf("%n%,d instances%n", instances);
+            long start = System.nanoTime();
+            List<String> active = new ArrayList<>();
+            List<String> ended = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(
+                    PROCESS_KEY, "APP-" + i, variables(i));
+                if (i % 4 == 0) {
+                    for (int step = 0; step < 2; step++) {
+                        Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+                        taskService.complete(task.getId());
+                    }
+                    ended.add(processInstance.getId());
+                } else {
+                    active.add(processInstance.getId());
+                }
+            }
+            report("Setup", start, instances, 0);
+
+            start = System.nanoTime();
+            for (String processInstanceId : active) {
+                runtimeService.getVariables(processInstanceId);
+                taskService.createTaskQuery().processInstanceId(processInstanceId).active().list();
+            }
+            for (String processInstanceId : ended) {
+                historyService.createHistoricVariableInstanceQuery().processInstanceId(processInstanceId).list();
+            }
+            report("Per-instance sync", start, instances, 2L * active.size() + ended.size());
+
+            ProcessStateReader reader = new ProcessStateReader(processEngine, BATCH_SIZE);
+            start = System.nanoTime();
+            int read = reader.readActive(active).size() + reader.readEnded(ended).size();
+            report("Batched sync", start, read, 2L * batches(active.size()) + batches(ended.size()));
+        } finally {
+            processEngine.close();
+        }
+    }
+
+    /**
+     * Two user tasks named like the recruitment process, so status mapping sees real task names
+     */
+    private static BpmnModelInstance model() {
+        return Bpmn.createExecutableProcess(PROCESS_KEY)
+            .startEvent()
+            .userTask("HRReviewTask").name("HR Application Review")
+            .userTask("HeadHRReviewTask").name("Head HR Final Review")
+            .endEvent()
+            .done();
+    }
+
+    /**
+     * Form data plus review variables, roughly the mix the real process carries
+     */
+    private static Map<String, Object> variables(int i) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("applicationId", "APP-" + i);
+        variables.put("firstName", "First" + i);
+        variables.put("lastName", "Last" + i);
+        variables.put("email", "applicant" + i + "@example.com");
+        variables.put("position", "Software Engineer");
+        variables.put("skills", "Java, Spring, Camunda");
+        variables.put("expectedSalaryCTC", "1200000");
+        variables.put("hrDecision", "accept");
+        variables.put("hrComments", "Good profile");
+        variables.put("interviewRequired", i % 2 == 0);
+        return variables;
+    }
+
+    private static long batches(int instances) {
+        return (instances + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    private static void report(String phase, long startNanos, long items, long queries) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        String detail = queries > 0 ? String.format("%,d instances, %,d queries", items, queries)
+                                    : String.format("%,d instances", items);
+        System.out.printf("  %-20s %,8d ms  (%s)%n", phase, millis, detail);
+    }
+}
@@ -0,0 +1,156 @@
+package com.dynamicworkflow.variable;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.model.bpmn.Bpmn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Java serialization with CompactJsonValueSerializer for the map variables the
+ * recruitment process stores: serialized size and serialize/deserialize cost per value,
+ * then the ACT_GE_BYTEARRAY bytes per process instance on an in-memory H2 engine.
+ *
+ * Usage: VariableSerializationBenchmark [instances]   (default 10000)
+ */
+public class VariableSerializationBenchmark {
+
+    private static final String PROCESS_KEY = "variable-benchmark";
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        CompactJsonValueSerializer compact = new CompactJsonValueSerializer(512);
+
+        HashMap<String, Object> applicantData = applicantData(42);
+        System.out.printf("applicantData (%d fields)%n", applicantData.size());
+        byte[] java = javaSerialize(applicantData);
+        byte[] json = compact.serializeToByteArray(applicantData);
+        System.out.printf("  %-22s %,6d bytes%n", "Java serialization", java.length);
+        System.out.printf("  %-22s %,6d bytes%n", "Compact JSON", json.length);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            javaSerialize(applicantData);
+        }
+        report("Java serialize", start);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            new ObjectInputStream(new ByteArrayInputStream(java)).readObject();
+        }
+        report("Java deserialize", start);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            compact.serializeToByteArray(applicantData);
+        }
+        report("JSON serialize", start);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            compact.deserializeFromByteArray(json, HashMap.class.getName());
+        }
+        report("JSON deserialize", start);
+
+        System.out.printf("%n%,d instances with applicantData and onboarding data%n", instances);
+        System.out.printf("  %-22s %,6d bytes/instance%n", "Java serialization", bytesPerInstance(instances, null));
+        System.out.printf("  %-22s %,6d bytes/instance%n", "Compact JSON", bytesPerInstance(instances, compact));
+    }
+
+    private static long bytesPerInstance(int instances, CompactJsonValueSerializer serializer) throws Exception {
+        String jdbcUrl = "jdbc:h2:mem:variable-benchmark-" + (serializer != null ? "json" : "java") + ";DB_CLOSE_DELAY=-1";
+        StandaloneInMemProcessEngineConfiguration configuration = new StandaloneInMemProcessEngineConfiguration();
+        configuration.setJdbcUrl(jdbcUrl);
+        configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+        configuration.setHistory(ProcessEngineConfiguration.HISTORY_NONE);
+        configuration.setJobExecutorActivate(false);
+        configuration.setMetricsEnabled(false);
+        if (serializer != null) {
+            List<TypedValueSerializer> serializers = new ArrayList<>();
+            serializers.add(serializer);
+            configuration.setCustomPreVariableSerializers(serializers);
+            configuration.setDefaultSerializationFormat(CompactJsonValueSerializer.DATA_FORMAT);
+        }
+        ProcessEngine processEngine = configuration.buildProcessEngine();
+
+        try {
+            processEngine.getRepositoryService().createDeployment()
+                .addModelInstance(PROCESS_KEY + ".bpmn", Bpmn.createExecutableProcess(PROCESS_KEY)
+                    .startEvent().userTask("HRReviewTask").endEvent().done())
+                .deploy();
+            for (int i = 0; i < instances; i++) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("applicantData", applicantData(i));
+                variables.put("candidateOnboardingData", onboardingData(i));
+                processEngine.getRuntimeService().startProcessInstanceByKey(PROCESS_KEY, "APP-" + i, variables);
+            }
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT SUM(LENGTH(BYTES_)) FROM ACT_GE_BYTEARRAY")) {
+                result.next();
+                return result.getLong(1) / instances;
+            }
+        } finally {
+            processEngine.close();
+        }
+    }
+
+    /**
+     * The map CollectApplicantDataDelegate builds from the three form steps
+     */
+    private static HashMap<String, Object> applicantData(int i) {
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("firstName", "First" + i);
+        data.put("lastName", "Last" + i);
+        data.put("email", "applicant" + i + "@example.com");
+        data.put("mobileNumber", "98765" + String.format("%05d", i % 100_000));
+        data.put("dateOfBirth", "1996-04-1" + (i % 10));
+        data.put("gender", i % 2 == 0 ? "female" : "male");
+        data.put("position", "Software Engineer");
+        data.put("expectedSalaryCTC", "1200000");
+        data.put("noticePeriod", "30");
+        data.put("totalExperience", "4");
+        data.put("highestEducation", "B.Tech");
+        data.put("skills", "Java, Spring Boot, Camunda, SQL, REST APIs, Docker");
+        data.put("referralId", null);
+        return data;
+    }
+
+    private static HashMap<String, Object> onboardingData(int i) {
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("permanentAddress", i + " MG Road, Bengaluru, Karnataka 560001");
+        data.put("emergencyContactName", "Contact " + i);
+        data.put("emergencyContactNumber", "9876500000");
+        data.put("bankAccountNumber", "00011122233" + (i % 10));
+        data.put("ifscCode", "HDFC0001234");
+        data.put("panNumber", "ABCDE1234F");
+        data.put("documents", new ArrayList<>(Arrays.asList("resume.pdf", "degree.pdf", "id-proof.pdf")));
+        return data;
+    }
+
+    private static byte[] javaSerialize(Object value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void report(String phase, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        System.out.printf("  %-22s %,8d ms  (%,d ns/value)%n", phase, TimeUnit.NANOSECONDS.toMillis(nanos), nanos / ITERATIONS);
+    }
+}